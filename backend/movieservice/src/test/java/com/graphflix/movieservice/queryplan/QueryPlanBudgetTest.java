@@ -0,0 +1,85 @@
+package com.graphflix.movieservice.queryplan;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.neo4j.driver.AuthTokens;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.GraphDatabase;
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.graphflix.queryplan.QueryPlanProfiler;
+
+/**
+ * Fails when a Cypher change turns an index seek into a scan or otherwise
+ * blows the db-hit budget in {@code query-plans/budgets.json}, and when a
+ * repository {@code @Query} method or a {@code *_QUERY} constant has no
+ * budget. A failing statement reports its measured profile, which is what to
+ * copy into the budget file when a plan change is intended.
+ */
+class QueryPlanBudgetTest {
+
+    private static final Map<String, Class<?>> SOURCES = QueryPlanProfiler.scan("com.graphflix.movieservice");
+
+    private static Neo4j neo4j;
+    private static Driver driver;
+    private static QueryPlanProfiler profiler;
+    private static Map<String, QueryPlanProfiler.Budget> budgets;
+
+    @BeforeAll
+    static void startDatabase() throws Exception {
+        neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().build();
+        driver = GraphDatabase.driver(neo4j.boltURI(), AuthTokens.none());
+        profiler = new QueryPlanProfiler(driver, SOURCES);
+        try (InputStream seed = QueryPlanBudgetTest.class.getResourceAsStream("/query-plans/seed.cypher");
+                InputStream budgetFile = QueryPlanBudgetTest.class.getResourceAsStream("/query-plans/budgets.json")) {
+            profiler.seed(seed);
+            budgets = new ObjectMapper().readValue(budgetFile, new TypeReference<>() {});
+        }
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        driver.close();
+        neo4j.close();
+    }
+
+    @Test
+    void everyStatementHasABudget() {
+        List<String> missing = SOURCES.values().stream()
+                .flatMap(source -> QueryPlanProfiler.statements(source).stream())
+                .filter(id -> !budgets.containsKey(id))
+                .toList();
+        assertTrue(missing.isEmpty(), "Missing query-plan budgets for " + missing);
+    }
+
+    @TestFactory
+    Stream<DynamicTest> statementsStayWithinBudget() {
+        return budgets.entrySet().stream().map(entry -> DynamicTest.dynamicTest(entry.getKey(), () -> {
+            QueryPlanProfiler.Budget budget = entry.getValue();
+            QueryPlanProfiler.Profile profile = profiler.profile(entry.getKey(), budget.parameters());
+            String measured = " (dbHits: " + profile.dbHits() + ", operators: " + profile.operators() + ")";
+
+            Set<String> unexpected = new TreeSet<>(profile.operators());
+            unexpected.removeAll(budget.allowedOperators());
+            assertTrue(unexpected.isEmpty(),
+                    entry.getKey() + " uses operators outside its budget: " + unexpected + measured);
+            assertTrue(profile.dbHits() <= budget.maxDbHits(),
+                    entry.getKey() + " used " + profile.dbHits() + " db hits, budget is " + budget.maxDbHits()
+                            + measured);
+        }));
+    }
+}
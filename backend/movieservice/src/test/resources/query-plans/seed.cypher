@@ -0,0 +1,17 @@
+// Deterministic dataset for query-plan budgets: 300 movies, 400 people.
+// Indexes declared here are the ones the production graph is expected to have.
+CREATE INDEX movie_title IF NOT EXISTS FOR (m:Movie) ON (m.title);
+CREATE INDEX person_name IF NOT EXISTS FOR (p:Person) ON (p.name);
+UNWIND range(1, 300) AS i
+CREATE (:Movie {title: 'Movie ' + i, released: 1970 + i % 50, tagline: 'Tagline ' + i});
+UNWIND range(1, 400) AS i
+CREATE (:Person {name: 'Person ' + i, born: 1940 + i % 60});
+MATCH (m:Movie)
+WITH m, toInteger(split(m.title, ' ')[1]) AS i
+UNWIND range(0, 3) AS k
+MATCH (p:Person {name: 'Person ' + ((i * 7 + k * 13) % 400 + 1)})
+CREATE (p)-[:ACTED_IN]->(m);
+MATCH (m:Movie)
+WITH m, toInteger(split(m.title, ' ')[1]) AS i
+MATCH (director:Person {name: 'Person ' + (i % 40 + 1)})
+CREATE (director)-[:DIRECTED]->(m);
@@ -0,0 +1,223 @@
+package com.graphflix.outbox;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.driver.types.TypeSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Transactional outbox for Kafka events. Writers store each event as an
+ * OutboxEvent node inside their own Neo4j transaction, so an event exists if
+ * and only if the change it describes was committed, and user requests never
+ * wait on the broker.
+ *
+ * <p>The relay claims the oldest events in batches, sends them with the
+ * idempotent producer and deletes them once the broker acknowledged them.
+ * Delivery is at least once: events whose send failed, or whose relay died
+ * mid-batch, are sent again after their lease expires.
+ *
+ * <p>This one copy serves every service that publishes through an outbox.
+ * The services build on their own, each from its own directory, so the
+ * directory is added to their sources by {@code build-helper-maven-plugin}
+ * and the class is imported by each application rather than found by its
+ * component scan.
+ */
+@Service
+public class OutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxService.class);
+
+    public record OutboxMessage(String topic, String key, byte[] payload) {}
+
+    private record ClaimedEvent(String id, String topic, String key, byte[] payload) {}
+
+    private static final String ENQUEUE_QUERY = """
+            UNWIND $events AS event
+            CREATE (e:OutboxEvent)
+            SET e = event
+            """;
+
+    /**
+     * Leases the oldest unleased events. The first lease check only picks
+     * candidates; each is then write-locked and checked again, so a relay
+     * that waited for a concurrent claim to commit skips the events it
+     * leased. Index-backed order on (createdAt, sequence) keeps this a
+     * bounded seek however large the backlog grows.
+     */
+    private static final String CLAIM_QUERY = """
+            MATCH (e:OutboxEvent)
+            WHERE e.createdAt >= 0 AND e.sequence >= 0 AND coalesce(e.leasedUntil, 0) < $now
+            WITH e ORDER BY e.createdAt, e.sequence LIMIT $batchSize
+            WITH collect(e) AS candidates
+            UNWIND candidates AS e
+            SET e._lock = true
+            WITH e, coalesce(e.leasedUntil, 0) < $now AS unleased
+            REMOVE e._lock
+            WITH e
+            WHERE unleased
+            SET e.leasedUntil = $now + $leaseMillis
+            RETURN e.id AS id, e.topic AS topic, e.messageKey AS messageKey, e.payload AS payload
+            """;
+
+    private static final String DELETE_QUERY = """
+            UNWIND $ids AS id
+            MATCH (e:OutboxEvent {id: id})
+            DELETE e
+            """;
+
+    private static final String OLDEST_QUERY = """
+            MATCH (e:OutboxEvent)
+            WHERE e.createdAt >= 0 AND e.sequence >= 0
+            RETURN e.createdAt AS createdAt
+            ORDER BY e.createdAt, e.sequence
+            LIMIT 1
+            """;
+
+    // Orders events written in the same millisecond by this instance
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Neo4jClient neo4jClient;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final int batchSize;
+    private final long leaseMillis;
+    private final long sendTimeoutMillis;
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final DistributionSummary batchSizes;
+    private final Counter failures;
+
+    public OutboxService(Neo4jClient neo4jClient, KafkaTemplate<String, byte[]> kafkaTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${outbox.relay.batch-size:200}") int batchSize,
+            @Value("${outbox.relay.lease-ms:30000}") long leaseMillis,
+            @Value("${outbox.relay.send-timeout-ms:10000}") long sendTimeoutMillis) {
+        this.neo4jClient = neo4jClient;
+        this.kafkaTemplate = kafkaTemplate;
+        this.batchSize = batchSize;
+        this.leaseMillis = leaseMillis;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        Gauge.builder("outbox.relay.lag", lagMillis, AtomicLong::get)
+                .description("Age of the oldest event still waiting in the outbox")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("outbox.relay.batch.size")
+                .description("Events claimed per relay run")
+                .register(meterRegistry);
+        this.failures = Counter.builder("outbox.relay.failures")
+                .description("Events whose send failed and will be retried")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stores the messages in the caller's transaction. Must run inside the
+     * transaction of the write they describe.
+     */
+    public void enqueue(List<OutboxMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        long createdAt = System.currentTimeMillis();
+        List<Map<String, Object>> events = new ArrayList<>(messages.size());
+        for (OutboxMessage message : messages) {
+            events.add(Map.of(
+                    "id", UUID.randomUUID().toString(),
+                    "topic", message.topic(),
+                    "messageKey", message.key(),
+                    "payload", message.payload(),
+                    "createdAt", createdAt,
+                    "sequence", sequence.incrementAndGet()));
+        }
+        neo4jClient.query(ENQUEUE_QUERY)
+                .bind(events).to("events")
+                .run();
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:500}")
+    public void relay() {
+        try {
+            while (relayBatch() == batchSize) {
+                // A full batch means more are waiting; keep draining
+            }
+            updateLag();
+        } catch (RuntimeException e) {
+            log.warn("[OutboxService] Relay run failed, retrying on the next run: {}", e.getMessage());
+        }
+    }
+
+    private int relayBatch() {
+        List<ClaimedEvent> claimed = new ArrayList<>(neo4jClient.query(CLAIM_QUERY)
+                .bindAll(Map.of("now", System.currentTimeMillis(), "batchSize", batchSize, "leaseMillis", leaseMillis))
+                .fetchAs(ClaimedEvent.class)
+                .mappedBy((typeSystem, record) -> new ClaimedEvent(
+                        record.get("id").asString(),
+                        record.get("topic").asString(),
+                        record.get("messageKey").asString(null),
+                        payload(typeSystem, record.get("payload"))))
+                .all());
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        batchSizes.record(claimed.size());
+
+        List<CompletableFuture<?>> sends = new ArrayList<>(claimed.size());
+        for (ClaimedEvent event : claimed) {
+            sends.add(kafkaTemplate.send(event.topic(), event.key(), event.payload()));
+        }
+        List<String> sent = new ArrayList<>(claimed.size());
+        for (int i = 0; i < claimed.size(); i++) {
+            try {
+                sends.get(i).get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+                sent.add(claimed.get(i).id());
+            } catch (ExecutionException | TimeoutException e) {
+                failures.increment();
+                log.warn("[OutboxService] Could not send event {} to '{}': {}",
+                        claimed.get(i).id(), claimed.get(i).topic(), e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (!sent.isEmpty()) {
+            neo4jClient.query(DELETE_QUERY)
+                    .bind(sent).to("ids")
+                    .run();
+        }
+        // A partially failed batch waits for its lease instead of spinning
+        return sent.size() == claimed.size() ? claimed.size() : 0;
+    }
+
+    // Events stored before the binary encoding hold their JSON as a string
+    private static byte[] payload(TypeSystem typeSystem, org.neo4j.driver.Value value) {
+        return value.hasType(typeSystem.STRING())
+                ? value.asString().getBytes(StandardCharsets.UTF_8)
+                : value.asByteArray();
+    }
+
+    private void updateLag() {
+        long oldest = neo4jClient.query(OLDEST_QUERY)
+                .fetchAs(Long.class)
+                .mappedBy((typeSystem, record) -> record.get("createdAt").asLong())
+                .one()
+                .orElse(System.currentTimeMillis());
+        lagMillis.set(Math.max(0, System.currentTimeMillis() - oldest));
+    }
+}
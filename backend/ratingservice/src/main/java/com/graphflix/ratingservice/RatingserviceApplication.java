@@ -2,8 +2,14 @@ package com.graphflix.ratingservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import com.graphflix.outbox.OutboxService;
 
 @SpringBootApplication
+@Import(OutboxService.class)
+@EnableScheduling
 public class RatingserviceApplication {
 
 	public static void main(String[] args) {
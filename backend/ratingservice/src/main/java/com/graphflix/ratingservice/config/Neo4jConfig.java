@@ -1,9 +1,96 @@
 package com.graphflix.ratingservice.config;
 
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.neo4j.repository.config.EnableNeo4jRepositories;
 
 @Configuration
 @EnableNeo4jRepositories(basePackages = "com.graphflix.ratingservice.repository")
 public class Neo4jConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(Neo4jConfig.class);
+
+    @Bean
+    CommandLineRunner createNeo4jSchema(Driver driver) {
+        return args -> {
+            try (Session session = driver.session()) {
+                // Ratings are RATED relationships; their ids are unique and looked up on delete
+                session.run(
+                    "CREATE CONSTRAINT rated_id_unique IF NOT EXISTS " +
+                    "FOR ()-[r:RATED]-() REQUIRE r.id IS UNIQUE"
+                ).consume();
+                session.run(
+                    "CREATE CONSTRAINT rating_id_sequence_unique IF NOT EXISTS " +
+                    "FOR (s:RatingIdSequence) REQUIRE s.name IS UNIQUE"
+                ).consume();
+                log.info("Ensured uniqueness constraints on [:RATED](id) and :RatingIdSequence(name)");
+
+                // Stripes of a hot movie's aggregates are looked up by movie and stripe number
+                session.run(
+                    "CREATE CONSTRAINT rating_stripe_unique IF NOT EXISTS " +
+                    "FOR (s:RatingStripe) REQUIRE (s.movieId, s.stripe) IS UNIQUE"
+                ).consume();
+                log.info("Ensured uniqueness constraint on :RatingStripe(movieId, stripe)");
+
+                // Rater sketches are merged and read by movie and day
+                session.run(
+                    "CREATE CONSTRAINT rater_sketch_unique IF NOT EXISTS " +
+                    "FOR (s:RaterSketch) REQUIRE (s.movieId, s.day) IS UNIQUE"
+                ).consume();
+                log.info("Ensured uniqueness constraint on :RaterSketch(movieId, day)");
+
+                // Activity rollups are read by movie and day, and compacted and evicted by day
+                session.run(
+                    "CREATE CONSTRAINT rating_activity_unique IF NOT EXISTS " +
+                    "FOR (a:RatingActivity) REQUIRE (a.movieId, a.day) IS UNIQUE"
+                ).consume();
+                session.run(
+                    "CREATE INDEX rating_activity_day IF NOT EXISTS " +
+                    "FOR (a:RatingActivity) ON (a.day)"
+                ).consume();
+                session.run(
+                    "CREATE INDEX hourly_rating_activity_day IF NOT EXISTS " +
+                    "FOR (a:HourlyRatingActivity) ON (a.day)"
+                ).consume();
+                log.info("Ensured uniqueness constraint on :RatingActivity(movieId, day) and indexes on (day)");
+
+                // Keyset pagination of rating lists seeks (owner, key) in descending order
+                session.run(
+                    "CREATE INDEX rated_user_timestamp IF NOT EXISTS " +
+                    "FOR ()-[r:RATED]-() ON (r.userId, r.timestamp)"
+                ).consume();
+                session.run(
+                    "CREATE INDEX rated_user_rating IF NOT EXISTS " +
+                    "FOR ()-[r:RATED]-() ON (r.userId, r.rating)"
+                ).consume();
+                session.run(
+                    "CREATE INDEX rated_movie_timestamp IF NOT EXISTS " +
+                    "FOR ()-[r:RATED]-() ON (r.movieId, r.timestamp)"
+                ).consume();
+                session.run(
+                    "CREATE INDEX rated_movie_rating IF NOT EXISTS " +
+                    "FOR ()-[r:RATED]-() ON (r.movieId, r.rating)"
+                ).consume();
+                log.info("Ensured keyset pagination indexes on [:RATED]");
+
+                // The outbox relay deletes events by id and drains them oldest first
+                session.run(
+                    "CREATE CONSTRAINT outbox_event_id_unique IF NOT EXISTS " +
+                    "FOR (e:OutboxEvent) REQUIRE e.id IS UNIQUE"
+                ).consume();
+                session.run(
+                    "CREATE INDEX outbox_event_created_at IF NOT EXISTS " +
+                    "FOR (e:OutboxEvent) ON (e.createdAt, e.sequence)"
+                ).consume();
+                log.info("Ensured outbox constraint and index on :OutboxEvent");
+            } catch (Exception e) {
+                log.warn("Could not create Neo4j constraints and indexes (may already exist): {}", e.getMessage());
+            }
+        };
+    }
 }
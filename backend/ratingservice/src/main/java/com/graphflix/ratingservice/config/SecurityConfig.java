@@ -29,13 +29,23 @@ public class SecurityConfig {
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthFilter) throws Exception {
         log.info("[SecurityConfig] Building security filter chain...");
-        log.info("[SecurityConfig] Rules: GET /greeting, /movie/**, /user/** => permitAll | everything else => authenticated");
+        log.info("[SecurityConfig] Rules: GET /greeting, /movie/**, /user/**, /top-rated, /activity, /reactive/user/**, /reactive/movie/**, POST /movie/averages, POST /import, PUT /movie/*/stripes (internal token) => permitAll | everything else => authenticated");
 
         http.csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.GET, "/greeting").permitAll()
                         .requestMatchers(HttpMethod.GET, "/movie/**").permitAll()
+                        // /user/{userId}/export checks for the user or the internal token in the controller
                         .requestMatchers(HttpMethod.GET, "/user/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/top-rated").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/activity").permitAll()
+                        // Non-blocking variants of the /user and /movie reads
+                        .requestMatchers(HttpMethod.GET, "/reactive/user/**", "/reactive/movie/**").permitAll()
+                        // Read-only batch lookup; POST only to carry a long id list
+                        .requestMatchers(HttpMethod.POST, "/movie/averages").permitAll()
+                        // Checked against the internal token in the controller
+                        .requestMatchers(HttpMethod.POST, "/import").permitAll()
+                        .requestMatchers(HttpMethod.PUT, "/movie/*/stripes").permitAll()
                         .anyRequest().authenticated()
                 )
                 .exceptionHandling(ex -> ex
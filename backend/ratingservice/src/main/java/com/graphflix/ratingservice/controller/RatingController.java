@@ -1,29 +1,69 @@
 package com.graphflix.ratingservice.controller;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.CookieValue;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.graphflix.ratingservice.dto.AverageRatingDTO;
 import com.graphflix.ratingservice.dto.CreateRatingRequest;
+import com.graphflix.ratingservice.dto.RatingActivityDTO;
 import com.graphflix.ratingservice.dto.RatingDTO;
+import com.graphflix.ratingservice.dto.RatingHistogramDTO;
+import com.graphflix.ratingservice.dto.RatingPercentilesDTO;
+import com.graphflix.ratingservice.dto.RatingSliceDTO;
+import com.graphflix.ratingservice.dto.RatingWriteStatusDTO;
+import com.graphflix.ratingservice.dto.TopRatedMovieDTO;
+import com.graphflix.ratingservice.dto.UniqueRatersDTO;
+import com.graphflix.ratingservice.dto.UserRatingSummaryDTO;
+import com.graphflix.ratingservice.exception.GlobalExceptionHandler;
+import com.graphflix.ratingservice.exception.MovieNotFoundException;
 import com.graphflix.ratingservice.model.Rating;
+import com.graphflix.ratingservice.service.AsyncRatingWriter;
+import com.graphflix.ratingservice.service.IdempotencyStore;
+import com.graphflix.ratingservice.service.MovieRatingsCache;
+import com.graphflix.ratingservice.service.RatingActivityRollups;
+import com.graphflix.ratingservice.service.RatingAggregateService;
+import com.graphflix.ratingservice.service.RatingCursor;
+import com.graphflix.ratingservice.service.RatingExportService;
+import com.graphflix.ratingservice.service.RatingImportService;
 import com.graphflix.ratingservice.service.RatingService;
+import com.graphflix.ratingservice.service.RatingStatsService;
+import com.graphflix.ratingservice.service.TopRatedLeaderboard;
+import com.graphflix.ratingservice.service.UserRatingSummaryService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 @RestController
 @RequestMapping("/")
@@ -31,15 +71,74 @@ public class RatingController {
 
     private static final Logger log = LoggerFactory.getLogger(RatingController.class);
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_HISTOGRAM_BATCH = 100;
+    private static final int MAX_AVERAGE_BATCH = 10_000;
+    private static final int MAX_TOP_RATED = 100;
+    private static final int AVERAGE_CHUNK = 500;
+    private static final String INTERNAL_TOKEN_HEADER = "X-Internal-Token";
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+    private static final String RESPOND_ASYNC = "respond-async";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    private static final int MAX_COMMENT_LENGTH = 500;
+    private static final int MAX_AGGREGATE_STRIPES = 64;
+    private static final int MAX_STATS_DAYS = 366;
+    private static final int DEFAULT_STATS_DAYS = 30;
+    private static final int MAX_QUANTILES = 20;
+    private static final int DEFAULT_ACTIVITY_DAYS = 7;
+
     private final RatingService ratingService;
+    private final RatingImportService ratingImportService;
+    private final RatingExportService ratingExportService;
+    private final AsyncRatingWriter asyncRatingWriter;
+    private final IdempotencyStore idempotencyStore;
+    private final TopRatedLeaderboard topRatedLeaderboard;
+    private final RatingAggregateService aggregateService;
+    private final RatingStatsService ratingStatsService;
+    private final RatingActivityRollups activityRollups;
+    private final UserRatingSummaryService userSummaryService;
+    private final MovieRatingsCache movieRatingsCache;
+    private final ObjectMapper objectMapper;
 
-    public RatingController(RatingService ratingService) {
+    @Value("${internal.api-token:}")
+    private String internalApiToken;
+
+    public RatingController(RatingService ratingService, RatingImportService ratingImportService,
+            RatingExportService ratingExportService, AsyncRatingWriter asyncRatingWriter, IdempotencyStore idempotencyStore,
+            TopRatedLeaderboard topRatedLeaderboard, RatingAggregateService aggregateService,
+            RatingStatsService ratingStatsService, RatingActivityRollups activityRollups,
+            UserRatingSummaryService userSummaryService, MovieRatingsCache movieRatingsCache,
+            ObjectMapper objectMapper) {
         this.ratingService = ratingService;
+        this.ratingImportService = ratingImportService;
+        this.ratingExportService = ratingExportService;
+        this.asyncRatingWriter = asyncRatingWriter;
+        this.idempotencyStore = idempotencyStore;
+        this.topRatedLeaderboard = topRatedLeaderboard;
+        this.aggregateService = aggregateService;
+        this.ratingStatsService = ratingStatsService;
+        this.activityRollups = activityRollups;
+        this.userSummaryService = userSummaryService;
+        this.movieRatingsCache = movieRatingsCache;
+        this.objectMapper = objectMapper;
     }
 
+    /**
+     * Creates or updates the caller's rating of a movie. When asynchronous
+     * write mode is enabled, callers sending {@code Prefer: respond-async}
+     * get 202 with a token as soon as the rating is queued, or 429 when the
+     * queue is full; everyone else is answered once the rating is committed.
+     * A retry carrying the same {@code Idempotency-Key} gets the original
+     * response back without writing again. Accepted writes set the
+     * {@link MovieRatingsCache#RECENT_RATER_COOKIE} cookie.
+     */
     @PostMapping
-    public ResponseEntity<RatingDTO> upsertRating(
-            @RequestBody CreateRatingRequest request) {
+    public ResponseEntity<?> upsertRating(
+            @RequestBody CreateRatingRequest request,
+            @RequestHeader(value = "Prefer", required = false) String prefer,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
 
         log.info("[RatingController] POST / — upsertRating called with movieId: {}, rating: {}, comment: '{}'",
                 request.getMovieId(), request.getRating(), request.getComment());
@@ -51,6 +150,32 @@ public class RatingController {
         }
 
         String email = auth.getName();
+        boolean async = prefer != null && prefer.contains(RESPOND_ASYNC) && asyncRatingWriter.isEnabled();
+        if (idempotencyKey == null) {
+            return writeRating(email, request, async);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+        String fingerprint = String.join("|", "POST", String.valueOf(async), request.getMovieId(),
+                String.valueOf(request.getRating()), String.valueOf(request.getComment()));
+        return idempotencyStore.execute(email, idempotencyKey, fingerprint,
+                () -> writeRating(email, request, async));
+    }
+
+    private ResponseEntity<?> writeRating(String email, CreateRatingRequest request, boolean async) {
+        // Checked before either path writes: an out-of-range rating would fail the aggregate update only after
+        // the RATED relationship was written, and problems found after a 202 could only be reported via the token
+        String invalid = validate(request);
+        if (invalid != null) {
+            log.warn("[RatingController] Rejected rating of movie '{}' by '{}': {}",
+                    request.getMovieId(), email, invalid);
+            return ResponseEntity.badRequest()
+                    .body(new GlobalExceptionHandler.ErrorResponse(HttpStatus.BAD_REQUEST.value(), invalid));
+        }
+        if (async) {
+            return queueRating(email, request);
+        }
         log.info("[RatingController] Upserting rating for email: '{}', movieId: '{}', rating: {}",
                 email, request.getMovieId(), request.getRating());
 
@@ -62,31 +187,161 @@ public class RatingController {
         );
 
         log.info("[RatingController] Rating upserted successfully — ID: {}", rating.getId());
-        return ResponseEntity.ok(toDTO(rating));
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, movieRatingsCache.recentRaterCookie().toString())
+                .body(toDTO(rating));
+    }
+
+    private ResponseEntity<?> queueRating(String email, CreateRatingRequest request) {
+        return asyncRatingWriter.submit(email, request.getMovieId(), request.getRating(), request.getComment())
+                .<ResponseEntity<?>>map(token -> {
+                    log.info("[RatingController] Queued rating of movie '{}' by '{}' — token: {}",
+                            request.getMovieId(), email, token);
+                    return ResponseEntity.accepted()
+                            .header("Preference-Applied", RESPOND_ASYNC)
+                            .header(HttpHeaders.SET_COOKIE, movieRatingsCache.recentRaterCookie().toString())
+                            .body(RatingWriteStatusDTO.builder()
+                                    .token(token)
+                                    .status(AsyncRatingWriter.Status.PENDING.name())
+                                    .build());
+                })
+                .orElseGet(() -> {
+                    log.warn("[RatingController] Rating queue full — rejecting rating of movie '{}' by '{}'",
+                            request.getMovieId(), email);
+                    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                            .header("Retry-After", "1")
+                            .build();
+                });
+    }
+
+    private static String validate(CreateRatingRequest request) {
+        if (request.getMovieId() == null || request.getMovieId().isBlank()) {
+            return "Movie ID is required";
+        }
+        if (request.getRating() == null || request.getRating() < 1 || request.getRating() > 10) {
+            return "Rating must be between 1 and 10";
+        }
+        if (request.getComment() != null && request.getComment().length() > MAX_COMMENT_LENGTH) {
+            return "Comment must not exceed " + MAX_COMMENT_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    @GetMapping("/async/{token}")
+    public ResponseEntity<RatingWriteStatusDTO> getAsyncRatingStatus(@PathVariable String token) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        // Tokens of other users are reported as unknown
+        return asyncRatingWriter.outcome(token)
+                .filter(outcome -> outcome.email().equals(auth.getName()))
+                .map(outcome -> ResponseEntity.ok(RatingWriteStatusDTO.builder()
+                        .token(token)
+                        .status(outcome.status().name())
+                        .build()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteRating(@PathVariable Long id) {
+    public ResponseEntity<?> deleteRating(
+            @PathVariable Long id,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("[RatingController] DELETE /{} — deleteRating", id);
+        if (idempotencyKey == null) {
+            return removeRating(id);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String principal = auth != null ? auth.getName() : "anonymous";
+        return idempotencyStore.execute(principal, idempotencyKey, "DELETE|" + id, () -> removeRating(id));
+    }
+
+    private ResponseEntity<?> removeRating(Long id) {
         ratingService.deleteRating(id);
         log.info("[RatingController] Rating {} deleted successfully", id);
-        return ResponseEntity.noContent().build();
+        return ResponseEntity.noContent()
+                .header(HttpHeaders.SET_COOKIE, movieRatingsCache.recentRaterCookie().toString())
+                .build();
     }
 
+    /**
+     * Keyset-paginated ratings of a user, sorted by {@code timestamp} or
+     * {@code rating}, highest first. Pass the previous page's
+     * {@code nextCursor} as {@code cursor} to continue.
+     */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<Page<RatingDTO>> getUserRatings(
+    public ResponseEntity<RatingSliceDTO> getUserRatings(
             @PathVariable String userId,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(defaultValue = "timestamp") String sortBy) {
+            @RequestParam(defaultValue = "timestamp") String sortBy,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
 
-        log.info("[RatingController] GET /user/{} — page: {}, size: {}, sortBy: {}", userId, page, size, sortBy);
-        Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy).descending());
-        Page<RatingDTO> ratings = ratingService.getUserRatings(userId, pageable);
-        log.info("[RatingController] Returning {} ratings for user '{}'", ratings.getTotalElements(), userId);
+        log.info("[RatingController] GET /user/{} — size: {}, sortBy: {}, cursor: {}", userId, size, sortBy, cursor);
+        RatingCursor.SortKey sortKey = RatingCursor.SortKey.of(sortBy).orElse(null);
+        if (sortKey == null || size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        RatingCursor after;
+        try {
+            after = cursor == null ? null : RatingCursor.decode(cursor, sortKey);
+        } catch (IllegalArgumentException e) {
+            log.warn("[RatingController] Rejected cursor for user '{}': {}", userId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        RatingSliceDTO ratings = ratingService.getUserRatings(userId, sortKey, after, size, includeTotal);
+        log.info("[RatingController] Returning {} ratings for user '{}'", ratings.getSize(), userId);
         return ResponseEntity.ok(ratings);
     }
 
+    /**
+     * How many movies the user rated, their average rating and when their
+     * ratings last changed, read from the summary kept on the User node.
+     */
+    @GetMapping("/user/{userId}/summary")
+    public ResponseEntity<UserRatingSummaryDTO> getUserRatingSummary(@PathVariable String userId) {
+        log.info("[RatingController] GET /user/{}/summary", userId);
+        UserRatingSummaryDTO summary = userSummaryService.getSummary(userId);
+        log.info("[RatingController] Rating summary for user '{}': {}", userId, summary);
+        return ResponseEntity.ok(summary);
+    }
+
+    /**
+     * Streams all of a user's ratings as NDJSON or CSV, for the user
+     * themselves or an internal caller.
+     */
+    @GetMapping("/user/{userId}/export")
+    public ResponseEntity<StreamingResponseBody> exportUserRatings(
+            @PathVariable String userId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = INTERNAL_TOKEN_HEADER, required = false) String token) {
+
+        log.info("[RatingController] GET /user/{}/export — format: {}", userId, format);
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean owner = auth != null && !(auth instanceof AnonymousAuthenticationToken)
+                && userId.equals(auth.getName());
+        if (!owner && !isInternalCaller(token)) {
+            log.error("[RatingController] Export of '{}' rejected — caller is neither the user nor internal", userId);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        RatingImportService.Format exportFormat;
+        try {
+            exportFormat = RatingImportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        ratingExportService.checkAvailable();
+        String extension = exportFormat == RatingImportService.Format.CSV ? "csv" : "ndjson";
+        StreamingResponseBody body = out -> ratingExportService.export(userId, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat == RatingImportService.Format.CSV ? CSV : NDJSON))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"ratings." + extension + "\"")
+                .body(body);
+    }
+
     @GetMapping("/my-rating/{movieId}")
     public ResponseEntity<RatingDTO> getMyRatingForMovie(
             @PathVariable String movieId) {
@@ -105,17 +360,37 @@ public class RatingController {
         return ResponseEntity.ok(rating);
     }
 
+    /**
+     * Keyset-paginated ratings of a movie, sorted by {@code rating} or
+     * {@code timestamp}, highest first. Pass the previous page's
+     * {@code nextCursor} as {@code cursor} to continue. Clients that just
+     * rated send {@link MovieRatingsCache#RECENT_RATER_COOKIE} back and get
+     * their first pages from the database.
+     */
     @GetMapping("/movie/{movieId}")
-    public ResponseEntity<Page<RatingDTO>> getMovieRatings(
+    public ResponseEntity<RatingSliceDTO> getMovieRatings(
             @PathVariable String movieId,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(defaultValue = "rating") String sortBy) {
+            @RequestParam(defaultValue = "rating") String sortBy,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @CookieValue(value = MovieRatingsCache.RECENT_RATER_COOKIE, required = false) String recentRater) {
 
-        log.info("[RatingController] GET /movie/{} — page: {}, size: {}, sortBy: {}", movieId, page, size, sortBy);
-        Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy).descending());
-        Page<RatingDTO> ratings = ratingService.getMovieRatings(movieId, pageable);
-        log.info("[RatingController] Returning {} ratings for movie '{}'", ratings.getTotalElements(), movieId);
+        log.info("[RatingController] GET /movie/{} — size: {}, sortBy: {}, cursor: {}", movieId, size, sortBy, cursor);
+        RatingCursor.SortKey sortKey = RatingCursor.SortKey.of(sortBy).orElse(null);
+        if (sortKey == null || size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        RatingCursor after;
+        try {
+            after = cursor == null ? null : RatingCursor.decode(cursor, sortKey);
+        } catch (IllegalArgumentException e) {
+            log.warn("[RatingController] Rejected cursor for movie '{}': {}", movieId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        RatingSliceDTO ratings = ratingService.getMovieRatings(movieId, sortKey, after, size, includeTotal,
+                recentRater != null);
+        log.info("[RatingController] Returning {} ratings for movie '{}'", ratings.getSize(), movieId);
         return ResponseEntity.ok(ratings);
     }
 
@@ -127,6 +402,206 @@ public class RatingController {
         return ResponseEntity.ok(averageRating);
     }
 
+    /**
+     * Averages and counts for a whole page of movies in one call. The ids are
+     * read from the stored aggregates a chunk at a time, and the JSON array is
+     * streamed as chunks resolve, so large lists never sit in memory at once.
+     * Repeated ids are answered once, in order of first appearance.
+     */
+    @PostMapping(value = "/movie/averages", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getAverageRatings(@RequestBody List<String> ids) {
+        log.info("[RatingController] POST /movie/averages — {} movies", ids.size());
+        if (ids.isEmpty() || ids.size() > MAX_AVERAGE_BATCH) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<String> movieIds = List.copyOf(new LinkedHashSet<>(ids));
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartArray();
+                for (int from = 0; from < movieIds.size(); from += AVERAGE_CHUNK) {
+                    List<String> chunk = movieIds.subList(from, Math.min(from + AVERAGE_CHUNK, movieIds.size()));
+                    for (AverageRatingDTO average : ratingService.getAverageRatings(chunk)) {
+                        json.writeObject(average);
+                    }
+                    json.flush();
+                }
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Movies ranked by Bayesian average, served from the in-memory leaderboard.
+     */
+    @GetMapping("/top-rated")
+    public ResponseEntity<List<TopRatedMovieDTO>> getTopRated(@RequestParam(defaultValue = "10") int limit) {
+        log.info("[RatingController] GET /top-rated — limit: {}", limit);
+        if (limit < 1 || limit > MAX_TOP_RATED) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(topRatedLeaderboard.top(limit));
+    }
+
+    @GetMapping("/movie/{movieId}/histogram")
+    public ResponseEntity<RatingHistogramDTO> getRatingHistogram(@PathVariable String movieId) {
+        log.info("[RatingController] GET /movie/{}/histogram", movieId);
+        return ResponseEntity.ok(ratingService.getRatingHistogram(movieId));
+    }
+
+    @GetMapping("/movie/histograms")
+    public ResponseEntity<List<RatingHistogramDTO>> getRatingHistograms(@RequestParam List<String> ids) {
+        log.info("[RatingController] GET /movie/histograms — {} movies", ids.size());
+        if (ids.isEmpty() || ids.size() > MAX_HISTOGRAM_BATCH) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(ratingService.getRatingHistograms(ids));
+    }
+
+    /**
+     * Estimated distinct raters of a movie per day and over the range, the
+     * last 30 days up to today unless given. The response carries the
+     * estimates' relative standard error.
+     */
+    @GetMapping("/movie/{movieId}/stats/raters")
+    public ResponseEntity<UniqueRatersDTO> getUniqueRaters(
+            @PathVariable String movieId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        log.info("[RatingController] GET /movie/{}/stats/raters — from: {}, to: {}", movieId, from, to);
+        LocalDate last = to != null ? to : LocalDate.now();
+        LocalDate first = from != null ? from : last.minusDays(DEFAULT_STATS_DAYS - 1);
+        if (first.isAfter(last) || ChronoUnit.DAYS.between(first, last) >= MAX_STATS_DAYS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(ratingStatsService.getUniqueRaters(movieId, first, last));
+    }
+
+    /**
+     * Percentiles of a movie's ratings for quantiles in (0, 1], p10, p50 and
+     * p90 by default. They are exact, as stated by the response's rank error.
+     */
+    @GetMapping("/movie/{movieId}/stats/percentiles")
+    public ResponseEntity<RatingPercentilesDTO> getRatingPercentiles(
+            @PathVariable String movieId,
+            @RequestParam(defaultValue = "0.1,0.5,0.9") List<Double> q) {
+
+        log.info("[RatingController] GET /movie/{}/stats/percentiles — q: {}", movieId, q);
+        if (q.isEmpty() || q.size() > MAX_QUANTILES
+                || q.stream().anyMatch(quantile -> quantile == null || !(quantile > 0 && quantile <= 1))) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(ratingStatsService.getPercentiles(movieId, q));
+    }
+
+    /**
+     * Ratings of a movie written per hour or per day, the last 7 days up to
+     * today unless given. See {@link RatingActivityRollups}.
+     */
+    @GetMapping("/movie/{movieId}/activity")
+    public ResponseEntity<RatingActivityDTO> getMovieActivity(
+            @PathVariable String movieId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "hour") String granularity) {
+
+        log.info("[RatingController] GET /movie/{}/activity — from: {}, to: {}, granularity: {}",
+                movieId, from, to, granularity);
+        return activity(movieId, from, to, granularity);
+    }
+
+    /**
+     * Ratings of all movies written per hour or per day, as
+     * {@code /movie/{movieId}/activity}.
+     */
+    @GetMapping("/activity")
+    public ResponseEntity<RatingActivityDTO> getActivity(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "hour") String granularity) {
+
+        log.info("[RatingController] GET /activity — from: {}, to: {}, granularity: {}", from, to, granularity);
+        return activity(RatingActivityRollups.ALL_MOVIES, from, to, granularity);
+    }
+
+    private ResponseEntity<RatingActivityDTO> activity(String movieId, LocalDate from, LocalDate to,
+            String granularity) {
+        RatingActivityRollups.Granularity bucketSize;
+        try {
+            bucketSize = RatingActivityRollups.Granularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        LocalDate last = to != null ? to : LocalDate.now();
+        LocalDate first = from != null ? from : last.minusDays(DEFAULT_ACTIVITY_DAYS - 1);
+        if (first.isAfter(last) || ChronoUnit.DAYS.between(first, last) >= MAX_STATS_DAYS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(activityRollups.getActivity(movieId, first, last, bucketSize));
+    }
+
+    /**
+     * Splits a hot movie's rating aggregates over {@code count} stripes so its
+     * raters stop queueing on one lock, or folds them back onto the movie for
+     * 1. Restricted to internal callers.
+     */
+    @PutMapping("/movie/{movieId}/stripes")
+    public ResponseEntity<Void> setAggregateStripes(
+            @RequestHeader(value = INTERNAL_TOKEN_HEADER, required = false) String token,
+            @PathVariable String movieId,
+            @RequestParam int count) {
+
+        if (!isInternalCaller(token)) {
+            log.error("[RatingController] PUT /movie/{}/stripes rejected — missing or invalid internal token", movieId);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        log.info("[RatingController] PUT /movie/{}/stripes — count: {}", movieId, count);
+        if (count < 1 || count > MAX_AGGREGATE_STRIPES) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!aggregateService.setStripes(movieId, count)) {
+            throw new MovieNotFoundException(movieId);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Bulk import for migrations, restricted to internal callers. Reads NDJSON
+     * or CSV (with a header row) and streams an NDJSON progress report back
+     * while batches commit.
+     */
+    @PostMapping(value = "/import", consumes = {NDJSON, CSV})
+    public void importRatings(
+            @RequestHeader(value = INTERNAL_TOKEN_HEADER, required = false) String token,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        if (!isInternalCaller(token)) {
+            log.error("[RatingController] POST /import rejected — missing or invalid internal token");
+            response.setStatus(HttpStatus.FORBIDDEN.value());
+            return;
+        }
+        RatingImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType(CSV))
+                ? RatingImportService.Format.CSV
+                : RatingImportService.Format.NDJSON;
+        log.info("[RatingController] POST /import — format: {}", format);
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(NDJSON);
+        ratingImportService.importRatings(request.getInputStream(), format, response.getOutputStream());
+    }
+
+    private boolean isInternalCaller(String token) {
+        if (token == null || internalApiToken == null || internalApiToken.isBlank()) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8),
+                internalApiToken.getBytes(StandardCharsets.UTF_8));
+    }
+
     private RatingDTO toDTO(Rating rating) {
         return RatingDTO.builder()
                 .id(rating.getId())
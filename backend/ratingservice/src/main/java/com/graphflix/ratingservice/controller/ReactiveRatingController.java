@@ -0,0 +1,160 @@
+package com.graphflix.ratingservice.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CookieValue;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.graphflix.ratingservice.dto.AverageRatingDTO;
+import com.graphflix.ratingservice.dto.RatingDTO;
+import com.graphflix.ratingservice.dto.RatingSliceDTO;
+import com.graphflix.ratingservice.service.MovieRatingsCache;
+import com.graphflix.ratingservice.service.RatingCursor;
+import com.graphflix.ratingservice.service.ReactiveRatingService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variants of the rating reads under {@code /reactive}. They
+ * answer like their counterparts in {@link RatingController}, but return
+ * {@link Mono} and {@link Flux}, so the request thread goes back to the pool
+ * while Neo4j works and the response is completed asynchronously. That
+ * frees request threads, it does not make a read faster: against an
+ * in-process database these endpoints answer no sooner than the blocking
+ * ones.
+ *
+ * <p>The {@code /stream} endpoints write a list as NDJSON, one rating per
+ * line, requesting the next rating from Neo4j only once the previous one has
+ * been written to the client.
+ */
+@RestController
+@RequestMapping("/reactive")
+public class ReactiveRatingController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveRatingController.class);
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_STREAM_LIMIT = 10_000;
+
+    private final ReactiveRatingService reactiveRatingService;
+
+    public ReactiveRatingController(ReactiveRatingService reactiveRatingService) {
+        this.reactiveRatingService = reactiveRatingService;
+    }
+
+    @GetMapping("/user/{userId}")
+    public Mono<ResponseEntity<RatingSliceDTO>> getUserRatings(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "timestamp") String sortBy,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        log.info("[ReactiveRatingController] GET /reactive/user/{} — size: {}, sortBy: {}, cursor: {}",
+                userId, size, sortBy, cursor);
+        RatingCursor.SortKey sortKey = RatingCursor.SortKey.of(sortBy).orElse(null);
+        if (sortKey == null || size < 1 || size > MAX_PAGE_SIZE) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        RatingCursor after;
+        try {
+            after = cursor == null ? null : RatingCursor.decode(cursor, sortKey);
+        } catch (IllegalArgumentException e) {
+            log.warn("[ReactiveRatingController] Rejected cursor for user '{}': {}", userId, e.getMessage());
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return reactiveRatingService
+                .getUserRatings(userId, sortKey, after, size, includeTotal)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/user/{userId}/stream")
+    public ResponseEntity<Flux<RatingDTO>> streamUserRatings(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "1000") int limit,
+            @RequestParam(defaultValue = "timestamp") String sortBy) {
+
+        log.info("[ReactiveRatingController] GET /reactive/user/{}/stream — limit: {}, sortBy: {}, cursor: {}",
+                userId, limit, sortBy, cursor);
+        RatingCursor.SortKey sortKey = RatingCursor.SortKey.of(sortBy).orElse(null);
+        if (sortKey == null || limit < 1 || limit > MAX_STREAM_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        RatingCursor after;
+        try {
+            after = cursor == null ? null : RatingCursor.decode(cursor, sortKey);
+        } catch (IllegalArgumentException e) {
+            log.warn("[ReactiveRatingController] Rejected cursor for user '{}': {}", userId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(reactiveRatingService.streamUserRatings(userId, sortKey, after, limit));
+    }
+
+    @GetMapping("/movie/{movieId}")
+    public Mono<ResponseEntity<RatingSliceDTO>> getMovieRatings(
+            @PathVariable String movieId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "rating") String sortBy,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @CookieValue(value = MovieRatingsCache.RECENT_RATER_COOKIE, required = false) String recentRater) {
+
+        log.info("[ReactiveRatingController] GET /reactive/movie/{} — size: {}, sortBy: {}, cursor: {}",
+                movieId, size, sortBy, cursor);
+        RatingCursor.SortKey sortKey = RatingCursor.SortKey.of(sortBy).orElse(null);
+        if (sortKey == null || size < 1 || size > MAX_PAGE_SIZE) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        RatingCursor after;
+        try {
+            after = cursor == null ? null : RatingCursor.decode(cursor, sortKey);
+        } catch (IllegalArgumentException e) {
+            log.warn("[ReactiveRatingController] Rejected cursor for movie '{}': {}", movieId, e.getMessage());
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return reactiveRatingService
+                .getMovieRatings(movieId, sortKey, after, size, includeTotal, recentRater != null)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/movie/{movieId}/stream")
+    public ResponseEntity<Flux<RatingDTO>> streamMovieRatings(
+            @PathVariable String movieId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "1000") int limit,
+            @RequestParam(defaultValue = "rating") String sortBy) {
+
+        log.info("[ReactiveRatingController] GET /reactive/movie/{}/stream — limit: {}, sortBy: {}, cursor: {}",
+                movieId, limit, sortBy, cursor);
+        RatingCursor.SortKey sortKey = RatingCursor.SortKey.of(sortBy).orElse(null);
+        if (sortKey == null || limit < 1 || limit > MAX_STREAM_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        RatingCursor after;
+        try {
+            after = cursor == null ? null : RatingCursor.decode(cursor, sortKey);
+        } catch (IllegalArgumentException e) {
+            log.warn("[ReactiveRatingController] Rejected cursor for movie '{}': {}", movieId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(reactiveRatingService.streamMovieRatings(movieId, sortKey, after, limit));
+    }
+
+    @GetMapping("/movie/{movieId}/average")
+    public Mono<AverageRatingDTO> getAverageRating(@PathVariable String movieId) {
+        log.info("[ReactiveRatingController] GET /reactive/movie/{}/average", movieId);
+        return reactiveRatingService.getAverageRating(movieId);
+    }
+}
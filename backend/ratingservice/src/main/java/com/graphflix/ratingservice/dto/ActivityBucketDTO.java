@@ -0,0 +1,27 @@
+package com.graphflix.ratingservice.dto;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ActivityBucketDTO {
+
+    @JsonProperty("start")
+    private LocalDateTime start;
+
+    // Exclusive
+    @JsonProperty("end")
+    private LocalDateTime end;
+
+    @JsonProperty("count")
+    private Long count;
+}
@@ -21,4 +21,7 @@ public class AverageRatingDTO {
 
     @JsonProperty("count")
     private Long count;
+
+    @JsonProperty("stdDev")
+    private Double stdDev;
 }
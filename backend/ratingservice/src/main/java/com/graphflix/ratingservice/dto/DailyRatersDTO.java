@@ -0,0 +1,23 @@
+package com.graphflix.ratingservice.dto;
+
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyRatersDTO {
+
+    @JsonProperty("day")
+    private LocalDate day;
+
+    @JsonProperty("uniqueRaters")
+    private Long uniqueRaters;
+}
@@ -0,0 +1,29 @@
+package com.graphflix.ratingservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of the NDJSON progress report streamed back by the bulk import:
+ * an {@code error} for a rejected input line, a {@code progress} line per
+ * committed batch and a final {@code summary}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportProgressDTO {
+
+    private String type;
+    private Long line;
+    private String message;
+    private Long processed;
+    private Long imported;
+    private Long failed;
+    private Long durationMs;
+}
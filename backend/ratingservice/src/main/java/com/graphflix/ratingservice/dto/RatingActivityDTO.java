@@ -0,0 +1,42 @@
+package com.graphflix.ratingservice.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ratings written per time bucket over a range of days, for one movie or,
+ * with {@code movieId} {@code *}, for all of them. Only buckets with ratings
+ * are listed. Days whose hourly detail has been compacted are a single
+ * day-long bucket even when hourly buckets were asked for.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RatingActivityDTO {
+
+    @JsonProperty("movieId")
+    private String movieId;
+
+    @JsonProperty("from")
+    private LocalDate from;
+
+    @JsonProperty("to")
+    private LocalDate to;
+
+    @JsonProperty("granularity")
+    private String granularity;
+
+    @JsonProperty("total")
+    private Long total;
+
+    @JsonProperty("buckets")
+    private List<ActivityBucketDTO> buckets;
+}
@@ -0,0 +1,27 @@
+package com.graphflix.ratingservice.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RatingHistogramDTO {
+
+    @JsonProperty("movieId")
+    private String movieId;
+
+    // counts.get(0) is the number of 1-star ratings, counts.get(9) of 10-star ratings
+    @JsonProperty("counts")
+    private List<Long> counts;
+
+    @JsonProperty("total")
+    private Long total;
+}
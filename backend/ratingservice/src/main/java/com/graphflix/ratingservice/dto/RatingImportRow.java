@@ -0,0 +1,28 @@
+package com.graphflix.ratingservice.dto;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One rating of a bulk import, read from an NDJSON line or a CSV record.
+ * userId is the user's email, like everywhere else in this service.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RatingImportRow {
+
+    private String userId;
+    private String movieId;
+    private Integer rating;
+    private String comment;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,35 @@
+package com.graphflix.ratingservice.dto;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Nearest-rank percentiles of a movie's ratings, keyed like {@code p50}.
+ * Ratings are whole stars, so they are read exactly off the stored
+ * histogram: {@code rankError} is the share of ratings by which a returned
+ * value's rank may be off, always 0. Empty while the movie has no ratings.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RatingPercentilesDTO {
+
+    @JsonProperty("movieId")
+    private String movieId;
+
+    @JsonProperty("count")
+    private Long count;
+
+    @JsonProperty("percentiles")
+    private Map<String, Integer> percentiles;
+
+    @JsonProperty("rankError")
+    private Double rankError;
+}
@@ -0,0 +1,30 @@
+package com.graphflix.ratingservice.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a keyset-paginated rating list. {@code nextCursor} is passed
+ * back as {@code cursor} to fetch the following page and is absent on the
+ * last one. {@code totalElements} is only filled in when the caller asked
+ * for it, from a cached count rather than a count per page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RatingSliceDTO {
+
+    private List<RatingDTO> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+    private Long totalElements;
+}
@@ -0,0 +1,20 @@
+package com.graphflix.ratingservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Receipt for a rating accepted in asynchronous write mode. The token can be
+ * polled at {@code GET /async/{token}} until the status leaves PENDING.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RatingWriteStatusDTO {
+
+    private String token;
+    private String status;
+}
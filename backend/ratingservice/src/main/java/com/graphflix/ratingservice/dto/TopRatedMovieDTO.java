@@ -0,0 +1,27 @@
+package com.graphflix.ratingservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TopRatedMovieDTO {
+
+    @JsonProperty("movieId")
+    private String movieId;
+
+    @JsonProperty("score")
+    private Double score;
+
+    @JsonProperty("average")
+    private Double average;
+
+    @JsonProperty("count")
+    private Long count;
+}
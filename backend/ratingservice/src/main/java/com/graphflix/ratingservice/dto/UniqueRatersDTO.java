@@ -0,0 +1,43 @@
+package com.graphflix.ratingservice.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estimated distinct raters of a movie per day and over the whole range,
+ * from HyperLogLog sketches. {@code relativeStandardError} applies to every
+ * estimate: about 95% of them are within twice that share of the true count.
+ * Days without ratings are left out of {@code days}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UniqueRatersDTO {
+
+    @JsonProperty("movieId")
+    private String movieId;
+
+    @JsonProperty("from")
+    private LocalDate from;
+
+    @JsonProperty("to")
+    private LocalDate to;
+
+    // Raters counted once however many days in the range they rated on
+    @JsonProperty("uniqueRaters")
+    private Long uniqueRaters;
+
+    @JsonProperty("relativeStandardError")
+    private Double relativeStandardError;
+
+    @JsonProperty("days")
+    private List<DailyRatersDTO> days;
+}
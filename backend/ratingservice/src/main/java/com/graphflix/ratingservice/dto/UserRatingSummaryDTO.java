@@ -0,0 +1,37 @@
+package com.graphflix.ratingservice.dto;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * How many movies a user rated and their average rating, with the latest
+ * time one of their ratings was written or deleted ({@code null} when
+ * never).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserRatingSummaryDTO {
+
+    @JsonProperty("userId")
+    private String userId;
+
+    @JsonProperty("ratingCount")
+    private Long ratingCount;
+
+    @JsonProperty("ratingSum")
+    private Long ratingSum;
+
+    @JsonProperty("averageRating")
+    private Double averageRating;
+
+    @JsonProperty("lastActivityAt")
+    private LocalDateTime lastActivityAt;
+}
@@ -58,5 +58,17 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(RatingsMigratingException.class)
+    public ResponseEntity<ErrorResponse> handleRatingsMigratingException(RatingsMigratingException ex) {
+        System.err.println("GlobalExceptionHandler: RatingsMigratingException - " + ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                ex.getMessage()
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     public record ErrorResponse(int status, String message) {}
 }
@@ -0,0 +1,8 @@
+package com.graphflix.ratingservice.exception;
+
+public class RatingsMigratingException extends RuntimeException {
+
+    public RatingsMigratingException() {
+        super("Ratings are still being migrated, please retry shortly");
+    }
+}
@@ -0,0 +1,132 @@
+package com.graphflix.ratingservice.repository;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out the {@code id} of new RATED relationships from blocks reserved
+ * on a sequence node, so ids are unique across instances while the sequence
+ * is written once per block rather than once per rating. Blocks are
+ * reserved in their own transaction, so a rolled-back write only leaves a
+ * gap. Ids stay far below 2^53 and are read exactly by JavaScript clients.
+ *
+ * <p>Ids are taken from the current block without locking. Only the threads
+ * that find it used up wait, while one of them reserves the next block.
+ *
+ * <p>The sequence starts above every id already taken: those of RATED
+ * relationships and the legacy ids of Rating nodes, which ratings migrated
+ * from those nodes keep. It is created by {@link #ensureSequence()}, which
+ * the migration calls before it folds the first node, so no legacy id is
+ * gone by the time the start is taken.
+ */
+@Component
+public class RatingIdAllocator {
+
+    private static final String RESERVE_QUERY = """
+            MATCH (s:RatingIdSequence {name: 'rating'})
+            SET s.next = s.next + $blockSize
+            RETURN s.next - $blockSize AS first
+            """;
+
+    private static final String SEQUENCE_QUERY = """
+            MATCH (s:RatingIdSequence {name: 'rating'})
+            RETURN s.next AS next
+            """;
+
+    // A Rating node's id was its internal id, which nothing else stores, so it is read
+    // here once per node and kept as legacyId; only runs while the sequence does not exist
+    private static final String STAMP_LEGACY_IDS_QUERY = """
+            MATCH (legacy:Rating)
+            WHERE legacy.legacyId IS NULL
+            WITH legacy
+            LIMIT $batchSize
+            SET legacy.legacyId = id(legacy)
+            RETURN count(*) AS stamped
+            """;
+
+    // The highest RATED id is read backwards off the rated_id_unique index
+    private static final String START_QUERY = """
+            OPTIONAL MATCH (legacy:Rating)
+            WITH coalesce(max(legacy.legacyId), 0) AS legacyMax
+            WITH legacyMax, coalesce(head(COLLECT {
+                MATCH ()-[r:RATED]->()
+                WHERE r.id IS NOT NULL
+                RETURN r.id ORDER BY r.id DESC LIMIT 1
+            }), 0) AS ratedMax
+            MERGE (s:RatingIdSequence {name: 'rating'})
+            ON CREATE SET s.next = CASE WHEN legacyMax > ratedMax THEN legacyMax ELSE ratedMax END + 1
+            """;
+
+    private static final int STAMP_BATCH_SIZE = 10_000;
+
+    private record Block(AtomicLong next, long limit) {}
+
+    private final Driver driver;
+    private final int blockSize;
+    private final Object refillLock = new Object();
+    private volatile Block block = new Block(new AtomicLong(), 0);
+    private volatile boolean sequenced;
+
+    public RatingIdAllocator(Driver driver, @Value("${rating.id-block-size:1000}") int blockSize) {
+        this.driver = driver;
+        this.blockSize = blockSize;
+    }
+
+    public long next() {
+        while (true) {
+            Block current = block;
+            long id = current.next().getAndIncrement();
+            if (id < current.limit()) {
+                return id;
+            }
+            refill(current);
+        }
+    }
+
+    private void refill(Block usedUp) {
+        synchronized (refillLock) {
+            // Another thread may have reserved the next block while this one waited
+            if (block == usedUp) {
+                long first = reserve();
+                block = new Block(new AtomicLong(first), first + blockSize);
+            }
+        }
+    }
+
+    /**
+     * Creates the sequence, above every id taken so far, unless it exists.
+     */
+    public void ensureSequence() {
+        if (sequenced) {
+            return;
+        }
+        synchronized (refillLock) {
+            if (sequenced) {
+                return;
+            }
+            try (Session session = driver.session()) {
+                if (!session.run(SEQUENCE_QUERY).hasNext()) {
+                    long stamped;
+                    do {
+                        stamped = session.run(STAMP_LEGACY_IDS_QUERY, Map.of("batchSize", STAMP_BATCH_SIZE))
+                                .single().get("stamped").asLong();
+                    } while (stamped > 0);
+                    session.run(START_QUERY).consume();
+                }
+            }
+            sequenced = true;
+        }
+    }
+
+    private long reserve() {
+        ensureSequence();
+        try (Session session = driver.session()) {
+            return session.run(RESERVE_QUERY, Map.of("blockSize", blockSize)).single().get("first").asLong();
+        }
+    }
+}
@@ -1,27 +1,96 @@
 package com.graphflix.ratingservice.repository;
 
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.neo4j.repository.Neo4jRepository;
+import org.neo4j.driver.Record;
+import org.springframework.data.neo4j.core.Neo4jClient;
 import org.springframework.stereotype.Repository;
 
 import com.graphflix.ratingservice.model.Rating;
 
+/**
+ * Reads and deletes ratings, which are stored only as
+ * {@code (:User)-[:RATED]->(:Movie)} relationships. Each relationship
+ * carries its {@code id}, the rating, comment and timestamp, plus copies of
+ * the user's email and the movie's element id as {@code userId} and
+ * {@code movieId}, which the rating-list indexes are built on.
+ */
 @Repository
-public interface RatingRepository extends Neo4jRepository<Rating, Long> {
+public class RatingRepository {
 
-    List<Rating> findByUserId(String userId);
+    private static final String FIND_BY_ID_QUERY = """
+            MATCH (u:User)-[r:RATED]->(m:Movie)
+            WHERE r.id = $id
+            RETURN r.id AS id, r.rating AS rating, r.comment AS comment, r.timestamp AS timestamp,
+                   u.email AS userId, u.name AS userName, elementId(m) AS movieId, m.title AS movieTitle
+            """;
 
-    Page<Rating> findByUserId(String userId, Pageable pageable);
+    private static final String FIND_BY_USER_AND_MOVIE_QUERY = """
+            MATCH (u:User {email: $userId})-[r:RATED]->(m:Movie)
+            WHERE elementId(m) = $movieId
+            RETURN r.id AS id, r.rating AS rating, r.comment AS comment, r.timestamp AS timestamp,
+                   u.email AS userId, u.name AS userName, elementId(m) AS movieId, m.title AS movieTitle
+            """;
 
-    List<Rating> findByMovieId(String movieId);
+    // Locks the user, as upserts of the user's ratings do, then the relationship before
+    // reading it, so the returned rating is the one deleted
+    private static final String DELETE_BY_ID_QUERY = """
+            MATCH (u:User)-[r:RATED]->(m:Movie)
+            WHERE r.id = $id
+            SET u._ratingLock = true
+            REMOVE u._ratingLock
+            SET r._lock = true
+            WITH u, r, m, r.id AS id, r.rating AS rating, r.comment AS comment, r.timestamp AS timestamp
+            DELETE r
+            RETURN id, rating, comment, timestamp,
+                   u.email AS userId, u.name AS userName, elementId(m) AS movieId, m.title AS movieTitle
+            """;
 
-    Page<Rating> findByMovieId(String movieId, Pageable pageable);
+    private final Neo4jClient neo4jClient;
 
-    Optional<Rating> findByUserIdAndMovieId(String userId, String movieId);
+    public RatingRepository(Neo4jClient neo4jClient) {
+        this.neo4jClient = neo4jClient;
+    }
 
-    long countByMovieId(String movieId);
+    public Optional<Rating> findById(long id) {
+        return findOne(FIND_BY_ID_QUERY, Map.of("id", id));
+    }
+
+    public Optional<Rating> findByUserIdAndMovieId(String userId, String movieId) {
+        return findOne(FIND_BY_USER_AND_MOVIE_QUERY, Map.of("userId", userId, "movieId", movieId));
+    }
+
+    /**
+     * Deletes the rating and returns it as it was, or empty when there is no
+     * rating with that id.
+     */
+    public Optional<Rating> deleteById(long id) {
+        return findOne(DELETE_BY_ID_QUERY, Map.of("id", id));
+    }
+
+    private Optional<Rating> findOne(String query, Map<String, Object> parameters) {
+        return neo4jClient.query(query)
+                .bindAll(parameters)
+                .fetchAs(Rating.class)
+                .mappedBy((typeSystem, record) -> toRating(record))
+                .one();
+    }
+
+    /**
+     * Maps a row with the columns every rating query here returns. A rating
+     * the migration has not given an id yet has none.
+     */
+    public static Rating toRating(Record record) {
+        return Rating.builder()
+                .id(record.get("id").isNull() ? null : record.get("id").asLong())
+                .rating(record.get("rating").asInt())
+                .comment(record.get("comment").asString(null))
+                .timestamp(record.get("timestamp").asLocalDateTime(null))
+                .userId(record.get("userId").asString(null))
+                .userName(record.get("userName").asString(null))
+                .movieId(record.get("movieId").asString(null))
+                .movieTitle(record.get("movieTitle").asString(null))
+                .build();
+    }
 }
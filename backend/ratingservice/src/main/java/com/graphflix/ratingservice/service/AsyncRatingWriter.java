@@ -0,0 +1,214 @@
+package com.graphflix.ratingservice.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.graphflix.ratingservice.dto.RatingImportRow;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Asynchronous write mode for rating spikes. Accepted ratings wait in a
+ * bounded in-memory queue and a writer group-commits them, one transaction
+ * per batch through the bulk import's batch upsert, so a burst of thousands
+ * of tiny writes becomes a few large ones. Within a batch only the latest
+ * rating of each user for each movie is written, and only when the stored
+ * rating is older than the moment it was accepted: a synchronous write that
+ * commits while a rating waits in the queue is not overwritten by it.
+ *
+ * <p>The queue lives in this instance only: writes accepted but not yet
+ * committed are lost if the process dies. Clients learn the outcome by
+ * polling their token.
+ */
+@Service
+public class AsyncRatingWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncRatingWriter.class);
+
+    public enum Status {
+        PENDING,
+        COMMITTED,
+        // A later rating of the same movie by the same user replaced it in its batch,
+        // or had already been written when its batch was committed
+        SUPERSEDED,
+        FAILED
+    }
+
+    public record Outcome(String email, Status status) {}
+
+    private record PendingWrite(String token, RatingImportRow row, long acceptedAtNanos) {}
+
+    private final RatingImportService ratingImportService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final BlockingQueue<PendingWrite> queue;
+    private final Map<String, Outcome> outcomes;
+    private final DistributionSummary batchSizes;
+    private final Timer commitDuration;
+    private final Timer commitLag;
+    private final Counter coalesced;
+    private final Counter rejected;
+    private final Counter failures;
+
+    public AsyncRatingWriter(RatingImportService ratingImportService, MeterRegistry meterRegistry,
+            @Value("${rating.async-write.enabled:false}") boolean enabled,
+            @Value("${rating.async-write.queue-capacity:10000}") int queueCapacity,
+            @Value("${rating.async-write.batch-size:500}") int batchSize,
+            @Value("${rating.async-write.status-capacity:100000}") int statusCapacity) {
+        this.ratingImportService = ratingImportService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.outcomes = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Outcome> eldest) {
+                return size() > statusCapacity;
+            }
+        };
+        Gauge.builder("rating.async.queue.depth", queue, BlockingQueue::size)
+                .description("Accepted ratings waiting to be committed")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("rating.async.batch.size")
+                .description("Ratings written per group commit, after coalescing")
+                .register(meterRegistry);
+        this.commitDuration = Timer.builder("rating.async.commit.duration")
+                .description("Time spent in each group-commit transaction")
+                .register(meterRegistry);
+        this.commitLag = Timer.builder("rating.async.commit.lag")
+                .description("Time from accepting a rating to its commit")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("rating.async.coalesced")
+                .description("Ratings replaced by a later rating of the same pair in their batch")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("rating.async.rejected")
+                .description("Ratings refused because the queue was full")
+                .register(meterRegistry);
+        this.failures = Counter.builder("rating.async.failures")
+                .description("Ratings whose group commit failed")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues an already validated rating. Returns its token, or nothing when
+     * the queue is full and the caller should back off.
+     */
+    public Optional<String> submit(String email, String movieId, Integer rating, String comment) {
+        String token = UUID.randomUUID().toString();
+        RatingImportRow row = RatingImportRow.builder()
+                .userId(email)
+                .movieId(movieId)
+                .rating(rating)
+                .comment(comment)
+                .timestamp(LocalDateTime.now())
+                .build();
+        synchronized (outcomes) {
+            outcomes.put(token, new Outcome(email, Status.PENDING));
+        }
+        if (!queue.offer(new PendingWrite(token, row, System.nanoTime()))) {
+            synchronized (outcomes) {
+                outcomes.remove(token);
+            }
+            rejected.increment();
+            return Optional.empty();
+        }
+        return Optional.of(token);
+    }
+
+    /**
+     * The outcome of a token, while it is among the most recent ones kept.
+     */
+    public Optional<Outcome> outcome(String token) {
+        synchronized (outcomes) {
+            return Optional.ofNullable(outcomes.get(token));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${rating.async-write.interval-ms:50}")
+    public void flush() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            commit(batch);
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    void drainOnShutdown() {
+        if (!queue.isEmpty()) {
+            log.info("[AsyncRatingWriter] Committing {} queued ratings before shutdown", queue.size());
+            flush();
+        }
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        // Last write wins, as it would have if the ratings were written one by one
+        Map<String, PendingWrite> latest = new LinkedHashMap<>();
+        for (PendingWrite write : batch) {
+            PendingWrite replaced = latest.put(write.row().getUserId() + '|' + write.row().getMovieId(), write);
+            if (replaced != null) {
+                coalesced.increment();
+                record(replaced.token(), Status.SUPERSEDED);
+            }
+        }
+        List<PendingWrite> writes = List.copyOf(latest.values());
+        batchSizes.record(writes.size());
+
+        RatingImportService.WriteResult result;
+        long start = System.nanoTime();
+        try {
+            result = ratingImportService.writeRows(writes.stream().map(PendingWrite::row).toList());
+        } catch (RuntimeException e) {
+            failures.increment(writes.size());
+            log.error("[AsyncRatingWriter] Group commit of {} ratings failed: {}", writes.size(), e.getMessage());
+            writes.forEach(write -> record(write.token(), Status.FAILED));
+            return;
+        }
+        long committedAt = System.nanoTime();
+        commitDuration.record(committedAt - start, TimeUnit.NANOSECONDS);
+
+        for (int i = 0; i < writes.size(); i++) {
+            PendingWrite write = writes.get(i);
+            if (result.written().contains((long) i)) {
+                commitLag.record(committedAt - write.acceptedAtNanos(), TimeUnit.NANOSECONDS);
+                record(write.token(), Status.COMMITTED);
+            } else if (result.stale().contains((long) i)) {
+                log.info("[AsyncRatingWriter] Skipped rating of movie '{}' by '{}': a newer rating was written first",
+                        write.row().getMovieId(), write.row().getUserId());
+                record(write.token(), Status.SUPERSEDED);
+            } else {
+                log.warn("[AsyncRatingWriter] Dropped rating of movie '{}' by '{}': unknown user or movie",
+                        write.row().getMovieId(), write.row().getUserId());
+                record(write.token(), Status.FAILED);
+            }
+        }
+    }
+
+    private void record(String token, Status status) {
+        synchronized (outcomes) {
+            outcomes.computeIfPresent(token, (key, outcome) -> new Outcome(outcome.email(), status));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.graphflix.ratingservice.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounded, per-instance store of recent responses to write requests that
+ * carried an {@code Idempotency-Key}, so a client retry is answered with the
+ * original response instead of repeating the write and its event.
+ *
+ * <p>Keys are scoped to the caller and remember a fingerprint of the request:
+ * reusing a key for a different request is refused with 422, and a retry that
+ * arrives while the original is still running gets 409. Only responses below
+ * 500 are kept; after a server error or an exception the key is released so
+ * the retry runs again. Entries expire after a TTL, and a retry that reaches
+ * another instance runs again, which the upsert tolerates.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private record Entry(String fingerprint, ResponseEntity<?> response, long expiresAtMillis) {
+
+        boolean inFlight() {
+            return response == null;
+        }
+    }
+
+    private final Map<String, Entry> entries;
+    private final long ttlMillis;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter conflicts;
+
+    public IdempotencyStore(
+            MeterRegistry meterRegistry,
+            @Value("${rating.idempotency.max-keys:100000}") int maxKeys,
+            @Value("${rating.idempotency.ttl:24h}") Duration ttl) {
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxKeys;
+            }
+        };
+        this.hits = Counter.builder("rating.idempotency.requests").tag("result", "hit")
+                .description("Retries answered from a stored response").register(meterRegistry);
+        this.misses = Counter.builder("rating.idempotency.requests").tag("result", "miss")
+                .description("Keyed requests that ran").register(meterRegistry);
+        this.conflicts = Counter.builder("rating.idempotency.requests").tag("result", "conflict")
+                .description("Keyed requests refused as in flight or reused for another request")
+                .register(meterRegistry);
+        Gauge.builder("rating.idempotency.hit.ratio", this, IdempotencyStore::hitRatio)
+                .description("Share of keyed requests answered from a stored response")
+                .register(meterRegistry);
+        Gauge.builder("rating.idempotency.keys", entries, map -> {
+            synchronized (map) {
+                return map.size();
+            }
+        }).description("Keys currently remembered").register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code action} unless the caller already sent this key, in which
+     * case the stored response is returned with {@value #REPLAYED_HEADER}.
+     */
+    public ResponseEntity<?> execute(String principal, String key, String fingerprint,
+            Supplier<ResponseEntity<?>> action) {
+        String scopedKey = principal + '|' + key;
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(scopedKey);
+            if (entry != null && entry.expiresAtMillis() < now) {
+                entries.remove(scopedKey);
+                entry = null;
+            }
+            if (entry != null) {
+                if (!entry.fingerprint().equals(fingerprint)) {
+                    conflicts.increment();
+                    return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
+                }
+                if (entry.inFlight()) {
+                    conflicts.increment();
+                    return ResponseEntity.status(HttpStatus.CONFLICT).build();
+                }
+                hits.increment();
+                return ResponseEntity.status(entry.response().getStatusCode())
+                        .headers(entry.response().getHeaders())
+                        .header(REPLAYED_HEADER, "true")
+                        .body(entry.response().getBody());
+            }
+            entries.put(scopedKey, new Entry(fingerprint, null, now + ttlMillis));
+        }
+        misses.increment();
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(scopedKey);
+            throw e;
+        }
+        if (response.getStatusCode().is5xxServerError()) {
+            release(scopedKey);
+            return response;
+        }
+        synchronized (entries) {
+            entries.put(scopedKey, new Entry(fingerprint, response, System.currentTimeMillis() + ttlMillis));
+        }
+        return response;
+    }
+
+    private void release(String scopedKey) {
+        synchronized (entries) {
+            entries.remove(scopedKey);
+        }
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0.0 : hits.count() / total;
+    }
+}
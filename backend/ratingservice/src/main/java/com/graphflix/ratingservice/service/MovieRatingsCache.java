@@ -0,0 +1,255 @@
+package com.graphflix.ratingservice.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.graphflix.ratingservice.dto.RatingDTO;
+import com.graphflix.ratingservice.model.Rating;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounded, per-instance cache of the first ratings of each movie in each sort
+ * order, so first pages of {@code GET /movie/{movieId}} are answered without
+ * a query.
+ *
+ * <p>An entry holds the leading rows of the list exactly, up to
+ * {@code rows} of them, and whether that is the whole list. Ratings written
+ * or deleted through this instance are applied to the entries in place once
+ * their transaction commits, before the write's response is sent, so the
+ * writer's next read already sees them. A write moving a rating past the
+ * last cached row just shortens the entry.
+ *
+ * <p>Writes through other instances reach this one as rating events, which
+ * {@link MovieRatingsCacheInvalidator} turns into {@link #invalidate} calls,
+ * but only once the outbox relay has sent the event. Until then another
+ * instance may still hold the page from before the write, so the write's
+ * response also sets {@link #recentRaterCookie()}. While the client sends it
+ * back, its first pages are read from the database on every instance. The
+ * cookie outlives every entry loaded before the write, so the rater never
+ * sees a page without their rating, wherever their reads land.
+ *
+ * <p>A load that read the database before a write committed must not store
+ * its rows after the write was applied, so each load is stamped with a
+ * per-movie write generation and only stored if it did not change.
+ */
+@Component
+public class MovieRatingsCache {
+
+    /**
+     * Ratings written and deleted by one transaction, applied to the cache
+     * after it commits.
+     */
+    public record RatingsChanged(List<Rating> written, List<Rating> deleted) {}
+
+    private record Key(String movieId, RatingCursor.SortKey sortKey) {}
+
+    private record Entry(List<RatingDTO> rows, boolean complete, long expiresAtMillis) {}
+
+    /**
+     * Set on the responses of rating writes, see {@link #recentRaterCookie()}.
+     */
+    public static final String RECENT_RATER_COOKIE = "graphflix-recent-rater";
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private static final Comparator<RatingDTO> BY_TIMESTAMP =
+            Comparator.comparing(RatingDTO::getTimestamp).thenComparing(RatingDTO::getId).reversed();
+    private static final Comparator<RatingDTO> BY_RATING =
+            Comparator.comparing(RatingDTO::getRating).thenComparing(RatingDTO::getId).reversed();
+
+    private final Map<Key, Entry> entries;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final int rows;
+    private final long ttlMillis;
+    private final Counter hits;
+    private final Counter misses;
+
+    public MovieRatingsCache(
+            MeterRegistry meterRegistry,
+            @Value("${rating.movie-page-cache.max-entries:10000}") int maxEntries,
+            @Value("${rating.movie-page-cache.rows:101}") int rows,
+            @Value("${rating.movie-page-cache.ttl:30s}") Duration ttl) {
+        this.rows = rows;
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = Counter.builder("rating.movie-page.cache").tag("result", "hit")
+                .description("First pages of movie ratings answered from the cache").register(meterRegistry);
+        this.misses = Counter.builder("rating.movie-page.cache").tag("result", "miss")
+                .description("First pages of movie ratings read from the database").register(meterRegistry);
+        Gauge.builder("rating.movie-page.cache.hit.ratio", this, MovieRatingsCache::hitRatio)
+                .description("Share of first pages of movie ratings answered from the cache")
+                .register(meterRegistry);
+        Gauge.builder("rating.movie-page.cache.entries", entries, map -> {
+            synchronized (map) {
+                return map.size();
+            }
+        }).description("Movie rating lists currently cached").register(meterRegistry);
+    }
+
+    /**
+     * The cookie marking a client that just wrote a rating. It lasts two
+     * TTLs: an entry loaded before the write expires within one, and the
+     * second covers a queued write that commits after it was accepted.
+     */
+    public ResponseCookie recentRaterCookie() {
+        return ResponseCookie.from(RECENT_RATER_COOKIE, "1")
+                .path("/")
+                .httpOnly(true)
+                .sameSite("Lax")
+                .maxAge(Duration.ofMillis(2 * ttlMillis))
+                .build();
+    }
+
+    /**
+     * How many rows a load should read: one more than is kept tells whether
+     * the list is complete.
+     */
+    public int loadSize() {
+        return rows + 1;
+    }
+
+    /**
+     * The first {@code size} cached rows and whether more follow, or empty
+     * when the entry is missing, expired or too short for the page.
+     */
+    public Optional<List<RatingDTO>> firstRows(String movieId, RatingCursor.SortKey sortKey, int size) {
+        Key key = new Key(movieId, sortKey);
+        List<RatingDTO> page = null;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAtMillis() < System.currentTimeMillis()) {
+                entries.remove(key);
+                entry = null;
+            }
+            // One row past the page tells whether another page follows
+            if (entry != null && (entry.complete() || entry.rows().size() > size)) {
+                page = List.copyOf(entry.rows().subList(0, Math.min(size + 1, entry.rows().size())));
+            }
+        }
+        if (page == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(page);
+    }
+
+    /**
+     * The write generation to pass to {@link #put}, read before loading.
+     */
+    public long generation(String movieId) {
+        return generations.get(stripe(movieId));
+    }
+
+    /**
+     * Stores the leading rows of a list read with {@link #loadSize()} as the
+     * limit, unless a write to the movie was applied since {@code generation}
+     * was read.
+     */
+    public void put(String movieId, RatingCursor.SortKey sortKey, List<RatingDTO> loaded, long generation) {
+        boolean complete = loaded.size() <= rows;
+        Entry entry = new Entry(new ArrayList<>(loaded.subList(0, Math.min(rows, loaded.size()))), complete,
+                System.currentTimeMillis() + ttlMillis);
+        synchronized (entries) {
+            if (generations.get(stripe(movieId)) == generation) {
+                entries.put(new Key(movieId, sortKey), entry);
+            }
+        }
+    }
+
+    /**
+     * Drops the movie's entries and any load of them still in flight, for a
+     * write this instance did not apply itself.
+     */
+    public void invalidate(String movieId) {
+        synchronized (entries) {
+            generations.incrementAndGet(stripe(movieId));
+            for (RatingCursor.SortKey sortKey : RatingCursor.SortKey.values()) {
+                entries.remove(new Key(movieId, sortKey));
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRatingsChanged(RatingsChanged event) {
+        synchronized (entries) {
+            for (Rating rating : event.deleted()) {
+                generations.incrementAndGet(stripe(rating.getMovieId()));
+                for (RatingCursor.SortKey sortKey : RatingCursor.SortKey.values()) {
+                    Entry entry = entries.get(new Key(rating.getMovieId(), sortKey));
+                    if (entry != null) {
+                        remove(entry.rows(), rating.getId());
+                    }
+                }
+            }
+            for (Rating rating : event.written()) {
+                generations.incrementAndGet(stripe(rating.getMovieId()));
+                RatingDTO row = RatingService.toDTO(rating);
+                for (RatingCursor.SortKey sortKey : RatingCursor.SortKey.values()) {
+                    Key key = new Key(rating.getMovieId(), sortKey);
+                    Entry entry = entries.get(key);
+                    if (entry != null) {
+                        entries.put(key, write(entry, row, sortKey == RatingCursor.SortKey.TIMESTAMP
+                                ? BY_TIMESTAMP
+                                : BY_RATING));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the rating to its new place. Rows past the last cached one are
+     * unknown, so a rating sorting after it is only kept when the entry holds
+     * the whole list.
+     */
+    private Entry write(Entry entry, RatingDTO row, Comparator<RatingDTO> order) {
+        List<RatingDTO> cached = entry.rows();
+        remove(cached, row.getId());
+        int position = Collections.binarySearch(cached, row, order);
+        int insertAt = position >= 0 ? position : -position - 1;
+        if (insertAt == cached.size() && !entry.complete()) {
+            return entry;
+        }
+        cached.add(insertAt, row);
+        if (cached.size() > rows) {
+            cached.remove(cached.size() - 1);
+            return new Entry(cached, false, entry.expiresAtMillis());
+        }
+        return entry;
+    }
+
+    private static void remove(List<RatingDTO> cached, Long id) {
+        cached.removeIf(row -> row.getId().equals(id));
+    }
+
+    private static int stripe(String movieId) {
+        return Math.floorMod(movieId.hashCode(), GENERATION_STRIPES);
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0.0 : hits.count() / total;
+    }
+}
@@ -0,0 +1,50 @@
+package com.graphflix.ratingservice.service;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Drops this instance's cached first pages of a movie whenever any instance
+ * writes or deletes one of its ratings. Rating events are keyed by movie id,
+ * so the key is all that is read.
+ *
+ * <p>Every instance must see every event, so each one reads in a consumer
+ * group of its own, kept across restarts, starting from the latest events:
+ * cached pages never outlive a restart anyway. Events of this instance's
+ * own writes come back too and drop entries that were already up to date,
+ * which costs one reload.
+ */
+@Service
+public class MovieRatingsCacheInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieRatingsCacheInvalidator.class);
+
+    private final MovieRatingsCache movieRatingsCache;
+
+    public MovieRatingsCacheInvalidator(MovieRatingsCache movieRatingsCache) {
+        this.movieRatingsCache = movieRatingsCache;
+    }
+
+    @KafkaListener(
+            topics = {
+                "${kafka.topic.rating-created:rating-created}",
+                "${kafka.topic.rating-updated:rating-updated}",
+                "${kafka.topic.rating-deleted:rating-deleted}"
+            },
+            groupId = "${kafka.consumer.cache-group-id}",
+            properties = {
+                "auto.offset.reset=latest",
+                "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer"
+            })
+    public void onRatingChanged(ConsumerRecord<String, byte[]> record) {
+        if (record.key() == null) {
+            log.warn("[MovieRatingsCacheInvalidator] Skipping rating event without a movie id on '{}'",
+                    record.topic());
+            return;
+        }
+        movieRatingsCache.invalidate(record.key());
+    }
+}
@@ -0,0 +1,216 @@
+package com.graphflix.ratingservice.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch of distinct raters: 4096 registers, each holding the
+ * longest run of leading zeros seen among the hashes routed to it. Two
+ * sketches merge by taking the larger register, so merging is commutative
+ * and idempotent and the same raters can be added on several instances, or
+ * merged twice, without being counted twice.
+ *
+ * <p>Estimates have a relative standard error of {@code 1.04 / sqrt(4096)},
+ * about 1.6%, so roughly 95% of them fall within 3.3% of the true count.
+ * They come from Ertl's improved estimator, which needs neither the
+ * linear-counting switch nor bias tables to stay unbiased for small
+ * cardinalities.
+ *
+ * <p>Small sketches are kept sparse, as sorted {@code index << 8 | value}
+ * entries, and only become dense register arrays once that stops being
+ * smaller. {@link #toBytes()} writes either form, prefixed by its format.
+ */
+public final class RaterSketch {
+
+    private static final int PRECISION = 12;
+    private static final int REGISTERS = 1 << PRECISION;
+    // Register values run from 0 (empty) to MAX_VALUE, one past the hash bits left after the index
+    private static final int MAX_VALUE = Long.SIZE - PRECISION + 1;
+    private static final int SPARSE_LIMIT = REGISTERS / 4;
+
+    private static final byte SPARSE = 0;
+    private static final byte DENSE = 1;
+
+    public static final double RELATIVE_STANDARD_ERROR = 1.04 / Math.sqrt(REGISTERS);
+
+    private int[] sparse = new int[8];
+    private int sparseSize;
+    private byte[] dense;
+
+    public void add(String rater) {
+        long hash = hash(rater);
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        int value = Math.min(Long.numberOfLeadingZeros(hash << PRECISION), MAX_VALUE - 1) + 1;
+        set(index, value);
+    }
+
+    public void merge(RaterSketch other) {
+        if (other.dense != null) {
+            for (int index = 0; index < REGISTERS; index++) {
+                if (other.dense[index] != 0) {
+                    set(index, other.dense[index]);
+                }
+            }
+        } else {
+            for (int i = 0; i < other.sparseSize; i++) {
+                set(other.sparse[i] >>> 8, other.sparse[i] & 0xFF);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return dense == null && sparseSize == 0;
+    }
+
+    /**
+     * The estimated number of distinct raters added.
+     */
+    public long estimate() {
+        int[] histogram = new int[MAX_VALUE + 1];
+        if (dense != null) {
+            for (byte value : dense) {
+                histogram[value]++;
+            }
+        } else {
+            histogram[0] = REGISTERS - sparseSize;
+            for (int i = 0; i < sparseSize; i++) {
+                histogram[sparse[i] & 0xFF]++;
+            }
+        }
+        if (histogram[0] == REGISTERS) {
+            return 0;
+        }
+        double z = REGISTERS * tau(1.0 - (double) histogram[MAX_VALUE] / REGISTERS);
+        for (int value = MAX_VALUE - 1; value >= 1; value--) {
+            z = 0.5 * (z + histogram[value]);
+        }
+        z += REGISTERS * sigma((double) histogram[0] / REGISTERS);
+        return Math.round(REGISTERS / (2 * Math.log(2)) * REGISTERS / z);
+    }
+
+    public byte[] toBytes() {
+        if (dense != null) {
+            byte[] bytes = new byte[1 + REGISTERS];
+            bytes[0] = DENSE;
+            System.arraycopy(dense, 0, bytes, 1, REGISTERS);
+            return bytes;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(1 + sparseSize * 3);
+        buffer.put(SPARSE);
+        for (int i = 0; i < sparseSize; i++) {
+            buffer.putShort((short) (sparse[i] >>> 8));
+            buffer.put((byte) sparse[i]);
+        }
+        return buffer.array();
+    }
+
+    public static RaterSketch fromBytes(byte[] bytes) {
+        RaterSketch sketch = new RaterSketch();
+        if (bytes == null || bytes.length == 0) {
+            return sketch;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte format = buffer.get();
+        if (format == DENSE && bytes.length == 1 + REGISTERS) {
+            sketch.dense = Arrays.copyOfRange(bytes, 1, bytes.length);
+            return sketch;
+        }
+        if (format != SPARSE || (bytes.length - 1) % 3 != 0) {
+            throw new IllegalArgumentException("Not a rater sketch: format " + format + ", " + bytes.length + " bytes");
+        }
+        while (buffer.hasRemaining()) {
+            int index = buffer.getShort() & 0xFFFF;
+            int value = buffer.get();
+            if (index >= REGISTERS || value < 1 || value > MAX_VALUE) {
+                throw new IllegalArgumentException("Not a rater sketch: register " + index + " = " + value);
+            }
+            sketch.set(index, value);
+        }
+        return sketch;
+    }
+
+    private void set(int index, int value) {
+        if (dense != null) {
+            if (dense[index] < value) {
+                dense[index] = (byte) value;
+            }
+            return;
+        }
+        // No entry has value 0, so the search never hits and returns where the index's entry is or belongs
+        int position = -Arrays.binarySearch(sparse, 0, sparseSize, index << 8) - 1;
+        if (position < sparseSize && sparse[position] >>> 8 == index) {
+            if ((sparse[position] & 0xFF) < value) {
+                sparse[position] = index << 8 | value;
+            }
+            return;
+        }
+        if (sparseSize == SPARSE_LIMIT) {
+            densify();
+            dense[index] = (byte) value;
+            return;
+        }
+        if (sparseSize == sparse.length) {
+            sparse = Arrays.copyOf(sparse, sparse.length * 2);
+        }
+        System.arraycopy(sparse, position, sparse, position + 1, sparseSize - position);
+        sparse[position] = index << 8 | value;
+        sparseSize++;
+    }
+
+    private void densify() {
+        dense = new byte[REGISTERS];
+        for (int i = 0; i < sparseSize; i++) {
+            dense[sparse[i] >>> 8] = (byte) sparse[i];
+        }
+        sparse = null;
+        sparseSize = 0;
+    }
+
+    // FNV-1a over the UTF-8 bytes, finished with MurmurHash3's mixer so every output bit depends on every input bit
+    private static long hash(String rater) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : rater.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static double sigma(double x) {
+        if (x == 1.0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double y = 1.0;
+        double z = x;
+        double previous;
+        do {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        } while (z != previous);
+        return z;
+    }
+
+    private static double tau(double x) {
+        if (x == 0.0 || x == 1.0) {
+            return 0.0;
+        }
+        double y = 1.0;
+        double z = 1.0 - x;
+        double previous;
+        do {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= Math.pow(1.0 - x, 2) * y;
+        } while (z != previous);
+        return z / 3;
+    }
+}
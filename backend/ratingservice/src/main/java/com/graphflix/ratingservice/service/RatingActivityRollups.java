@@ -0,0 +1,280 @@
+package com.graphflix.ratingservice.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.graphflix.ratingservice.dto.ActivityBucketDTO;
+import com.graphflix.ratingservice.dto.RatingActivityDTO;
+import com.graphflix.ratingservice.model.Rating;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Ratings written per hour and per day, for each movie and for all movies
+ * together, so activity over a time range is read from one node per day
+ * instead of from the ratings.
+ *
+ * <p>A RatingActivity node per movie and day holds the day's total and a
+ * 24-slot list of hourly counts; the totals over all movies are kept under
+ * the movie id {@value #ALL_MOVIES}. Ratings committed through this instance
+ * are counted in memory by the hour of their timestamp and added to the
+ * nodes on a schedule, each node locked while its counts are added to.
+ * Counts therefore lag by up to one flush interval.
+ *
+ * <p>Hourly detail is only kept for the hourly retention: a nightly
+ * compaction then drops the list and leaves the day's total, and deletes
+ * days past the daily retention altogether. Days still holding hourly
+ * counts are also labelled HourlyRatingActivity, so compaction seeks only
+ * those. Reads of compacted days answer one bucket for the whole day.
+ */
+@Service
+public class RatingActivityRollups {
+
+    private static final Logger log = LoggerFactory.getLogger(RatingActivityRollups.class);
+
+    public static final String ALL_MOVIES = "*";
+
+    private static final int HOURS = 24;
+
+    static final String ADD_COUNTS_QUERY = """
+            UNWIND $buckets AS bucket
+            MERGE (a:RatingActivity {movieId: bucket.movieId, day: bucket.day})
+            ON CREATE SET a:HourlyRatingActivity, a.count = 0, a.hours = [hour IN range(0, 23) | 0]
+            SET a._lock = true
+            SET a.count = a.count + bucket.count,
+                a.hours = CASE WHEN a.hours IS NULL THEN NULL
+                               ELSE [hour IN range(0, 23) | a.hours[hour] + bucket.hours[hour]] END
+            REMOVE a._lock
+            """;
+
+    static final String READ_ACTIVITY_QUERY = """
+            MATCH (a:RatingActivity {movieId: $movieId})
+            WHERE a.day >= $from AND a.day <= $to
+            RETURN a.day AS day, a.count AS count, a.hours AS hours
+            ORDER BY day
+            """;
+
+    static final String COMPACT_QUERY = """
+            MATCH (a:HourlyRatingActivity)
+            WHERE a.day < $before
+            WITH a
+            LIMIT $batchSize
+            SET a._lock = true
+            REMOVE a:HourlyRatingActivity, a.hours, a._lock
+            RETURN count(a) AS rollups
+            """;
+
+    static final String EVICT_QUERY = """
+            MATCH (a:RatingActivity)
+            WHERE a.day < $before
+            WITH a
+            LIMIT $batchSize
+            DELETE a
+            RETURN count(a) AS rollups
+            """;
+
+    private record Key(String movieId, LocalDate day) {}
+
+    // Rollups are locked in this order, so flushes of several instances cannot deadlock
+    private static final Comparator<Key> LOCK_ORDER = Comparator.comparing(Key::movieId).thenComparing(Key::day);
+
+    public enum Granularity { HOUR, DAY }
+
+    private final Neo4jClient neo4jClient;
+    private final Duration hourlyRetention;
+    private final Duration dailyRetention;
+    private final int batchSize;
+
+    private final Object lock = new Object();
+    private Map<Key, long[]> pending = new HashMap<>();
+
+    private final Timer flushTimer;
+
+    public RatingActivityRollups(Neo4jClient neo4jClient, MeterRegistry meterRegistry,
+            @Value("${rating.activity.hourly-retention:7d}") Duration hourlyRetention,
+            @Value("${rating.activity.daily-retention:400d}") Duration dailyRetention,
+            @Value("${rating.activity.batch-size:1000}") int batchSize) {
+        this.neo4jClient = neo4jClient;
+        this.hourlyRetention = hourlyRetention;
+        this.dailyRetention = dailyRetention;
+        this.batchSize = batchSize;
+        this.flushTimer = Timer.builder("rating.activity.flush").register(meterRegistry);
+        Gauge.builder("rating.activity.rollups.pending", this, RatingActivityRollups::pendingCount)
+                .description("Movie-day activity rollups counted since the last flush")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRatingsChanged(MovieRatingsCache.RatingsChanged event) {
+        if (event.written().isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            for (Rating rating : event.written()) {
+                LocalDateTime timestamp = rating.getTimestamp() != null ? rating.getTimestamp() : LocalDateTime.now();
+                for (String movieId : List.of(rating.getMovieId(), ALL_MOVIES)) {
+                    pending.computeIfAbsent(new Key(movieId, timestamp.toLocalDate()), key -> new long[HOURS])
+                            [timestamp.getHour()]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Ratings written on the days from {@code from} to {@code to}, both
+     * included, in hourly or daily buckets, for one movie or for
+     * {@link #ALL_MOVIES}. Only buckets with ratings are listed.
+     */
+    public RatingActivityDTO getActivity(String movieId, LocalDate from, LocalDate to, Granularity granularity) {
+        List<ActivityBucketDTO> buckets = new ArrayList<>();
+        long total = 0;
+        for (Map<String, Object> row : neo4jClient.query(READ_ACTIVITY_QUERY)
+                .bindAll(Map.of("movieId", movieId, "from", from, "to", to))
+                .fetch()
+                .all()) {
+            LocalDate day = (LocalDate) row.get("day");
+            long count = (Long) row.get("count");
+            total += count;
+            if (granularity == Granularity.HOUR && row.get("hours") instanceof List<?> hours) {
+                for (int hour = 0; hour < HOURS; hour++) {
+                    long hourly = ((Number) hours.get(hour)).longValue();
+                    if (hourly > 0) {
+                        LocalDateTime start = day.atTime(hour, 0);
+                        buckets.add(bucket(start, start.plusHours(1), hourly));
+                    }
+                }
+            } else if (count > 0) {
+                buckets.add(bucket(day.atStartOfDay(), day.plusDays(1).atStartOfDay(), count));
+            }
+        }
+        return RatingActivityDTO.builder()
+                .movieId(movieId)
+                .from(from)
+                .to(to)
+                .granularity(granularity.name().toLowerCase(Locale.ROOT))
+                .total(total)
+                .buckets(buckets)
+                .build();
+    }
+
+    /**
+     * Adds the counts since the last flush to the rollups, a batch of
+     * movie-days per transaction. Counts of a failed batch go back to the
+     * pending ones and are retried on the next flush.
+     */
+    @Scheduled(fixedDelayString = "${rating.activity.flush.interval-ms:10000}")
+    public void flush() {
+        Map<Key, long[]> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new TreeMap<>(LOCK_ORDER);
+            batch.putAll(pending);
+            pending = new HashMap<>();
+        }
+        long start = System.nanoTime();
+        List<Key> keys = List.copyOf(batch.keySet());
+        int flushed = 0;
+        try {
+            for (int from = 0; from < keys.size(); from += batchSize) {
+                List<Key> chunk = keys.subList(from, Math.min(from + batchSize, keys.size()));
+                neo4jClient.query(ADD_COUNTS_QUERY)
+                        .bind(chunk.stream().map(key -> toParameters(key, batch.get(key))).toList()).to("buckets")
+                        .run();
+                flushed += chunk.size();
+            }
+        } catch (RuntimeException e) {
+            log.warn("[RatingActivityRollups] Flushed {} of {} activity rollups, retrying the rest on the next "
+                    + "flush: {}", flushed, keys.size(), e.getMessage());
+            synchronized (lock) {
+                for (Key key : keys.subList(flushed, keys.size())) {
+                    long[] counts = pending.computeIfAbsent(key, k -> new long[HOURS]);
+                    long[] unflushed = batch.get(key);
+                    for (int hour = 0; hour < HOURS; hour++) {
+                        counts[hour] += unflushed[hour];
+                    }
+                }
+            }
+        }
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        if (pendingCount() > 0) {
+            log.info("[RatingActivityRollups] Flushing {} activity rollups before shutdown", pendingCount());
+            flush();
+        }
+    }
+
+    /**
+     * Drops the hourly counts of days past the hourly retention, keeping
+     * their totals, and deletes days past the daily retention, a batch per
+     * transaction.
+     */
+    @Scheduled(cron = "${rating.activity.compaction.cron:0 45 3 * * *}")
+    public void compact() {
+        LocalDate today = LocalDate.now();
+        long compacted = runInBatches(COMPACT_QUERY, today.minusDays(hourlyRetention.toDays()));
+        long evicted = runInBatches(EVICT_QUERY, today.minusDays(dailyRetention.toDays()));
+        log.info("[RatingActivityRollups] Compacted {} activity rollups to daily totals, evicted {}",
+                compacted, evicted);
+    }
+
+    private long runInBatches(String query, LocalDate before) {
+        long total = 0;
+        long changed;
+        do {
+            changed = neo4jClient.query(query)
+                    .bindAll(Map.of("before", before, "batchSize", batchSize))
+                    .fetchAs(Long.class)
+                    .mappedBy((typeSystem, record) -> record.get("rollups").asLong())
+                    .one()
+                    .orElse(0L);
+            total += changed;
+        } while (changed == batchSize);
+        return total;
+    }
+
+    private static Map<String, Object> toParameters(Key key, long[] hours) {
+        return Map.of(
+                "movieId", key.movieId(),
+                "day", key.day(),
+                "count", Arrays.stream(hours).sum(),
+                "hours", Arrays.stream(hours).boxed().toList());
+    }
+
+    private static ActivityBucketDTO bucket(LocalDateTime start, LocalDateTime end, long count) {
+        return ActivityBucketDTO.builder().start(start).end(end).count(count).build();
+    }
+
+    private int pendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+}
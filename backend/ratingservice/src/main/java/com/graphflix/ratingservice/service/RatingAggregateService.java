@@ -0,0 +1,423 @@
+package com.graphflix.ratingservice.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps per-movie rating aggregates ({@code ratingCount}, {@code ratingSum},
+ * {@code ratingSumSq} and the 10-slot {@code ratingHistogram}) on the Movie
+ * node, so averages and distributions are read in constant time instead of
+ * loading every Rating.
+ *
+ * <p>Writers apply deltas inside their own transaction. Every statement
+ * writes a throwaway property before reading the aggregates, which takes the
+ * node's write lock first, so concurrent deltas and repairs serialize instead
+ * of losing updates. RATED relationships stay the source of truth: the
+ * repair job recomputes the aggregates from them in batches.
+ *
+ * <p>That lock makes every rater of a movie wait for the one before, so a hot
+ * movie can be split into {@code ratingStripes} RatingStripe nodes. The Movie
+ * then holds the aggregates as of the last repair, each writer adds its delta
+ * to the one stripe its user hashes to, and readers add up the Movie and its
+ * stripes. Repairs lock the Movie and then every stripe, in stripe order,
+ * before folding them back into the Movie. Stripes are looked up through
+ * their (movieId, stripe) constraint, which every lookup seeks with a
+ * predicate on both keys.
+ *
+ * <p>Every change is also published as an {@link AggregatesChanged} event,
+ * which in-memory views such as {@link TopRatedLeaderboard} apply once the
+ * writing transaction has committed.
+ */
+@Service
+public class RatingAggregateService {
+
+    private static final Logger log = LoggerFactory.getLogger(RatingAggregateService.class);
+
+    public record RatingAggregate(long count, long sum, long sumSq) {
+
+        public double average() {
+            return count == 0 ? 0.0 : (double) sum / count;
+        }
+
+        public double stdDev() {
+            if (count == 0) {
+                return 0.0;
+            }
+            double mean = average();
+            return Math.sqrt(Math.max(0.0, (double) sumSq / count - mean * mean));
+        }
+    }
+
+    /**
+     * Accumulated change to one movie's aggregates. Bulk writers fold many
+     * ratings into one delta per movie and apply them in a single statement.
+     */
+    public static final class Delta {
+
+        private long count;
+        private long sum;
+        private long sumSq;
+        private final long[] histogram = new long[10];
+        private int stripeKey;
+
+        public Delta add(int rating) {
+            return shift(1, rating);
+        }
+
+        public Delta remove(int rating) {
+            return shift(-1, rating);
+        }
+
+        /**
+         * Applies the delta to the stripe of this user when the movie is
+         * striped. Any stripe gives the same totals; the user only spreads
+         * concurrent writers over them.
+         */
+        public Delta by(String userId) {
+            stripeKey = stripeKey(userId);
+            return this;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public long sum() {
+            return sum;
+        }
+
+        public boolean isEmpty() {
+            return Arrays.stream(histogram).allMatch(slot -> slot == 0);
+        }
+
+        private Delta shift(int sign, int rating) {
+            if (rating < 1 || rating > histogram.length) {
+                throw new IllegalArgumentException("Rating must be between 1 and " + histogram.length + ": " + rating);
+            }
+            count += sign;
+            sum += (long) sign * rating;
+            sumSq += (long) sign * rating * rating;
+            histogram[rating - 1] += sign;
+            return this;
+        }
+
+        private Map<String, Object> toParameters(String movieId) {
+            return Map.of(
+                    "movieId", movieId,
+                    "count", count,
+                    "sum", sum,
+                    "sumSq", sumSq,
+                    "histogram", Arrays.stream(histogram).boxed().toList(),
+                    "stripeKey", stripeKey);
+        }
+    }
+
+    /**
+     * Aggregates changed by one statement: deltas applied to some movies, and
+     * the recomputed aggregates of others.
+     */
+    public record AggregatesChanged(Map<String, Delta> deltas, Map<String, RatingAggregate> recomputed) {}
+
+    // Lands on the Movie itself unless it is striped
+    private static final String APPLY_DELTAS_QUERY = """
+            UNWIND $deltas AS delta
+            MATCH (m:Movie)
+            WHERE elementId(m) = delta.movieId AND m.ratingCount IS NOT NULL AND m.ratingHistogram IS NOT NULL
+            OPTIONAL MATCH (s:RatingStripe {movieId: delta.movieId, stripe: delta.stripeKey % m.ratingStripes})
+            WITH delta, coalesce(s, m) AS aggregate
+            SET aggregate._aggregateLock = true
+            SET aggregate.ratingCount = aggregate.ratingCount + delta.count,
+                aggregate.ratingSum = aggregate.ratingSum + delta.sum,
+                aggregate.ratingSumSq = aggregate.ratingSumSq + delta.sumSq,
+                aggregate.ratingHistogram = [slot IN range(0, 9) |
+                    aggregate.ratingHistogram[slot] + delta.histogram[slot]]
+            REMOVE aggregate._aggregateLock
+            RETURN delta.movieId AS movieId
+            """;
+
+    private static final String RECOMPUTE_QUERY = """
+            UNWIND $movieIds AS movieId
+            MATCH (m:Movie)
+            WHERE elementId(m) = movieId
+            SET m._aggregateLock = true
+            WITH m, movieId
+            OPTIONAL MATCH (s:RatingStripe {movieId: movieId})
+            WHERE s.stripe >= 0
+            WITH m, movieId, s
+            ORDER BY movieId, s.stripe
+            SET s._aggregateLock = true
+            SET s.ratingCount = 0, s.ratingSum = 0, s.ratingSumSq = 0,
+                s.ratingHistogram = [0, 0, 0, 0, 0, 0, 0, 0, 0, 0]
+            REMOVE s._aggregateLock
+            WITH m, movieId, count(s) AS emptied
+            OPTIONAL MATCH (m)<-[r:RATED]-(:User)
+            WITH m, movieId, collect(r.rating) AS ratings
+            WITH m, movieId, ratings, size(ratings) AS ratingCount,
+                 reduce(total = 0, rating IN ratings | total + rating) AS ratingSum,
+                 reduce(total = 0, rating IN ratings | total + rating * rating) AS ratingSumSq
+            SET m.ratingCount = ratingCount,
+                m.ratingSum = ratingSum,
+                m.ratingSumSq = ratingSumSq,
+                m.ratingHistogram = [stars IN range(1, 10) | size([rating IN ratings WHERE rating = stars])]
+            REMOVE m._aggregateLock
+            RETURN movieId, ratingCount, ratingSum, ratingSumSq
+            """;
+
+    static final String READ_AGGREGATES_QUERY = """
+            UNWIND $movieIds AS movieId
+            MATCH (m:Movie)
+            WHERE elementId(m) = movieId AND m.ratingCount IS NOT NULL
+            OPTIONAL MATCH (s:RatingStripe {movieId: movieId})
+            WHERE s.stripe >= 0
+            WITH movieId, m, sum(s.ratingCount) AS stripedCount, sum(s.ratingSum) AS stripedSum,
+                 sum(s.ratingSumSq) AS stripedSumSq
+            RETURN movieId, m.ratingCount + stripedCount AS ratingCount, m.ratingSum + stripedSum AS ratingSum,
+                   m.ratingSumSq + stripedSumSq AS ratingSumSq
+            """;
+
+    private static final String READ_HISTOGRAMS_QUERY = """
+            UNWIND $movieIds AS movieId
+            MATCH (m:Movie)
+            WHERE elementId(m) = movieId AND m.ratingHistogram IS NOT NULL
+            OPTIONAL MATCH (s:RatingStripe {movieId: movieId})
+            WHERE s.stripe >= 0
+            WITH movieId, m, collect(s.ratingHistogram) AS stripes
+            RETURN movieId, [slot IN range(0, 9) | m.ratingHistogram[slot]
+                + reduce(total = 0, histogram IN stripes | total + histogram[slot])] AS ratingHistogram
+            """;
+
+    /**
+     * Sets how many stripes the movie's aggregates are split into, creating
+     * the missing ones. Stripes beyond a lowered count are kept, emptied by
+     * the recompute that follows, so writers still aiming at them stay
+     * correct.
+     */
+    private static final String STRIPE_MOVIE_QUERY = """
+            MATCH (m:Movie)
+            WHERE elementId(m) = $movieId
+            SET m._aggregateLock = true
+            SET m.ratingStripes = CASE WHEN $stripes > 1 THEN $stripes END
+            FOREACH (stripe IN CASE WHEN $stripes > 1 THEN range(0, $stripes - 1) ELSE [] END |
+                MERGE (s:RatingStripe {movieId: $movieId, stripe: stripe})
+                ON CREATE SET s.ratingCount = 0, s.ratingSum = 0, s.ratingSumSq = 0,
+                              s.ratingHistogram = [0, 0, 0, 0, 0, 0, 0, 0, 0, 0])
+            REMOVE m._aggregateLock
+            RETURN elementId(m) AS movieId
+            """;
+
+    static final String FALLBACK_AGGREGATES_QUERY = """
+            UNWIND $movieIds AS movieId
+            OPTIONAL MATCH (m:Movie)<-[r:RATED]-(:User)
+            WHERE elementId(m) = movieId
+            RETURN movieId, count(r) AS ratingCount, sum(r.rating) AS ratingSum, sum(r.rating * r.rating) AS ratingSumSq
+            """;
+
+    private static final String MOVIE_IDS_QUERY = """
+            MATCH (m:Movie)
+            RETURN elementId(m) AS movieId
+            """;
+
+    private static final List<Long> EMPTY_HISTOGRAM = Collections.nCopies(10, 0L);
+
+    private final Neo4jClient neo4jClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int repairBatchSize;
+
+    public RatingAggregateService(Neo4jClient neo4jClient, ApplicationEventPublisher eventPublisher,
+            @Value("${rating.aggregates.repair.batch-size:500}") int repairBatchSize) {
+        this.neo4jClient = neo4jClient;
+        this.eventPublisher = eventPublisher;
+        this.repairBatchSize = repairBatchSize;
+    }
+
+    /**
+     * Spreads concurrent writers over a movie's stripes: the same user always
+     * lands on the same one.
+     */
+    public static int stripeKey(String userId) {
+        int hash = userId.hashCode();
+        return (hash ^ (hash >>> 16)) & Integer.MAX_VALUE;
+    }
+
+    /**
+     * Splits the movie's aggregates into {@code stripes} stripes, or keeps
+     * them on the Movie alone for 1, and recomputes them from the ratings.
+     * Returns false for an unknown movie.
+     */
+    @Transactional
+    public boolean setStripes(String movieId, int stripes) {
+        boolean found = neo4jClient.query(STRIPE_MOVIE_QUERY)
+                .bindAll(Map.of("movieId", movieId, "stripes", stripes))
+                .fetch()
+                .one()
+                .isPresent();
+        if (found) {
+            recompute(List.of(movieId));
+            log.info("[RatingAggregateService] Rating aggregates of movie '{}' now use {} stripes", movieId, stripes);
+        }
+        return found;
+    }
+
+    /**
+     * Seeds the aggregates of a movie that has none yet from its ratings.
+     */
+    public void seed(String movieId) {
+        recompute(List.of(movieId));
+    }
+
+    public void ratingRemoved(String movieId, String userId, int rating) {
+        apply(Map.of(movieId, new Delta().remove(rating).by(userId)));
+    }
+
+    /**
+     * Announces a delta the caller already applied in its own statement.
+     */
+    public void applied(String movieId, Delta delta) {
+        eventPublisher.publishEvent(new AggregatesChanged(Map.of(movieId, delta), Map.of()));
+    }
+
+    public RatingAggregate getAggregate(String movieId) {
+        return getAggregates(List.of(movieId)).get(movieId);
+    }
+
+    /**
+     * Reads the aggregates of the given movies, in request order, with one
+     * statement. Movies not seeded yet (new deployment, repair still running)
+     * are aggregated from their ratings by a second statement; unknown movies
+     * read as empty.
+     */
+    public Map<String, RatingAggregate> getAggregates(List<String> movieIds) {
+        Map<String, RatingAggregate> aggregates = new LinkedHashMap<>();
+        movieIds.forEach(movieId -> aggregates.put(movieId, null));
+        readAggregates(READ_AGGREGATES_QUERY, movieIds, aggregates);
+
+        List<String> unseeded = aggregates.entrySet().stream()
+                .filter(entry -> entry.getValue() == null)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (!unseeded.isEmpty()) {
+            log.debug("[RatingAggregateService] No stored aggregates for {} movies, aggregating on the fly",
+                    unseeded.size());
+            readAggregates(FALLBACK_AGGREGATES_QUERY, unseeded, aggregates);
+        }
+        return aggregates;
+    }
+
+    private void readAggregates(String query, List<String> movieIds, Map<String, RatingAggregate> aggregates) {
+        neo4jClient.query(query)
+                .bind(movieIds).to("movieIds")
+                .fetch()
+                .all()
+                .forEach(row -> aggregates.put((String) row.get("movieId"), new RatingAggregate(
+                        (Long) row.get("ratingCount"),
+                        row.get("ratingSum") != null ? (Long) row.get("ratingSum") : 0L,
+                        row.get("ratingSumSq") != null ? (Long) row.get("ratingSumSq") : 0L)));
+    }
+
+    /**
+     * Reads the stored 1-10 star histograms of the given movies, stripes
+     * included, in request order. Slot 0 counts 1-star ratings. Movies that
+     * are unknown or not yet seeded by the repair job read as all zeros;
+     * ratings are never read.
+     */
+    public Map<String, List<Long>> getHistograms(List<String> movieIds) {
+        Map<String, List<Long>> histograms = new LinkedHashMap<>();
+        movieIds.forEach(movieId -> histograms.put(movieId, EMPTY_HISTOGRAM));
+        neo4jClient.query(READ_HISTOGRAMS_QUERY)
+                .bind(movieIds).to("movieIds")
+                .fetch()
+                .all()
+                .forEach(row -> {
+                    if (row.get("ratingHistogram") instanceof List<?> slots) {
+                        histograms.put((String) row.get("movieId"),
+                                slots.stream().map(slot -> ((Number) slot).longValue()).toList());
+                    }
+                });
+        return histograms;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void repairOnStartup() {
+        try {
+            repairAll();
+        } catch (RuntimeException e) {
+            log.warn("[RatingAggregateService] Startup repair failed, averages fall back to on-the-fly aggregation: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Recomputes every movie's aggregates from its RATED relationships, one batch per
+     * transaction, correcting any drift left by failed or concurrent writers.
+     */
+    @Scheduled(cron = "${rating.aggregates.repair.cron:0 30 3 * * *}")
+    public void repairAll() {
+        long start = System.currentTimeMillis();
+        List<String> movieIds = new ArrayList<>(neo4jClient.query(MOVIE_IDS_QUERY)
+                .fetchAs(String.class)
+                .mappedBy((typeSystem, record) -> record.get("movieId").asString())
+                .all());
+        long repaired = 0;
+        for (int from = 0; from < movieIds.size(); from += repairBatchSize) {
+            repaired += recompute(movieIds.subList(from, Math.min(from + repairBatchSize, movieIds.size()))).size();
+        }
+        log.info("[RatingAggregateService] Repaired rating aggregates for {} movies in {} ms",
+                repaired, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Applies one delta per movie in a single statement. Movies are locked in
+     * id order so concurrent batches cannot deadlock on each other, and movies
+     * without aggregates yet are seeded from their ratings instead, which
+     * already include this transaction's changes.
+     */
+    public void apply(Map<String, Delta> deltas) {
+        List<Map<String, Object>> parameters = new TreeMap<>(deltas).entrySet().stream()
+                .filter(entry -> !entry.getValue().isEmpty())
+                .map(entry -> entry.getValue().toParameters(entry.getKey()))
+                .toList();
+        if (parameters.isEmpty()) {
+            return;
+        }
+        Set<String> applied = new HashSet<>(neo4jClient.query(APPLY_DELTAS_QUERY)
+                .bind(parameters).to("deltas")
+                .fetchAs(String.class)
+                .mappedBy((typeSystem, record) -> record.get("movieId").asString())
+                .all());
+        List<String> unseeded = parameters.stream()
+                .map(delta -> (String) delta.get("movieId"))
+                .filter(movieId -> !applied.contains(movieId))
+                .toList();
+        Map<String, Delta> appliedDeltas = new TreeMap<>(deltas);
+        appliedDeltas.keySet().retainAll(applied);
+        eventPublisher.publishEvent(new AggregatesChanged(appliedDeltas, Map.of()));
+        if (!unseeded.isEmpty()) {
+            recompute(unseeded);
+        }
+    }
+
+    private Map<String, RatingAggregate> recompute(List<String> movieIds) {
+        Map<String, RatingAggregate> recomputed = new LinkedHashMap<>();
+        readAggregates(RECOMPUTE_QUERY, movieIds, recomputed);
+        eventPublisher.publishEvent(new AggregatesChanged(Map.of(), recomputed));
+        return recomputed;
+    }
+}
@@ -0,0 +1,76 @@
+package com.graphflix.ratingservice.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounded, per-instance cache of how many ratings each user has, so rating
+ * lists can report a total without counting on every page. Entries expire
+ * after a TTL and are dropped when the user adds or deletes a rating through
+ * this instance; bulk imports and other instances are covered by the TTL.
+ */
+@Component
+public class RatingCountCache {
+
+    private record Entry(long count, long expiresAtMillis) {}
+
+    private final Map<String, Entry> entries;
+    private final long ttlMillis;
+    private final Counter hits;
+    private final Counter misses;
+
+    public RatingCountCache(
+            MeterRegistry meterRegistry,
+            @Value("${rating.count-cache.max-users:10000}") int maxUsers,
+            @Value("${rating.count-cache.ttl:5m}") Duration ttl) {
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxUsers;
+            }
+        };
+        this.hits = Counter.builder("rating.count.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("rating.count.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached count, or {@code null} when none is fresh.
+     */
+    public Long get(String userId) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(userId);
+            if (entry != null && entry.expiresAtMillis() < System.currentTimeMillis()) {
+                entries.remove(userId);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.count();
+    }
+
+    public void put(String userId, long count) {
+        Entry entry = new Entry(count, System.currentTimeMillis() + ttlMillis);
+        synchronized (entries) {
+            entries.put(userId, entry);
+        }
+    }
+
+    public void invalidate(String userId) {
+        synchronized (entries) {
+            entries.remove(userId);
+        }
+    }
+}
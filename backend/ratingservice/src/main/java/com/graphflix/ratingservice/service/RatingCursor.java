@@ -0,0 +1,91 @@
+package com.graphflix.ratingservice.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Position in a rating list ordered by {@code (sortKey DESC, id DESC)}: the
+ * sort value and id of the last rating on the previous page. Clients get it
+ * as an opaque URL-safe base64 token and send it back unchanged.
+ */
+public record RatingCursor(SortKey sortKey, String value, long id) {
+
+    /**
+     * The keys rating lists may be sorted by. Each is backed by a composite
+     * index on (userId, key) and (movieId, key), so a page is an index seek
+     * whatever its depth.
+     */
+    public enum SortKey {
+        TIMESTAMP("timestamp"),
+        RATING("rating");
+
+        private final String property;
+
+        SortKey(String property) {
+            this.property = property;
+        }
+
+        public String property() {
+            return property;
+        }
+
+        public static Optional<SortKey> of(String property) {
+            return Arrays.stream(values()).filter(key -> key.property.equals(property)).findFirst();
+        }
+    }
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Cursor before the first rating: sorts after every stored value, so the
+     * first page runs the same statement as every later one.
+     */
+    public static RatingCursor first(SortKey sortKey) {
+        String value = switch (sortKey) {
+            case TIMESTAMP -> LocalDateTime.MAX.toString();
+            case RATING -> String.valueOf(Integer.MAX_VALUE);
+        };
+        return new RatingCursor(sortKey, value, Long.MAX_VALUE);
+    }
+
+    public String encode() {
+        String raw = sortKey.property + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a token produced by {@link #encode()}. Rejects tokens that are
+     * malformed or were issued for a different sort key.
+     */
+    public static RatingCursor decode(String token, SortKey expected) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor is not valid base64");
+        }
+        int first = raw.indexOf(SEPARATOR);
+        int last = raw.lastIndexOf(SEPARATOR);
+        if (first < 0 || first == last) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        if (!raw.substring(0, first).equals(expected.property)) {
+            throw new IllegalArgumentException("Cursor was issued for another sort order");
+        }
+        String value = raw.substring(first + 1, last);
+        try {
+            long id = Long.parseLong(raw.substring(last + 1));
+            switch (expected) {
+                case TIMESTAMP -> LocalDateTime.parse(value);
+                case RATING -> Integer.parseInt(value);
+            }
+            return new RatingCursor(expected, value, id);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.graphflix.ratingservice.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import org.apache.avro.Schema;
+import org.apache.avro.data.TimeConversions;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.springframework.stereotype.Component;
+
+import com.graphflix.ratingservice.model.RatingEvent;
+
+/**
+ * Encodes rating events as Avro single-object messages: the two marker bytes
+ * {@code C3 01}, the 8-byte fingerprint of the writer schema and the binary
+ * body. The fingerprint lets consumers pick the matching schema version and
+ * tell these messages apart from the JSON events published before.
+ *
+ * <p>The schema is embedded as {@code avro/rating-event.avsc}; consumers keep
+ * a copy of every version they must still read.
+ */
+@Component
+public class RatingEventCodec {
+
+    static final Schema SCHEMA = loadSchema("/avro/rating-event.avsc");
+
+    private static final GenericData MODEL = new GenericData();
+
+    static {
+        MODEL.addLogicalTypeConversion(new TimeConversions.LocalTimestampMicrosConversion());
+    }
+
+    private final BinaryMessageEncoder<GenericRecord> encoder = new BinaryMessageEncoder<>(MODEL, SCHEMA);
+
+    public byte[] encode(RatingEvent event) throws IOException {
+        GenericRecord record = new GenericData.Record(SCHEMA);
+        record.put("eventType", new GenericData.EnumSymbol(SCHEMA.getField("eventType").schema(), event.getEventType()));
+        record.put("ratingId", event.getRatingId());
+        record.put("userId", event.getUserId());
+        record.put("movieId", event.getMovieId());
+        record.put("rating", event.getRating());
+        record.put("comment", event.getComment());
+        record.put("timestamp", event.getTimestamp());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        try {
+            encoder.encode(record, out);
+        } catch (RuntimeException e) {
+            // Null required fields and unknown event types fail inside the writer
+            throw new IOException("Cannot encode " + event.getEventType() + " event: " + e.getMessage(), e);
+        }
+        return out.toByteArray();
+    }
+
+    private static Schema loadSchema(String resource) {
+        try (InputStream in = RatingEventCodec.class.getResourceAsStream(resource)) {
+            return new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load Avro schema " + resource, e);
+        }
+    }
+}
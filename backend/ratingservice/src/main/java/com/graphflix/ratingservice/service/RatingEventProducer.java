@@ -1,20 +1,28 @@
 package com.graphflix.ratingservice.service;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.graphflix.outbox.OutboxService;
 import com.graphflix.ratingservice.exception.EventPublishingException;
 import com.graphflix.ratingservice.model.Rating;
 import com.graphflix.ratingservice.model.RatingEvent;
 
+/**
+ * Publishes rating events through the {@link OutboxService}, encoded by the
+ * {@link RatingEventCodec}. Every method must be called inside the transaction
+ * that wrote the rating; the events reach Kafka only after that transaction
+ * commits.
+ */
 @Service
 public class RatingEventProducer {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final ObjectMapper objectMapper;
+    private final OutboxService outboxService;
+    private final RatingEventCodec codec;
 
     @Value("${kafka.topic.rating-created:rating-created}")
     private String ratingCreatedTopic;
@@ -25,52 +33,57 @@ public class RatingEventProducer {
     @Value("${kafka.topic.rating-deleted:rating-deleted}")
     private String ratingDeletedTopic;
 
-    public RatingEventProducer(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper) {
-        this.kafkaTemplate = kafkaTemplate;
-        this.objectMapper = objectMapper;
+    public RatingEventProducer(OutboxService outboxService, RatingEventCodec codec) {
+        this.outboxService = outboxService;
+        this.codec = codec;
     }
 
     public void publishRatingCreatedEvent(Rating rating) {
-        RatingEvent event = RatingEvent.builder()
-                .eventType("RATING_CREATED")
-                .ratingId(rating.getId())
-                .userId(rating.getUserId())
-                .movieId(rating.getMovieId())
-                .rating(rating.getRating())
-                .comment(rating.getComment())
-                .timestamp(rating.getTimestamp())
-                .build();
-
         try {
-            String json = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(ratingCreatedTopic, event.getMovieId(), json);
-        } catch (JsonProcessingException e) {
+            outboxService.enqueue(List.of(toMessage(ratingCreatedTopic, "RATING_CREATED", rating)));
+        } catch (IOException e) {
             throw new EventPublishingException("Failed to publish rating created event", e);
         }
     }
 
     public void publishRatingUpdatedEvent(Rating rating) {
-        RatingEvent event = RatingEvent.builder()
-                .eventType("RATING_UPDATED")
-                .ratingId(rating.getId())
-                .userId(rating.getUserId())
-                .movieId(rating.getMovieId())
-                .rating(rating.getRating())
-                .comment(rating.getComment())
-                .timestamp(rating.getTimestamp())
-                .build();
-
         try {
-            String json = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(ratingUpdatedTopic, event.getMovieId(), json);
-        } catch (JsonProcessingException e) {
+            outboxService.enqueue(List.of(toMessage(ratingUpdatedTopic, "RATING_UPDATED", rating)));
+        } catch (IOException e) {
             throw new EventPublishingException("Failed to publish rating updated event", e);
         }
     }
 
     public void publishRatingDeletedEvent(Rating rating) {
+        try {
+            outboxService.enqueue(List.of(toMessage(ratingDeletedTopic, "RATING_DELETED", rating)));
+        } catch (IOException e) {
+            throw new EventPublishingException("Failed to publish rating deleted event", e);
+        }
+    }
+
+    /**
+     * Publishes the events of one import batch with a single outbox write.
+     */
+    public void publishImportedRatings(List<Rating> created, List<Rating> updated) {
+        List<OutboxService.OutboxMessage> messages = new ArrayList<>(created.size() + updated.size());
+        try {
+            for (Rating rating : created) {
+                messages.add(toMessage(ratingCreatedTopic, "RATING_CREATED", rating));
+            }
+            for (Rating rating : updated) {
+                messages.add(toMessage(ratingUpdatedTopic, "RATING_UPDATED", rating));
+            }
+        } catch (IOException e) {
+            throw new EventPublishingException("Failed to publish imported rating events", e);
+        }
+        outboxService.enqueue(messages);
+    }
+
+    private OutboxService.OutboxMessage toMessage(String topic, String eventType, Rating rating)
+            throws IOException {
         RatingEvent event = RatingEvent.builder()
-                .eventType("RATING_DELETED")
+                .eventType(eventType)
                 .ratingId(rating.getId())
                 .userId(rating.getUserId())
                 .movieId(rating.getMovieId())
@@ -78,12 +91,6 @@ public class RatingEventProducer {
                 .comment(rating.getComment())
                 .timestamp(rating.getTimestamp())
                 .build();
-
-        try {
-            String json = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(ratingDeletedTopic, event.getMovieId(), json);
-        } catch (JsonProcessingException e) {
-            throw new EventPublishingException("Failed to publish rating deleted event", e);
-        }
+        return new OutboxService.OutboxMessage(topic, event.getMovieId(), codec.encode(event));
     }
 }
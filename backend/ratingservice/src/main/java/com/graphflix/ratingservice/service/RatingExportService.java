@@ -0,0 +1,171 @@
+package com.graphflix.ratingservice.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.driver.AccessMode;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.SessionConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.graphflix.ratingservice.dto.RatingDTO;
+import com.graphflix.ratingservice.exception.RatingsMigratingException;
+import com.graphflix.ratingservice.model.Rating;
+import com.graphflix.ratingservice.repository.RatingRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Streams all of a user's ratings, oldest first, as NDJSON or CSV in the
+ * import's column names, so an export can be imported again.
+ *
+ * <p>Rows are pulled from a server-side cursor in batches of the session's
+ * fetch size and written straight to the output, so memory use does not grow
+ * with the number of ratings, and nothing is counted up front. The driver is
+ * used directly because {@code Neo4jClient} collects results into a list.
+ */
+@Service
+public class RatingExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(RatingExportService.class);
+
+    private static final String CSV_HEADER = "id,userId,userName,movieId,movieTitle,rating,comment,timestamp\n";
+
+    // Walks the (userId, timestamp) index in order, so no sort buffers the rows
+    private static final String EXPORT_QUERY = """
+            MATCH (u:User)-[r:RATED]->(m:Movie)
+            WHERE r.userId = $userId AND r.timestamp IS NOT NULL
+            RETURN r.id AS id, r.rating AS rating, r.comment AS comment, r.timestamp AS timestamp,
+                   u.email AS userId, u.name AS userName, elementId(m) AS movieId, m.title AS movieTitle
+            ORDER BY r.userId, r.timestamp
+            """;
+
+    private final Driver driver;
+    private final ObjectMapper objectMapper;
+    private final RatingNodeMigration migration;
+    private final int fetchSize;
+    private final Counter rows;
+    private final Timer duration;
+    private final DistributionSummary throughput;
+
+    public RatingExportService(Driver driver, ObjectMapper objectMapper, RatingNodeMigration migration,
+            MeterRegistry meterRegistry, @Value("${rating.export.fetch-size:1000}") int fetchSize) {
+        this.driver = driver;
+        this.objectMapper = objectMapper;
+        this.migration = migration;
+        this.fetchSize = fetchSize;
+        this.rows = Counter.builder("rating.export.rows")
+                .description("Ratings written by exports")
+                .register(meterRegistry);
+        this.duration = Timer.builder("rating.export.duration").register(meterRegistry);
+        this.throughput = DistributionSummary.builder("rating.export.throughput")
+                .baseUnit("rows/s")
+                .description("Rows per second of each finished export")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes every rating of the user to {@code out} and returns how many were
+     * written. The stream is flushed after each fetched batch.
+     */
+    /**
+     * Fails while the migration has not given every rating its keys, since
+     * an export would leave those ratings out. Checked before the response
+     * starts streaming, so the caller can still be told.
+     */
+    public void checkAvailable() {
+        if (!migration.isFinished()) {
+            throw new RatingsMigratingException();
+        }
+    }
+
+    public long export(String email, RatingImportService.Format format, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long written = 0;
+        OutputStream buffered = new BufferedOutputStream(out);
+        if (format == RatingImportService.Format.CSV) {
+            buffered.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+        }
+        SessionConfig config = SessionConfig.builder()
+                .withDefaultAccessMode(AccessMode.READ)
+                .withFetchSize(fetchSize)
+                .build();
+        try (Session session = driver.session(config)) {
+            Result result = session.run(EXPORT_QUERY, Map.of("userId", email));
+            while (result.hasNext()) {
+                RatingDTO rating = toDTO(RatingRepository.toRating(result.next()));
+                if (format == RatingImportService.Format.CSV) {
+                    buffered.write(toCsv(rating).getBytes(StandardCharsets.UTF_8));
+                } else {
+                    buffered.write(objectMapper.writeValueAsBytes(rating));
+                    buffered.write('\n');
+                }
+                if (++written % fetchSize == 0) {
+                    buffered.flush();
+                }
+            }
+        }
+        buffered.flush();
+
+        long nanos = System.nanoTime() - start;
+        duration.record(nanos, TimeUnit.NANOSECONDS);
+        rows.increment(written);
+        double rowsPerSecond = nanos == 0 ? 0.0 : written * 1e9 / nanos;
+        throughput.record(rowsPerSecond);
+        log.info("[RatingExportService] Exported {} ratings of '{}' as {} in {} ms ({} rows/s)",
+                written, email, format, TimeUnit.NANOSECONDS.toMillis(nanos), Math.round(rowsPerSecond));
+        return written;
+    }
+
+    private static RatingDTO toDTO(Rating rating) {
+        return RatingDTO.builder()
+                .id(rating.getId())
+                .rating(rating.getRating())
+                .comment(rating.getComment())
+                .timestamp(rating.getTimestamp())
+                .userId(rating.getUserId())
+                .userName(rating.getUserName())
+                .movieId(rating.getMovieId())
+                .movieTitle(rating.getMovieTitle())
+                .build();
+    }
+
+    private static String toCsv(RatingDTO rating) {
+        return String.join(",",
+                String.valueOf(rating.getId()),
+                csvField(rating.getUserId()),
+                csvField(rating.getUserName()),
+                csvField(rating.getMovieId()),
+                csvField(rating.getMovieTitle()),
+                String.valueOf(rating.getRating()),
+                csvField(rating.getComment()),
+                rating.getTimestamp() != null ? rating.getTimestamp().toString() : "") + "\n";
+    }
+
+    /**
+     * Quotes a field when it holds a comma, quote or line break, doubling
+     * embedded quotes.
+     */
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
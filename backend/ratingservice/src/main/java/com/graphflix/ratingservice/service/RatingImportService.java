@@ -0,0 +1,429 @@
+package com.graphflix.ratingservice.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.graphflix.ratingservice.dto.ImportProgressDTO;
+import com.graphflix.ratingservice.dto.RatingImportRow;
+import com.graphflix.ratingservice.model.Rating;
+import com.graphflix.ratingservice.repository.RatingIdAllocator;
+
+/**
+ * Imports ratings from NDJSON or CSV in batches. Each batch upserts its RATED
+ * relationships with one UNWIND statement, updates the movie aggregates
+ * and the user rating summaries with one statement each, and writes the batch's events to the outbox
+ * in the same transaction. Only one batch is held in memory at a time, and
+ * the progress report is written and flushed as batches commit.
+ */
+@Service
+public class RatingImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(RatingImportService.class);
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private static final String IMPORT_BATCH_QUERY = """
+            UNWIND $rows AS row
+            MATCH (u:User {email: row.userId})
+            MATCH (m:Movie)
+            WHERE elementId(m) = row.movieId
+            MERGE (u)-[r:RATED]->(m)
+            SET r._lock = true
+            WITH row, u, m, r, r.rating AS previous
+            SET r.id = coalesce(r.id, row.id), r.userId = row.userId, r.movieId = row.movieId,
+                r.rating = row.rating, r.comment = row.comment, r.timestamp = row.timestamp
+            REMOVE r._lock
+            RETURN row.line AS line, r.id AS ratingId, previous, u.name AS userName, m.title AS movieTitle
+            """;
+
+    // Locks the batch's existing ratings so they cannot be deleted or rewritten
+    // before the upsert matches them, and tells which rows already have an id
+    // and which are not newer than the stored rating
+    private static final String EXISTING_RATINGS_QUERY = """
+            UNWIND $rows AS row
+            MATCH (u:User {email: row.userId})-[r:RATED]->(m:Movie)
+            WHERE elementId(m) = row.movieId
+            SET r._lock = true
+            REMOVE r._lock
+            RETURN row.line AS line, r.id IS NOT NULL AS hasId, r.timestamp >= row.timestamp AS stale
+            """;
+
+    /**
+     * Positions of the rows {@link #writeRows} wrote, and of those it left
+     * alone because the stored rating was at least as recent.
+     */
+    public record WriteResult(Set<Long> written, Set<Long> stale) {}
+
+    private record ParsedRow(long line, RatingImportRow row) {}
+
+    private record ImportedRow(long line, Rating rating, Integer previous) {}
+
+    private record ExistingRating(long line, boolean hasId, boolean stale) {}
+
+    private record BatchResult(List<ImportedRow> imported, Set<Long> stale) {}
+
+    private final Neo4jClient neo4jClient;
+    private final TransactionTemplate transactionTemplate;
+    private final RatingAggregateService aggregateService;
+    private final UserRatingSummaryService userSummaryService;
+    private final RatingEventProducer eventProducer;
+    private final RatingIdAllocator ratingIdAllocator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public RatingImportService(Neo4jClient neo4jClient, PlatformTransactionManager transactionManager,
+            RatingAggregateService aggregateService, UserRatingSummaryService userSummaryService,
+            RatingEventProducer eventProducer,
+            RatingIdAllocator ratingIdAllocator, ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+            @Value("${rating.import.batch-size:1000}") int batchSize) {
+        this.neo4jClient = neo4jClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.aggregateService = aggregateService;
+        this.userSummaryService = userSummaryService;
+        this.eventProducer = eventProducer;
+        this.ratingIdAllocator = ratingIdAllocator;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    public void importRatings(InputStream input, Format format, OutputStream report) throws IOException {
+        long start = System.currentTimeMillis();
+        Progress progress = new Progress(report);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<ParsedRow> batch = new ArrayList<>(batchSize);
+        List<String> header = null;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && header == null) {
+                header = parseCsvLine(line);
+                continue;
+            }
+            progress.processed++;
+            try {
+                RatingImportRow row = format == Format.CSV ? fromCsv(header, parseCsvLine(line)) : fromJson(line);
+                validate(row);
+                batch.add(new ParsedRow(lineNumber, row));
+            } catch (IllegalArgumentException e) {
+                progress.error(lineNumber, e.getMessage());
+            }
+            if (batch.size() >= batchSize) {
+                writeBatch(batch, progress);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch, progress);
+        }
+        progress.write(ImportProgressDTO.builder()
+                .type("summary")
+                .processed(progress.processed)
+                .imported(progress.imported)
+                .failed(progress.failed)
+                .durationMs(System.currentTimeMillis() - start)
+                .build());
+        log.info("[RatingImportService] Import finished — processed: {}, imported: {}, failed: {}, took {} ms",
+                progress.processed, progress.imported, progress.failed, System.currentTimeMillis() - start);
+    }
+
+    private void writeBatch(List<ParsedRow> batch, Progress progress) throws IOException {
+        // Every clause of the batch statement sees all rows at once, so a
+        // repeated user/movie pair would read the same previous rating twice.
+        // The last line wins, as it would have when imported one by one.
+        Map<String, ParsedRow> latest = new LinkedHashMap<>();
+        for (ParsedRow row : batch) {
+            latest.put(pairKey(row), row);
+        }
+        List<ParsedRow> unique = List.copyOf(latest.values());
+
+        List<ImportedRow> imported;
+        try {
+            imported = transactionTemplate.execute(status -> upsertBatch(unique, false)).imported();
+        } catch (RuntimeException e) {
+            log.error("[RatingImportService] Batch ending at line {} failed: {}",
+                    batch.get(batch.size() - 1).line(), e.getMessage());
+            for (ParsedRow row : batch) {
+                progress.error(row.line(), "Batch failed: " + e.getMessage());
+            }
+            progress.flushProgress();
+            return;
+        }
+
+        Set<Long> importedLines = new HashSet<>();
+        for (ImportedRow row : imported) {
+            importedLines.add(row.line());
+        }
+        for (ParsedRow row : batch) {
+            if (importedLines.contains(latest.get(pairKey(row)).line())) {
+                progress.imported++;
+            } else {
+                progress.error(row.line(), "Unknown user '" + row.row().getUserId()
+                        + "' or movie '" + row.row().getMovieId() + "'");
+            }
+        }
+        progress.flushProgress();
+    }
+
+    /**
+     * Upserts rows that are already validated and hold at most one rating
+     * per user and movie, in one transaction like an import batch. A row
+     * whose pair already has a rating stamped at or after the row's own
+     * timestamp is not written, so a queued rating never replaces a newer
+     * one written meanwhile. Rows whose user or movie does not exist are
+     * skipped. Used by the asynchronous write pipeline.
+     */
+    public WriteResult writeRows(List<RatingImportRow> rows) {
+        List<ParsedRow> batch = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            batch.add(new ParsedRow(i, rows.get(i)));
+        }
+        BatchResult result = transactionTemplate.execute(status -> upsertBatch(batch, true));
+        Set<Long> written = new HashSet<>();
+        result.imported().forEach(row -> written.add(row.line()));
+        return new WriteResult(written, result.stale());
+    }
+
+    private static String pairKey(ParsedRow row) {
+        return row.row().getUserId() + '|' + row.row().getMovieId();
+    }
+
+    private BatchResult upsertBatch(List<ParsedRow> batch, boolean newerOnly) {
+        List<Map<String, Object>> rows = batch.stream()
+                .map(parsed -> {
+                    Map<String, Object> row = new HashMap<>();
+                    row.put("line", parsed.line());
+                    row.put("userId", parsed.row().getUserId());
+                    row.put("movieId", parsed.row().getMovieId());
+                    row.put("rating", parsed.row().getRating());
+                    row.put("comment", parsed.row().getComment() != null ? parsed.row().getComment() : "");
+                    row.put("timestamp", parsed.row().getTimestamp());
+                    return row;
+                })
+                .collect(Collectors.toCollection(ArrayList::new));
+        // Only rows creating a rating, or one without an id yet, use an id; one created concurrently
+        // in between just leaves a gap
+        Map<Long, ExistingRating> existing = new HashMap<>();
+        neo4jClient.query(EXISTING_RATINGS_QUERY)
+                .bind(rows).to("rows")
+                .fetchAs(ExistingRating.class)
+                .mappedBy((typeSystem, record) -> new ExistingRating(record.get("line").asLong(),
+                        record.get("hasId").asBoolean(), record.get("stale").asBoolean(false)))
+                .all()
+                .forEach(rating -> existing.put(rating.line(), rating));
+        Set<Long> stale = new HashSet<>();
+        if (newerOnly) {
+            rows.removeIf(row -> {
+                ExistingRating rating = existing.get((Long) row.get("line"));
+                return rating != null && rating.stale() && stale.add(rating.line());
+            });
+        }
+        for (Map<String, Object> row : rows) {
+            ExistingRating rating = existing.get((Long) row.get("line"));
+            if (rating == null || !rating.hasId()) {
+                row.put("id", ratingIdAllocator.next());
+            }
+        }
+        Map<Long, RatingImportRow> byLine = new HashMap<>();
+        batch.forEach(parsed -> byLine.put(parsed.line(), parsed.row()));
+
+        List<ImportedRow> imported = new ArrayList<>(neo4jClient.query(IMPORT_BATCH_QUERY)
+                .bind(rows).to("rows")
+                .fetchAs(ImportedRow.class)
+                .mappedBy((typeSystem, record) -> {
+                    long line = record.get("line").asLong();
+                    RatingImportRow row = byLine.get(line);
+                    Rating rating = Rating.builder()
+                            .id(record.get("ratingId").asLong())
+                            .rating(row.getRating())
+                            .comment(row.getComment())
+                            .timestamp(row.getTimestamp())
+                            .userId(row.getUserId())
+                            .userName(record.get("userName").asString(null))
+                            .movieId(row.getMovieId())
+                            .movieTitle(record.get("movieTitle").asString(null))
+                            .build();
+                    Integer previous = record.get("previous").isNull() ? null : record.get("previous").asInt();
+                    return new ImportedRow(line, rating, previous);
+                })
+                .all());
+
+        Map<String, RatingAggregateService.Delta> deltas = new HashMap<>();
+        for (ImportedRow row : imported) {
+            RatingAggregateService.Delta delta = deltas.computeIfAbsent(
+                    row.rating().getMovieId(), movieId -> new RatingAggregateService.Delta())
+                    .by(row.rating().getUserId());
+            if (row.previous() != null) {
+                delta.remove(row.previous());
+            }
+            delta.add(row.rating().getRating());
+        }
+        aggregateService.apply(deltas);
+
+        Map<String, UserRatingSummaryService.Delta> userDeltas = new HashMap<>();
+        for (ImportedRow row : imported) {
+            UserRatingSummaryService.Delta delta = userDeltas.computeIfAbsent(
+                    row.rating().getUserId(), userId -> new UserRatingSummaryService.Delta());
+            if (row.previous() != null) {
+                delta.remove(row.previous(), row.rating().getTimestamp());
+            }
+            delta.add(row.rating().getRating(), row.rating().getTimestamp());
+        }
+        userSummaryService.apply(userDeltas);
+
+        List<Rating> created = new ArrayList<>();
+        List<Rating> updated = new ArrayList<>();
+        for (ImportedRow row : imported) {
+            (row.previous() == null ? created : updated).add(row.rating());
+        }
+        eventProducer.publishImportedRatings(created, updated);
+        eventPublisher.publishEvent(new MovieRatingsCache.RatingsChanged(
+                imported.stream().map(ImportedRow::rating).toList(), List.of()));
+        return new BatchResult(imported, stale);
+    }
+
+    private RatingImportRow fromJson(String line) {
+        try {
+            return objectMapper.readValue(line, RatingImportRow.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private RatingImportRow fromCsv(List<String> header, List<String> values) {
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.size() && i < values.size(); i++) {
+            fields.put(header.get(i).strip(), values.get(i));
+        }
+        try {
+            String rating = fields.get("rating");
+            String timestamp = fields.get("timestamp");
+            return RatingImportRow.builder()
+                    .userId(fields.get("userId"))
+                    .movieId(fields.get("movieId"))
+                    .rating(rating == null || rating.isBlank() ? null : Integer.valueOf(rating.strip()))
+                    .comment(fields.get("comment"))
+                    .timestamp(timestamp == null || timestamp.isBlank() ? null : LocalDateTime.parse(timestamp.strip()))
+                    .build();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Rating is not a number: " + fields.get("rating"));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid timestamp: " + fields.get("timestamp"));
+        }
+    }
+
+    private static void validate(RatingImportRow row) {
+        if (row.getUserId() == null || row.getUserId().isBlank()) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        if (row.getMovieId() == null || row.getMovieId().isBlank()) {
+            throw new IllegalArgumentException("movieId is required");
+        }
+        if (row.getRating() == null || row.getRating() < 1 || row.getRating() > 10) {
+            throw new IllegalArgumentException("rating must be between 1 and 10");
+        }
+        if (row.getComment() != null && row.getComment().length() > 500) {
+            throw new IllegalArgumentException("comment must not exceed 500 characters");
+        }
+        if (row.getTimestamp() == null) {
+            row.setTimestamp(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Splits one CSV record. Fields may be double-quoted to contain commas,
+     * with {@code ""} as an escaped quote; records cannot span lines.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private final class Progress {
+
+        private final OutputStream report;
+        private long processed;
+        private long imported;
+        private long failed;
+
+        private Progress(OutputStream report) {
+            this.report = report;
+        }
+
+        private void error(long line, String message) throws IOException {
+            failed++;
+            write(ImportProgressDTO.builder().type("error").line(line).message(message).build());
+        }
+
+        private void flushProgress() throws IOException {
+            write(ImportProgressDTO.builder()
+                    .type("progress")
+                    .processed(processed)
+                    .imported(imported)
+                    .failed(failed)
+                    .build());
+            report.flush();
+        }
+
+        private void write(ImportProgressDTO entry) throws IOException {
+            report.write(objectMapper.writeValueAsBytes(entry));
+            report.write('\n');
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.graphflix.ratingservice.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.graphflix.ratingservice.repository.RatingIdAllocator;
+
+/**
+ * Moves ratings written before they were stored only as RATED relationships
+ * onto those relationships, one batch per transaction and one batch per
+ * tick, so the migration runs online next to regular traffic.
+ *
+ * <p>Before anything else the rating id sequence is created, above the
+ * legacy id of every Rating node (see {@link RatingIdAllocator}). Then the
+ * Rating nodes are folded into their relationships. A
+ * relationship that already has an id was written by the current code and
+ * is newer than the node, so it keeps its values; otherwise the node's
+ * rating, comment and timestamp are copied onto it, and it keeps the node's
+ * legacy id, which clients may still hold. Nodes whose user or movie is gone are
+ * just deleted. Then any RATED relationship still without an id (one whose
+ * Rating node was lost) gets a new id, keys and a temporal timestamp. When
+ * both are done, the old Rating indexes are dropped and the job stops
+ * querying.
+ *
+ * <p>Until then, ratings without their keys are missing from every read
+ * that seeks the keys, so those reads wait for {@link #isFinished()}.
+ */
+@Service
+public class RatingNodeMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(RatingNodeMigration.class);
+
+    private static final String FOLD_NODES_QUERY = """
+            MATCH (rating:Rating)
+            WITH rating
+            LIMIT $batchSize
+            OPTIONAL MATCH (u:User {email: rating.userId})
+            OPTIONAL MATCH (m:Movie)
+            WHERE elementId(m) = rating.movieId
+            FOREACH (_ IN CASE WHEN u IS NOT NULL AND m IS NOT NULL THEN [1] ELSE [] END |
+                MERGE (u)-[r:RATED]->(m)
+                SET r.rating = CASE WHEN r.id IS NULL THEN rating.rating ELSE r.rating END,
+                    r.comment = CASE WHEN r.id IS NULL THEN rating.comment ELSE r.comment END,
+                    r.timestamp = CASE WHEN r.id IS NULL THEN rating.timestamp ELSE r.timestamp END
+                SET r.id = coalesce(r.id, rating.legacyId), r.userId = rating.userId, r.movieId = rating.movieId)
+            WITH rating, u IS NOT NULL AND m IS NOT NULL AS folded
+            DETACH DELETE rating
+            RETURN count(*) AS migrated, sum(CASE WHEN folded THEN 0 ELSE 1 END) AS orphaned
+            """;
+
+    // Both scan every RATED relationship, which is fine once the nodes are folded and few or none are left
+    private static final String MISSING_IDS_QUERY = """
+            MATCH (:User)-[r:RATED]->(:Movie)
+            WHERE r.id IS NULL
+            WITH r
+            LIMIT $batchSize
+            RETURN count(r) AS missing
+            """;
+
+    private static final String BACKFILL_RELATIONSHIPS_QUERY = """
+            MATCH (u:User)-[r:RATED]->(m:Movie)
+            WHERE r.id IS NULL
+            WITH u, r, m
+            LIMIT $batchSize
+            WITH collect([u, r, m]) AS rows
+            UNWIND range(0, size(rows) - 1) AS i
+            WITH rows[i][0] AS u, rows[i][1] AS r, rows[i][2] AS m, $ids[i] AS id
+            SET r.id = id, r.userId = u.email, r.movieId = elementId(m),
+                r.timestamp = CASE WHEN r.timestamp IS :: STRING THEN localdatetime(r.timestamp) ELSE r.timestamp END
+            RETURN count(*) AS migrated, 0 AS orphaned
+            """;
+
+    private static final List<String> LEGACY_SCHEMA = List.of(
+            "DROP CONSTRAINT rating_user_movie_unique IF EXISTS",
+            "DROP INDEX rating_movie_id IF EXISTS",
+            "DROP INDEX rating_user_timestamp IF EXISTS",
+            "DROP INDEX rating_user_rating IF EXISTS",
+            "DROP INDEX rating_movie_timestamp IF EXISTS",
+            "DROP INDEX rating_movie_rating IF EXISTS");
+
+    private record Batch(long migrated, long orphaned) {}
+
+    private final Neo4jClient neo4jClient;
+    private final TransactionTemplate transactionTemplate;
+    private final RatingIdAllocator ratingIdAllocator;
+    private final int batchSize;
+    private volatile boolean finished;
+    private long total;
+
+    public RatingNodeMigration(Neo4jClient neo4jClient, PlatformTransactionManager transactionManager,
+            RatingIdAllocator ratingIdAllocator,
+            @Value("${rating.migration.batch-size:500}") int batchSize) {
+        this.neo4jClient = neo4jClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ratingIdAllocator = ratingIdAllocator;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${rating.migration.interval-ms:1000}")
+    public void migrateBatch() {
+        if (finished) {
+            return;
+        }
+        try {
+            ratingIdAllocator.ensureSequence();
+            Batch folded = run(FOLD_NODES_QUERY, batchSize, List.of());
+            if (folded.migrated() > 0) {
+                total += folded.migrated();
+                log.info("[RatingNodeMigration] Folded {} Rating nodes into RATED relationships ({} orphaned), "
+                        + "{} so far", folded.migrated(), folded.orphaned(), total);
+                return;
+            }
+            int missing = neo4jClient.query(MISSING_IDS_QUERY)
+                    .bind(batchSize).to("batchSize")
+                    .fetchAs(Integer.class)
+                    .mappedBy((typeSystem, record) -> record.get("missing").asInt())
+                    .one()
+                    .orElse(0);
+            // Fewer may be left by the time they are given ids, which only leaves a gap
+            List<Long> ids = newIds(missing);
+            Batch backfilled = ids.isEmpty() ? new Batch(0, 0) : run(BACKFILL_RELATIONSHIPS_QUERY, ids.size(), ids);
+            if (backfilled.migrated() > 0) {
+                total += backfilled.migrated();
+                log.info("[RatingNodeMigration] Gave ids to {} RATED relationships without a Rating node, {} so far",
+                        backfilled.migrated(), total);
+                return;
+            }
+        } catch (RuntimeException e) {
+            // Another instance may be migrating the same ratings; the next tick retries
+            log.warn("[RatingNodeMigration] Batch failed, retrying on the next tick: {}", e.getMessage());
+            return;
+        }
+        for (String statement : LEGACY_SCHEMA) {
+            neo4jClient.query(statement).run();
+        }
+        finished = true;
+        log.info("[RatingNodeMigration] All ratings are RATED relationships, dropped the Rating indexes");
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    private List<Long> newIds(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(ratingIdAllocator.next());
+        }
+        return ids;
+    }
+
+    private Batch run(String query, int limit, List<Long> ids) {
+        return transactionTemplate.execute(status -> neo4jClient.query(query)
+                .bind(limit).to("batchSize")
+                .bind(ids).to("ids")
+                .fetchAs(Batch.class)
+                .mappedBy((typeSystem, record) -> new Batch(
+                        record.get("migrated").asLong(), record.get("orphaned").asLong(0)))
+                .one()
+                .orElse(new Batch(0, 0)));
+    }
+}
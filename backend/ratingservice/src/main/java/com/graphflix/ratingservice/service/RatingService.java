@@ -1,176 +1,441 @@
 package com.graphflix.ratingservice.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.neo4j.core.Neo4jClient;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.graphflix.ratingservice.dto.AverageRatingDTO;
 import com.graphflix.ratingservice.dto.RatingDTO;
+import com.graphflix.ratingservice.dto.RatingHistogramDTO;
+import com.graphflix.ratingservice.dto.RatingSliceDTO;
 import com.graphflix.ratingservice.exception.MovieNotFoundException;
 import com.graphflix.ratingservice.exception.RatingNotFoundException;
+import com.graphflix.ratingservice.exception.RatingsMigratingException;
 import com.graphflix.ratingservice.exception.UserNotFoundException;
-import com.graphflix.ratingservice.model.Movie;
 import com.graphflix.ratingservice.model.Rating;
-import com.graphflix.ratingservice.model.User;
-import com.graphflix.ratingservice.repository.MovieRepository;
+import com.graphflix.ratingservice.repository.RatingIdAllocator;
 import com.graphflix.ratingservice.repository.RatingRepository;
-import com.graphflix.ratingservice.repository.UserRepository;
 
 @Service
 public class RatingService {
 
     private static final Logger log = LoggerFactory.getLogger(RatingService.class);
 
+    /**
+     * Validates the user and movie, upserts the RATED relationship and
+     * applies the aggregate delta in one statement. Concurrent upserts of the
+     * same pair serialize on the user's lock instead of creating duplicates.
+     * Unlike MERGE, creating the relationship does not lock a movie with many
+     * ratings, so the raters of a striped movie only meet on the stripe their
+     * user hashes to. An unstriped movie is locked up front instead: writers
+     * that shared it while creating their relationships would deadlock when
+     * they all go on to update its aggregates. The relationship is
+     * write-locked before its previous value is read. The user's rating
+     * summary is updated last, still under the user's lock. {@code $id} is
+     * only used when the rating is new or has no id yet; a relationship the
+     * migration has not reached also gets its keys.
+     */
+    private static final String UPSERT_RATING_QUERY = """
+            MATCH (u:User {email: $email})
+            MATCH (m:Movie)
+            WHERE elementId(m) = $movieId
+            SET u._ratingLock = true
+            FOREACH (_ IN CASE WHEN m.ratingStripes IS NULL THEN [1] ELSE [] END | SET m._aggregateLock = true)
+            WITH u, m
+            OPTIONAL MATCH (u)-[existing:RATED]->(m)
+            FOREACH (_ IN CASE WHEN existing IS NULL THEN [1] ELSE [] END |
+                CREATE (u)-[:RATED {id: $id, userId: $email, movieId: $movieId}]->(m))
+            REMOVE u._ratingLock
+            WITH u, m
+            MATCH (u)-[r:RATED]->(m)
+            SET r._lock = true
+            WITH u, m, r, r.rating AS previous
+            SET r.id = coalesce(r.id, $id), r.userId = $email, r.movieId = $movieId,
+                r.rating = $rating, r.comment = $comment, r.timestamp = $timestamp
+            REMOVE r._lock
+            WITH u, m, r, previous
+            OPTIONAL MATCH (s:RatingStripe {movieId: $movieId, stripe: $stripeKey % m.ratingStripes})
+            WITH u, m, r, previous, coalesce(s, m) AS aggregate
+            SET aggregate._aggregateLock = true
+            FOREACH (_ IN CASE WHEN m.ratingCount IS NOT NULL AND m.ratingHistogram IS NOT NULL THEN [1] ELSE [] END |
+                SET aggregate.ratingCount = aggregate.ratingCount + CASE WHEN previous IS NULL THEN 1 ELSE 0 END,
+                    aggregate.ratingSum = aggregate.ratingSum + $rating - coalesce(previous, 0),
+                    aggregate.ratingSumSq = aggregate.ratingSumSq + $rating * $rating - coalesce(previous * previous, 0),
+                    aggregate.ratingHistogram = [slot IN range(0, 9) | aggregate.ratingHistogram[slot]
+                        + CASE slot WHEN $rating - 1 THEN 1 ELSE 0 END
+                        - CASE slot WHEN previous - 1 THEN 1 ELSE 0 END])
+            REMOVE aggregate._aggregateLock
+            FOREACH (_ IN CASE WHEN u.ratingCount IS NOT NULL THEN [1] ELSE [] END |
+                SET u.ratingCount = u.ratingCount + CASE WHEN previous IS NULL THEN 1 ELSE 0 END,
+                    u.ratingSum = u.ratingSum + $rating - coalesce(previous, 0),
+                    u.lastActivityAt = CASE WHEN u.lastActivityAt IS NULL OR $timestamp > u.lastActivityAt
+                                            THEN $timestamp ELSE u.lastActivityAt END)
+            RETURN r.id AS ratingId, previous, u.name AS userName, m.title AS movieTitle,
+                   m.ratingHistogram IS NOT NULL AS aggregated, u.ratingCount IS NOT NULL AS summarised
+            """;
+
+    /**
+     * Takes the user's lock up front, which the upsert would take anyway and
+     * which deletes of the user's ratings take too, so the rating found here
+     * is still there when the upsert runs, and reads whether it has an id.
+     */
+    private static final String EXISTING_RATING_QUERY = """
+            MATCH (u:User {email: $email})
+            SET u._ratingLock = true
+            REMOVE u._ratingLock
+            WITH u
+            OPTIONAL MATCH (u)-[r:RATED]->(m:Movie)
+            WHERE elementId(m) = $movieId
+            RETURN r.id IS NOT NULL AS hasId
+            """;
+
+    private static final String UPSERT_DIAGNOSIS_QUERY = """
+            RETURN EXISTS { MATCH (:User {email: $email}) } AS userExists,
+                   EXISTS { MATCH (m:Movie) WHERE elementId(m) = $movieId } AS movieExists
+            """;
+
+    private record UpsertResult(Rating rating, Integer previous, boolean aggregated, boolean summarised) {}
+
+    /*
+     * Keyset pages of one user's or one movie's ratings, newest or highest
+     * first. Each seeks the composite (owner, key) relationship index from
+     * the cursor value down, so deep pages cost the same as the first; ties
+     * on the key are broken by id, which is all that is left to sort within
+     * a page. The owner property leads the ORDER BY only so the planner
+     * recognises the order the index already provides.
+     */
+    static final String USER_RATINGS_BY_TIMESTAMP_QUERY = """
+            MATCH (u:User)-[r:RATED]->(m:Movie)
+            WHERE r.userId = $ownerId AND r.timestamp <= localdatetime($after)
+              AND (r.timestamp < localdatetime($after) OR r.id < $afterId)
+            RETURN r.id AS id, r.rating AS rating, r.comment AS comment, r.timestamp AS timestamp,
+                   u.email AS userId, u.name AS userName, elementId(m) AS movieId, m.title AS movieTitle
+            ORDER BY r.userId DESC, r.timestamp DESC, r.id DESC
+            LIMIT $limit
+            """;
+
+    static final String USER_RATINGS_BY_RATING_QUERY = """
+            MATCH (u:User)-[r:RATED]->(m:Movie)
+            WHERE r.userId = $ownerId AND r.rating <= $after
+              AND (r.rating < $after OR r.id < $afterId)
+            RETURN r.id AS id, r.rating AS rating, r.comment AS comment, r.timestamp AS timestamp,
+                   u.email AS userId, u.name AS userName, elementId(m) AS movieId, m.title AS movieTitle
+            ORDER BY r.userId DESC, r.rating DESC, r.id DESC
+            LIMIT $limit
+            """;
+
+    static final String MOVIE_RATINGS_BY_TIMESTAMP_QUERY = """
+            MATCH (u:User)-[r:RATED]->(m:Movie)
+            WHERE r.movieId = $ownerId AND r.timestamp <= localdatetime($after)
+              AND (r.timestamp < localdatetime($after) OR r.id < $afterId)
+            RETURN r.id AS id, r.rating AS rating, r.comment AS comment, r.timestamp AS timestamp,
+                   u.email AS userId, u.name AS userName, elementId(m) AS movieId, m.title AS movieTitle
+            ORDER BY r.movieId DESC, r.timestamp DESC, r.id DESC
+            LIMIT $limit
+            """;
+
+    static final String MOVIE_RATINGS_BY_RATING_QUERY = """
+            MATCH (u:User)-[r:RATED]->(m:Movie)
+            WHERE r.movieId = $ownerId AND r.rating <= $after
+              AND (r.rating < $after OR r.id < $afterId)
+            RETURN r.id AS id, r.rating AS rating, r.comment AS comment, r.timestamp AS timestamp,
+                   u.email AS userId, u.name AS userName, elementId(m) AS movieId, m.title AS movieTitle
+            ORDER BY r.movieId DESC, r.rating DESC, r.id DESC
+            LIMIT $limit
+            """;
+
+    // Read from the User node's relationship counts, without touching the ratings
+    static final String USER_RATING_COUNT_QUERY = """
+            MATCH (u:User {email: $userId})
+            RETURN COUNT { (u)-[:RATED]->() } AS count
+            """;
+
     private final RatingRepository ratingRepository;
-    private final UserRepository userRepository;
-    private final MovieRepository movieRepository;
+    private final RatingIdAllocator ratingIdAllocator;
     private final RatingEventProducer eventProducer;
+    private final RatingAggregateService aggregateService;
+    private final UserRatingSummaryService userSummaryService;
+    private final RatingCountCache ratingCountCache;
+    private final MovieRatingsCache movieRatingsCache;
+    private final ApplicationEventPublisher eventPublisher;
     private final Neo4jClient neo4jClient;
+    private final RatingNodeMigration migration;
 
-    public RatingService(RatingRepository ratingRepository, UserRepository userRepository,
-            MovieRepository movieRepository, RatingEventProducer eventProducer, Neo4jClient neo4jClient) {
+    public RatingService(RatingRepository ratingRepository, RatingIdAllocator ratingIdAllocator,
+            RatingEventProducer eventProducer, RatingAggregateService aggregateService,
+            UserRatingSummaryService userSummaryService, RatingCountCache ratingCountCache, MovieRatingsCache movieRatingsCache,
+            ApplicationEventPublisher eventPublisher, Neo4jClient neo4jClient, RatingNodeMigration migration) {
         this.ratingRepository = ratingRepository;
-        this.userRepository = userRepository;
-        this.movieRepository = movieRepository;
+        this.ratingIdAllocator = ratingIdAllocator;
         this.eventProducer = eventProducer;
+        this.aggregateService = aggregateService;
+        this.userSummaryService = userSummaryService;
+        this.ratingCountCache = ratingCountCache;
+        this.movieRatingsCache = movieRatingsCache;
+        this.eventPublisher = eventPublisher;
         this.neo4jClient = neo4jClient;
+        this.migration = migration;
     }
 
-    private void mergeRatedRelationship(String email, String movieTitle, Integer rating, String comment, LocalDateTime timestamp) {
-        neo4jClient.query("""
-                MATCH (u:User {email: $email})
-                MATCH (m:Movie {title: $movieTitle})
-                MERGE (u)-[r:RATED]->(m)
-                SET r.rating = $rating, r.comment = $comment, r.timestamp = $timestamp
-                """)
-                .bindAll(Map.of(
-                        "email", email,
-                        "movieTitle", movieTitle,
-                        "rating", rating,
-                        "comment", comment != null ? comment : "",
-                        "timestamp", timestamp.toString()))
-                .run();
-        log.info("[RatingService] RATED relationship merged — user: '{}', movie: '{}'", email, movieTitle);
-    }
-
-    private void deleteRatedRelationship(String email, String movieTitle) {
-        neo4jClient.query("""
-                MATCH (u:User {email: $email})-[r:RATED]->(m:Movie {title: $movieTitle})
-                DELETE r
-                """)
-                .bindAll(Map.of("email", email, "movieTitle", movieTitle))
-                .run();
-        log.info("[RatingService] RATED relationship deleted — user: '{}', movie: '{}'", email, movieTitle);
-    }
-
+    /**
+     * Creates or updates the user's rating of a movie in a single statement,
+     * committed together with its outbox event. Only when it matches nothing
+     * does a second query find out whether the user or the movie is missing.
+     */
     @Transactional
     public Rating upsertRating(String email, String movieId, Integer rating, String comment) {
         log.info("[RatingService] upsertRating called — email: '{}', movieId: '{}', rating: {}", email, movieId, rating);
-
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> {
-                    log.error("[RatingService] User not found by email: '{}'", email);
-                    return new UserNotFoundException(email);
-                });
-        Movie movie = movieRepository.findById(movieId)
-                .orElseThrow(() -> {
-                    log.error("[RatingService] Movie not found by id: '{}'", movieId);
-                    return new MovieNotFoundException(movieId);
-                });
-
-        log.info("[RatingService] User found — id: '{}', name: '{}', email: '{}'", user.getId(), user.getName(), user.getEmail());
-        log.info("[RatingService] Movie found — id: '{}', title: '{}'", movie.getId(), movie.getTitle());
-
-        var existing = ratingRepository.findByUserIdAndMovieId(user.getEmail(), movieId);
-
-        if (existing.isPresent()) {
-            Rating existingRating = existing.get();
-            log.info("[RatingService] Existing rating found — ID: {}, updating", existingRating.getId());
-            existingRating.setRating(rating);
-            existingRating.setComment(comment);
-            existingRating.setTimestamp(LocalDateTime.now());
-
-            Rating updated = ratingRepository.save(existingRating);
-            mergeRatedRelationship(user.getEmail(), movie.getTitle(), rating, comment, updated.getTimestamp());
-            eventProducer.publishRatingUpdatedEvent(updated);
-            log.info("[RatingService] Rating updated successfully — ID: {}", updated.getId());
-            return updated;
+        if (rating == null || rating < 1 || rating > 10) {
+            throw new IllegalArgumentException("Rating must be between 1 and 10: " + rating);
         }
 
+        // Only a rating without an id uses one; the upsert does not match an unknown user anyway
+        boolean hasId = neo4jClient.query(EXISTING_RATING_QUERY)
+                .bindAll(Map.of("email", email, "movieId", movieId))
+                .fetchAs(Boolean.class)
+                .mappedBy((typeSystem, record) -> record.get("hasId").asBoolean())
+                .one()
+                .orElse(true);
+
         LocalDateTime now = LocalDateTime.now();
-        Rating newRating = Rating.builder()
-                .rating(rating)
-                .comment(comment)
-                .timestamp(now)
-                .userId(user.getEmail())
-                .userName(user.getName())
-                .movieId(movie.getId())
-                .movieTitle(movie.getTitle())
-                .build();
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("id", hasId ? null : ratingIdAllocator.next());
+        parameters.put("email", email);
+        parameters.put("movieId", movieId);
+        parameters.put("rating", rating);
+        parameters.put("comment", comment);
+        parameters.put("timestamp", now);
+        parameters.put("stripeKey", RatingAggregateService.stripeKey(email));
+
+        UpsertResult result = neo4jClient.query(UPSERT_RATING_QUERY)
+                .bindAll(parameters)
+                .fetchAs(UpsertResult.class)
+                .mappedBy((typeSystem, record) -> new UpsertResult(
+                        Rating.builder()
+                                .id(record.get("ratingId").asLong())
+                                .rating(rating)
+                                .comment(comment)
+                                .timestamp(now)
+                                .userId(email)
+                                .userName(record.get("userName").asString(null))
+                                .movieId(movieId)
+                                .movieTitle(record.get("movieTitle").asString(null))
+                                .build(),
+                        record.get("previous").isNull() ? null : record.get("previous").asInt(),
+                        record.get("aggregated").asBoolean(),
+                        record.get("summarised").asBoolean()))
+                .one()
+                .orElseThrow(() -> notFound(email, movieId));
 
-        Rating saved = ratingRepository.save(newRating);
-        mergeRatedRelationship(user.getEmail(), movie.getTitle(), rating, comment, now);
-        eventProducer.publishRatingCreatedEvent(saved);
-        log.info("[RatingService] Rating created successfully — ID: {}", saved.getId());
-        return saved;
+        if (!result.aggregated()) {
+            aggregateService.seed(movieId);
+        } else {
+            RatingAggregateService.Delta delta = new RatingAggregateService.Delta().add(rating);
+            if (result.previous() != null) {
+                delta.remove(result.previous());
+            }
+            aggregateService.applied(movieId, delta);
+        }
+        if (!result.summarised()) {
+            userSummaryService.seed(email, now);
+        }
+        eventPublisher.publishEvent(new MovieRatingsCache.RatingsChanged(List.of(result.rating()), List.of()));
+        if (result.previous() == null) {
+            ratingCountCache.invalidate(email);
+            eventProducer.publishRatingCreatedEvent(result.rating());
+            log.info("[RatingService] Rating created successfully — ID: {}", result.rating().getId());
+        } else {
+            eventProducer.publishRatingUpdatedEvent(result.rating());
+            log.info("[RatingService] Rating updated successfully — ID: {}", result.rating().getId());
+        }
+        return result.rating();
+    }
+
+    private RuntimeException notFound(String email, String movieId) {
+        Map<String, Object> diagnosis = neo4jClient.query(UPSERT_DIAGNOSIS_QUERY)
+                .bindAll(Map.of("email", email, "movieId", movieId))
+                .fetch()
+                .one()
+                .orElseThrow();
+        if (!Boolean.TRUE.equals(diagnosis.get("userExists"))) {
+            log.error("[RatingService] User not found by email: '{}'", email);
+            return new UserNotFoundException(email);
+        }
+        log.error("[RatingService] Movie not found by id: '{}'", movieId);
+        return new MovieNotFoundException(movieId);
     }
 
     @Transactional
     public void deleteRating(Long ratingId) {
-        Rating rating = ratingRepository.findById(ratingId)
+        Rating rating = ratingRepository.deleteById(ratingId)
                 .orElseThrow(() -> new RatingNotFoundException(ratingId));
-        deleteRatedRelationship(rating.getUserId(), rating.getMovieTitle());
-        ratingRepository.delete(rating);
+        log.info("[RatingService] Rating {} deleted — user: '{}', movie: '{}'",
+                ratingId, rating.getUserId(), rating.getMovieTitle());
+        aggregateService.ratingRemoved(rating.getMovieId(), rating.getUserId(), rating.getRating());
+        userSummaryService.ratingRemoved(rating.getUserId(), rating.getRating(), LocalDateTime.now());
+        eventPublisher.publishEvent(new MovieRatingsCache.RatingsChanged(List.of(), List.of(rating)));
+        ratingCountCache.invalidate(rating.getUserId());
         eventProducer.publishRatingDeletedEvent(rating);
     }
 
-    public Page<RatingDTO> getUserRatings(String email, Pageable pageable) {
-        Page<Rating> ratings = ratingRepository.findByUserId(email, pageable);
-        return ratings.map(this::toDTO);
+    /**
+     * The page of the user's ratings after {@code cursor}, or the first page
+     * when it is {@code null}. The total is only looked up when asked for and
+     * comes from {@link RatingCountCache}.
+     */
+    public RatingSliceDTO getUserRatings(String email, RatingCursor.SortKey sortKey, RatingCursor cursor,
+            int size, boolean includeTotal) {
+        String query = sortKey == RatingCursor.SortKey.TIMESTAMP
+                ? USER_RATINGS_BY_TIMESTAMP_QUERY
+                : USER_RATINGS_BY_RATING_QUERY;
+        RatingSliceDTO slice = fetchSlice(query, email, sortKey, cursor, size);
+        if (includeTotal) {
+            slice.setTotalElements(countUserRatings(email));
+        }
+        return slice;
+    }
+
+    /**
+     * The page of the movie's ratings after {@code cursor}, or the first page
+     * when it is {@code null}. First pages come from {@link MovieRatingsCache}
+     * when it holds enough rows, unless {@code fresh} asks for the database,
+     * as for a client that just rated. The total is the count kept on the
+     * Movie node.
+     */
+    public RatingSliceDTO getMovieRatings(String movieId, RatingCursor.SortKey sortKey, RatingCursor cursor,
+            int size, boolean includeTotal, boolean fresh) {
+        String query = sortKey == RatingCursor.SortKey.TIMESTAMP
+                ? MOVIE_RATINGS_BY_TIMESTAMP_QUERY
+                : MOVIE_RATINGS_BY_RATING_QUERY;
+        RatingSliceDTO slice;
+        if (cursor != null) {
+            slice = fetchSlice(query, movieId, sortKey, cursor, size);
+        } else {
+            List<RatingDTO> rows = fresh ? null : movieRatingsCache.firstRows(movieId, sortKey, size).orElse(null);
+            if (rows == null) {
+                long generation = movieRatingsCache.generation(movieId);
+                rows = fetchRows(query, movieId, sortKey, RatingCursor.first(sortKey), movieRatingsCache.loadSize());
+                movieRatingsCache.put(movieId, sortKey, rows, generation);
+            }
+            slice = toSlice(rows, sortKey, size);
+        }
+        if (includeTotal) {
+            slice.setTotalElements(aggregateService.getAggregate(movieId).count());
+        }
+        return slice;
+    }
+
+    private RatingSliceDTO fetchSlice(String query, String ownerId, RatingCursor.SortKey sortKey,
+            RatingCursor cursor, int size) {
+        RatingCursor after = cursor != null ? cursor : RatingCursor.first(sortKey);
+        // One extra row tells whether another page follows without counting
+        return toSlice(fetchRows(query, ownerId, sortKey, after, size + 1), sortKey, size);
     }
 
-    public Page<RatingDTO> getMovieRatings(String movieId, Pageable pageable) {
-        Page<Rating> ratings = ratingRepository.findByMovieId(movieId, pageable);
-        return ratings.map(this::toDTO);
+    private List<RatingDTO> fetchRows(String query, String ownerId, RatingCursor.SortKey sortKey,
+            RatingCursor after, int limit) {
+        // Ratings the migration has not given their keys yet would be missing from the page
+        if (!migration.isFinished()) {
+            throw new RatingsMigratingException();
+        }
+        return new ArrayList<>(neo4jClient.query(query)
+                .bindAll(Map.of(
+                        "ownerId", ownerId,
+                        "after", sortKey == RatingCursor.SortKey.RATING ? Integer.valueOf(after.value()) : after.value(),
+                        "afterId", after.id(),
+                        "limit", limit))
+                .fetchAs(RatingDTO.class)
+                .mappedBy((typeSystem, record) -> toDTO(RatingRepository.toRating(record)))
+                .all());
+    }
+
+    /**
+     * The first {@code size} of {@code rows} as a page; a row beyond them
+     * means another page follows.
+     */
+    static RatingSliceDTO toSlice(List<RatingDTO> rows, RatingCursor.SortKey sortKey, int size) {
+        boolean hasNext = rows.size() > size;
+        List<RatingDTO> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            RatingDTO last = content.get(content.size() - 1);
+            String value = sortKey == RatingCursor.SortKey.TIMESTAMP
+                    ? last.getTimestamp().toString()
+                    : last.getRating().toString();
+            nextCursor = new RatingCursor(sortKey, value, last.getId()).encode();
+        }
+        return RatingSliceDTO.builder()
+                .content(List.copyOf(content))
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private long countUserRatings(String email) {
+        Long cached = ratingCountCache.get(email);
+        if (cached != null) {
+            return cached;
+        }
+        long count = neo4jClient.query(USER_RATING_COUNT_QUERY)
+                .bind(email).to("userId")
+                .fetchAs(Long.class)
+                .mappedBy((typeSystem, record) -> record.get("count").asLong())
+                .one()
+                .orElse(0L);
+        ratingCountCache.put(email, count);
+        return count;
     }
 
     public RatingDTO getUserRatingForMovie(String email, String movieId) {
         return ratingRepository.findByUserIdAndMovieId(email, movieId)
-                .map(this::toDTO)
+                .map(RatingService::toDTO)
                 .orElse(null);
     }
 
     public AverageRatingDTO getAverageRating(String movieId) {
-        List<Rating> ratings = ratingRepository.findByMovieId(movieId);
-        if (ratings.isEmpty()) {
-            return AverageRatingDTO.builder()
-                    .movieId(movieId)
-                    .average(0.0)
-                    .count(0L)
-                    .build();
-        }
+        return toAverageDTO(movieId, aggregateService.getAggregate(movieId));
+    }
 
-        double average = ratings.stream()
-                .mapToInt(Rating::getRating)
-                .average()
-                .orElse(0.0);
+    public List<AverageRatingDTO> getAverageRatings(List<String> movieIds) {
+        return aggregateService.getAggregates(movieIds).entrySet().stream()
+                .map(entry -> toAverageDTO(entry.getKey(), entry.getValue()))
+                .toList();
+    }
 
+    static AverageRatingDTO toAverageDTO(String movieId, RatingAggregateService.RatingAggregate aggregate) {
         return AverageRatingDTO.builder()
                 .movieId(movieId)
-                .average(average)
-                .count((long) ratings.size())
+                .average(aggregate.average())
+                .count(aggregate.count())
+                .stdDev(aggregate.stdDev())
                 .build();
     }
 
-    private RatingDTO toDTO(Rating rating) {
+    public RatingHistogramDTO getRatingHistogram(String movieId) {
+        return getRatingHistograms(List.of(movieId)).get(0);
+    }
+
+    public List<RatingHistogramDTO> getRatingHistograms(List<String> movieIds) {
+        return aggregateService.getHistograms(movieIds).entrySet().stream()
+                .map(entry -> RatingHistogramDTO.builder()
+                        .movieId(entry.getKey())
+                        .counts(entry.getValue())
+                        .total(entry.getValue().stream().mapToLong(Long::longValue).sum())
+                        .build())
+                .toList();
+    }
+
+    static RatingDTO toDTO(Rating rating) {
         return RatingDTO.builder()
                 .id(rating.getId())
                 .rating(rating.getRating())
@@ -0,0 +1,283 @@
+package com.graphflix.ratingservice.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.graphflix.ratingservice.dto.DailyRatersDTO;
+import com.graphflix.ratingservice.dto.RatingPercentilesDTO;
+import com.graphflix.ratingservice.dto.UniqueRatersDTO;
+import com.graphflix.ratingservice.model.Rating;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Per-movie rating statistics that would otherwise need a scan of all
+ * ratings: distinct raters per day and rating percentiles.
+ *
+ * <p>Distinct raters are counted in a {@link RaterSketch} per movie and day
+ * of the rating. Ratings committed through this instance are added to
+ * sketches in memory, which are merged into the RaterSketch nodes on a
+ * schedule, each node locked while its registers are read, merged and
+ * written back. Merging keeps the larger register, so instances flushing the
+ * same day, or a failed flush retried, never count a rater twice; reads
+ * merge the stored sketches with the ones not yet flushed. A deleted rating
+ * still counts for the day it was written on.
+ *
+ * <p>Percentiles need no sketch: ratings are whole stars from 1 to 10, so
+ * they are read exactly off the histogram {@link RatingAggregateService}
+ * already keeps.
+ */
+@Service
+public class RatingStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(RatingStatsService.class);
+
+    static final String READ_SKETCHES_QUERY = """
+            MATCH (s:RaterSketch {movieId: $movieId})
+            WHERE s.day >= $from AND s.day <= $to
+            RETURN s.day AS day, s.registers AS registers
+            """;
+
+    static final String LOCK_SKETCHES_QUERY = """
+            UNWIND $keys AS key
+            MERGE (s:RaterSketch {movieId: key.movieId, day: key.day})
+            SET s._lock = true
+            RETURN key.movieId AS movieId, key.day AS day, s.registers AS registers
+            """;
+
+    static final String WRITE_SKETCHES_QUERY = """
+            UNWIND $sketches AS sketch
+            MATCH (s:RaterSketch {movieId: sketch.movieId, day: sketch.day})
+            SET s.registers = sketch.registers
+            REMOVE s._lock
+            """;
+
+    private record Key(String movieId, LocalDate day) {}
+
+    // Sketches are locked in this order, so flushes of several instances cannot deadlock
+    private static final Comparator<Key> LOCK_ORDER = Comparator.comparing(Key::movieId).thenComparing(Key::day);
+
+    private final Neo4jClient neo4jClient;
+    private final TransactionTemplate transactionTemplate;
+    private final RatingAggregateService aggregateService;
+    private final int flushBatchSize;
+
+    private final Object lock = new Object();
+    private Map<Key, RaterSketch> pending = new HashMap<>();
+    private Map<Key, RaterSketch> flushing = Map.of();
+
+    private final Timer flushTimer;
+
+    public RatingStatsService(Neo4jClient neo4jClient, PlatformTransactionManager transactionManager,
+            RatingAggregateService aggregateService, MeterRegistry meterRegistry,
+            @Value("${rating.stats.flush.batch-size:500}") int flushBatchSize) {
+        this.neo4jClient = neo4jClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.aggregateService = aggregateService;
+        this.flushBatchSize = flushBatchSize;
+        this.flushTimer = Timer.builder("rating.stats.flush").register(meterRegistry);
+        Gauge.builder("rating.stats.sketches.pending", this, RatingStatsService::pendingCount)
+                .description("Movie-day rater sketches changed since the last flush")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRatingsChanged(MovieRatingsCache.RatingsChanged event) {
+        if (event.written().isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            for (Rating rating : event.written()) {
+                LocalDate day = rating.getTimestamp() != null ? rating.getTimestamp().toLocalDate() : LocalDate.now();
+                pending.computeIfAbsent(new Key(rating.getMovieId(), day), key -> new RaterSketch())
+                        .add(rating.getUserId());
+            }
+        }
+    }
+
+    /**
+     * Estimated distinct raters of the movie on each day from {@code from} to
+     * {@code to}, both included, and over the whole range.
+     */
+    public UniqueRatersDTO getUniqueRaters(String movieId, LocalDate from, LocalDate to) {
+        Map<LocalDate, RaterSketch> days = new TreeMap<>();
+        neo4jClient.query(READ_SKETCHES_QUERY)
+                .bindAll(Map.of("movieId", movieId, "from", from, "to", to))
+                .fetch()
+                .all()
+                .forEach(row -> days.put((LocalDate) row.get("day"),
+                        RaterSketch.fromBytes((byte[]) row.get("registers"))));
+        synchronized (lock) {
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                Key key = new Key(movieId, day);
+                for (Map<Key, RaterSketch> unflushed : List.of(flushing, pending)) {
+                    RaterSketch sketch = unflushed.get(key);
+                    if (sketch != null) {
+                        days.computeIfAbsent(day, d -> new RaterSketch()).merge(sketch);
+                    }
+                }
+            }
+        }
+
+        RaterSketch range = new RaterSketch();
+        List<DailyRatersDTO> daily = new ArrayList<>(days.size());
+        days.forEach((day, sketch) -> {
+            if (!sketch.isEmpty()) {
+                range.merge(sketch);
+                daily.add(DailyRatersDTO.builder().day(day).uniqueRaters(sketch.estimate()).build());
+            }
+        });
+        return UniqueRatersDTO.builder()
+                .movieId(movieId)
+                .from(from)
+                .to(to)
+                .uniqueRaters(range.estimate())
+                .relativeStandardError(RaterSketch.RELATIVE_STANDARD_ERROR)
+                .days(daily)
+                .build();
+    }
+
+    /**
+     * The nearest-rank percentile of the movie's ratings for each quantile,
+     * in (0, 1], keyed like {@code p90}.
+     */
+    public RatingPercentilesDTO getPercentiles(String movieId, List<Double> quantiles) {
+        List<Long> histogram = aggregateService.getHistograms(List.of(movieId)).get(movieId);
+        long count = histogram.stream().mapToLong(Long::longValue).sum();
+        Map<String, Integer> percentiles = new LinkedHashMap<>();
+        if (count > 0) {
+            for (double quantile : quantiles) {
+                String name = "p" + BigDecimal.valueOf(quantile).movePointRight(2).stripTrailingZeros().toPlainString();
+                percentiles.put(name, percentile(histogram, count, quantile));
+            }
+        }
+        return RatingPercentilesDTO.builder()
+                .movieId(movieId)
+                .count(count)
+                .percentiles(percentiles)
+                .rankError(0.0)
+                .build();
+    }
+
+    /**
+     * The smallest rating at least {@code quantile} of the ratings are at or
+     * below. Slot 0 of the histogram counts 1-star ratings.
+     */
+    static int percentile(List<Long> histogram, long count, double quantile) {
+        // In decimal, so 0.07 of 100 ratings is rank 7 and not the 8 that 7.000000000000001 rounds up to
+        long rank = Math.max(1, BigDecimal.valueOf(quantile).multiply(BigDecimal.valueOf(count))
+                .setScale(0, RoundingMode.CEILING).longValueExact());
+        long seen = 0;
+        for (int slot = 0; slot < histogram.size(); slot++) {
+            seen += histogram.get(slot);
+            if (seen >= rank) {
+                return slot + 1;
+            }
+        }
+        return histogram.size();
+    }
+
+    /**
+     * Merges the sketches changed since the last flush into Neo4j, a batch
+     * of movie-days per transaction. Sketches of a failed batch go back to
+     * the pending ones and are retried on the next flush.
+     */
+    @Scheduled(fixedDelayString = "${rating.stats.flush.interval-ms:60000}")
+    public void flush() {
+        Map<Key, RaterSketch> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new TreeMap<>(LOCK_ORDER);
+            batch.putAll(pending);
+            flushing = batch;
+            pending = new HashMap<>();
+        }
+        long start = System.nanoTime();
+        List<Key> keys = List.copyOf(batch.keySet());
+        int flushed = 0;
+        try {
+            for (int from = 0; from < keys.size(); from += flushBatchSize) {
+                List<Key> chunk = keys.subList(from, Math.min(from + flushBatchSize, keys.size()));
+                transactionTemplate.executeWithoutResult(status -> write(chunk, batch));
+                flushed += chunk.size();
+            }
+            log.info("[RatingStatsService] Flushed {} rater sketches in {} ms", flushed,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            log.warn("[RatingStatsService] Flushed {} of {} rater sketches, retrying the rest on the next flush: {}",
+                    flushed, keys.size(), e.getMessage());
+            synchronized (lock) {
+                for (Key key : keys.subList(flushed, keys.size())) {
+                    pending.computeIfAbsent(key, k -> new RaterSketch()).merge(batch.get(key));
+                }
+            }
+        } finally {
+            synchronized (lock) {
+                flushing = Map.of();
+            }
+        }
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        if (pendingCount() > 0) {
+            log.info("[RatingStatsService] Flushing {} rater sketches before shutdown", pendingCount());
+            flush();
+        }
+    }
+
+    private void write(List<Key> keys, Map<Key, RaterSketch> batch) {
+        List<Map<String, Object>> lockParameters = keys.stream()
+                .map(key -> Map.<String, Object>of("movieId", key.movieId(), "day", key.day()))
+                .toList();
+        Map<Key, RaterSketch> merged = new HashMap<>();
+        neo4jClient.query(LOCK_SKETCHES_QUERY)
+                .bind(lockParameters).to("keys")
+                .fetch()
+                .all()
+                .forEach(row -> merged.put(new Key((String) row.get("movieId"), (LocalDate) row.get("day")),
+                        RaterSketch.fromBytes((byte[]) row.get("registers"))));
+        List<Map<String, Object>> sketches = new ArrayList<>(keys.size());
+        for (Key key : keys) {
+            RaterSketch sketch = merged.computeIfAbsent(key, k -> new RaterSketch());
+            sketch.merge(batch.get(key));
+            sketches.add(Map.of("movieId", key.movieId(), "day", key.day(), "registers", sketch.toBytes()));
+        }
+        neo4jClient.query(WRITE_SKETCHES_QUERY)
+                .bind(sketches).to("sketches")
+                .run();
+    }
+
+    private int pendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.graphflix.ratingservice.service;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.neo4j.core.ReactiveNeo4jClient;
+import org.springframework.stereotype.Service;
+
+import com.graphflix.ratingservice.dto.AverageRatingDTO;
+import com.graphflix.ratingservice.dto.RatingDTO;
+import com.graphflix.ratingservice.dto.RatingSliceDTO;
+import com.graphflix.ratingservice.exception.RatingsMigratingException;
+import com.graphflix.ratingservice.repository.RatingRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * Non-blocking variant of the rating reads of {@link RatingService}: the same
+ * statements and caches, run through {@link ReactiveNeo4jClient}, so no
+ * thread waits while Neo4j answers.
+ *
+ * <p>Streams are demand-driven: the driver pulls records from the server
+ * only as fast as the subscriber requests them, so a slow client holds back
+ * the query instead of having its rows buffered. Reads run without a
+ * transaction, like their blocking counterparts, so no reactive transaction
+ * manager is needed next to the imperative one.
+ *
+ * <p>Without a request thread per read, nothing else bounds how many queries
+ * are open at once, and the driver fails reads outright once its connection
+ * pool and the short queue in front of it are full. So at most
+ * {@code maxInFlight} queries run at a time; further reads wait their turn
+ * here, in order, without holding a thread.
+ */
+@Service
+public class ReactiveRatingService {
+
+    private final ReactiveNeo4jClient neo4jClient;
+    private final MovieRatingsCache movieRatingsCache;
+    private final RatingCountCache ratingCountCache;
+    private final RatingNodeMigration migration;
+    private final int maxInFlight;
+    private final Queue<Waiter> waiting = new ArrayDeque<>();
+    private int inFlight;
+
+    public ReactiveRatingService(ReactiveNeo4jClient neo4jClient, MovieRatingsCache movieRatingsCache,
+            RatingCountCache ratingCountCache, RatingNodeMigration migration, MeterRegistry meterRegistry,
+            @Value("${rating.reactive.max-in-flight:64}") int maxInFlight) {
+        this.neo4jClient = neo4jClient;
+        this.movieRatingsCache = movieRatingsCache;
+        this.ratingCountCache = ratingCountCache;
+        this.migration = migration;
+        this.maxInFlight = maxInFlight;
+        Gauge.builder("rating.reactive.queries.in-flight", this, service -> service.count(false))
+                .description("Reactive rating queries currently running").register(meterRegistry);
+        Gauge.builder("rating.reactive.queries.waiting", this, service -> service.count(true))
+                .description("Reactive rating reads waiting for a query slot").register(meterRegistry);
+    }
+
+    public Mono<RatingSliceDTO> getUserRatings(String email, RatingCursor.SortKey sortKey, RatingCursor cursor,
+            int size, boolean includeTotal) {
+        Mono<RatingSliceDTO> slice = streamUserRatings(email, sortKey, cursor, size + 1)
+                .collectList()
+                .map(rows -> RatingService.toSlice(rows, sortKey, size));
+        if (!includeTotal) {
+            return slice;
+        }
+        return slice.zipWith(countUserRatings(email), (page, total) -> {
+            page.setTotalElements(total);
+            return page;
+        });
+    }
+
+    /**
+     * First pages come from {@link MovieRatingsCache} when it holds enough
+     * rows and {@code fresh} is not set, as in {@link RatingService#getMovieRatings}.
+     */
+    public Mono<RatingSliceDTO> getMovieRatings(String movieId, RatingCursor.SortKey sortKey, RatingCursor cursor,
+            int size, boolean includeTotal, boolean fresh) {
+        Mono<List<RatingDTO>> rows;
+        if (cursor != null) {
+            rows = streamMovieRatings(movieId, sortKey, cursor, size + 1).collectList();
+        } else {
+            rows = Mono.defer(() -> (fresh ? Optional.<List<RatingDTO>>empty()
+                            : movieRatingsCache.firstRows(movieId, sortKey, size))
+                    .map(Mono::just)
+                    .orElseGet(() -> {
+                        long generation = movieRatingsCache.generation(movieId);
+                        return streamMovieRatings(movieId, sortKey, null, movieRatingsCache.loadSize())
+                                .collectList()
+                                .doOnNext(loaded -> movieRatingsCache.put(movieId, sortKey, loaded, generation));
+                    }));
+        }
+        Mono<RatingSliceDTO> slice = rows.map(page -> RatingService.toSlice(page, sortKey, size));
+        if (!includeTotal) {
+            return slice;
+        }
+        return slice.zipWith(getAggregate(movieId), (page, aggregate) -> {
+            page.setTotalElements(aggregate.count());
+            return page;
+        });
+    }
+
+    /**
+     * The user's ratings after {@code cursor}, or from the first one, at most
+     * {@code limit} of them, emitted as the subscriber requests them.
+     */
+    public Flux<RatingDTO> streamUserRatings(String email, RatingCursor.SortKey sortKey, RatingCursor cursor,
+            int limit) {
+        String query = sortKey == RatingCursor.SortKey.TIMESTAMP
+                ? RatingService.USER_RATINGS_BY_TIMESTAMP_QUERY
+                : RatingService.USER_RATINGS_BY_RATING_QUERY;
+        return fetchRows(query, email, sortKey, cursor, limit);
+    }
+
+    public Flux<RatingDTO> streamMovieRatings(String movieId, RatingCursor.SortKey sortKey, RatingCursor cursor,
+            int limit) {
+        String query = sortKey == RatingCursor.SortKey.TIMESTAMP
+                ? RatingService.MOVIE_RATINGS_BY_TIMESTAMP_QUERY
+                : RatingService.MOVIE_RATINGS_BY_RATING_QUERY;
+        return fetchRows(query, movieId, sortKey, cursor, limit);
+    }
+
+    public Mono<AverageRatingDTO> getAverageRating(String movieId) {
+        return getAggregate(movieId).map(aggregate -> RatingService.toAverageDTO(movieId, aggregate));
+    }
+
+    private Flux<RatingDTO> fetchRows(String query, String ownerId, RatingCursor.SortKey sortKey,
+            RatingCursor cursor, int limit) {
+        if (!migration.isFinished()) {
+            return Flux.error(new RatingsMigratingException());
+        }
+        RatingCursor after = cursor != null ? cursor : RatingCursor.first(sortKey);
+        Flux<RatingDTO> rows = neo4jClient.query(query)
+                .bindAll(Map.of(
+                        "ownerId", ownerId,
+                        "after", sortKey == RatingCursor.SortKey.RATING ? Integer.valueOf(after.value()) : after.value(),
+                        "afterId", after.id(),
+                        "limit", limit))
+                .fetchAs(RatingDTO.class)
+                .mappedBy((typeSystem, record) -> RatingService.toDTO(RatingRepository.toRating(record)))
+                .all();
+        return Flux.usingWhen(acquire(), permit -> rows, permit -> Mono.fromRunnable(permit::release));
+    }
+
+    private Mono<Long> countUserRatings(String email) {
+        return Mono.defer(() -> {
+            Long cached = ratingCountCache.get(email);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return limited(neo4jClient.query(RatingService.USER_RATING_COUNT_QUERY)
+                    .bind(email).to("userId")
+                    .fetchAs(Long.class)
+                    .mappedBy((typeSystem, record) -> record.get("count").asLong())
+                    .one())
+                    .defaultIfEmpty(0L)
+                    .doOnNext(count -> ratingCountCache.put(email, count));
+        });
+    }
+
+    /**
+     * The stored aggregate, or one counted from the ratings while the movie
+     * is not seeded yet, as {@link RatingAggregateService#getAggregate} reads it.
+     */
+    private Mono<RatingAggregateService.RatingAggregate> getAggregate(String movieId) {
+        return readAggregate(RatingAggregateService.READ_AGGREGATES_QUERY, movieId)
+                .switchIfEmpty(Mono.defer(() -> readAggregate(RatingAggregateService.FALLBACK_AGGREGATES_QUERY, movieId)));
+    }
+
+    private Mono<RatingAggregateService.RatingAggregate> readAggregate(String query, String movieId) {
+        return limited(neo4jClient.query(query)
+                .bind(List.of(movieId)).to("movieIds")
+                .fetchAs(RatingAggregateService.RatingAggregate.class)
+                .mappedBy((typeSystem, record) -> new RatingAggregateService.RatingAggregate(
+                        record.get("ratingCount").asLong(),
+                        record.get("ratingSum").asLong(0L),
+                        record.get("ratingSumSq").asLong(0L)))
+                .one());
+    }
+
+    private <T> Mono<T> limited(Mono<T> query) {
+        return Mono.usingWhen(acquire(), permit -> query, permit -> Mono.fromRunnable(permit::release));
+    }
+
+    /**
+     * A query slot, right away when one is free, otherwise once a running
+     * query hands its slot on.
+     */
+    private Mono<Permit> acquire() {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink, new Permit());
+            synchronized (waiting) {
+                if (inFlight >= maxInFlight) {
+                    waiting.add(waiter);
+                    sink.onCancel(() -> {
+                        boolean queued;
+                        synchronized (waiting) {
+                            queued = waiting.remove(waiter);
+                        }
+                        // Cancelled while being handed a slot: pass it on
+                        if (!queued) {
+                            waiter.permit().release();
+                        }
+                    });
+                    return;
+                }
+                inFlight++;
+            }
+            sink.success(waiter.permit());
+        });
+    }
+
+    private void handOver() {
+        Waiter next;
+        synchronized (waiting) {
+            next = waiting.poll();
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+        }
+        next.sink().success(next.permit());
+    }
+
+    private int count(boolean queued) {
+        synchronized (waiting) {
+            return queued ? waiting.size() : inFlight;
+        }
+    }
+
+    private record Waiter(MonoSink<Permit> sink, Permit permit) {}
+
+    /**
+     * One query slot, handed back exactly once however the query ends.
+     */
+    private final class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                handOver();
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.graphflix.ratingservice.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.graphflix.ratingservice.dto.TopRatedMovieDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * In-memory leaderboard of movies by Bayesian average,
+ * {@code (sum + weight * mean) / (count + weight)}, which pulls movies with
+ * few ratings towards the global mean so a single 10 cannot top the list.
+ *
+ * <p>Movies are kept in a tree ordered by score and a map by id, so each
+ * committed aggregate change moves one movie in O(log n) and the top of the
+ * list is read without touching Neo4j. The prior mean is the global average
+ * at the last rebuild and stays fixed in between, otherwise every write
+ * would rescore every movie.
+ *
+ * <p>Changes made by other instances are not seen here, so the board is
+ * rebuilt from the Movie aggregates on startup and on a schedule; movies that
+ * differ from Neo4j at that point are counted as drift. A movie changed while
+ * the rebuild reads is read again once it is done.
+ */
+@Service
+public class TopRatedLeaderboard {
+
+    private static final Logger log = LoggerFactory.getLogger(TopRatedLeaderboard.class);
+
+    // Midpoint of the 1-10 scale, used until there are any ratings
+    private static final double DEFAULT_PRIOR_MEAN = 5.5;
+
+    // The element id is bound first: {movieId: elementId(m)} plus a WHERE fails Neo4j's AST rewriting
+    private static final String ALL_AGGREGATES_QUERY = """
+            MATCH (m:Movie)
+            WHERE m.ratingCount IS NOT NULL
+            WITH m, elementId(m) AS movieId
+            OPTIONAL MATCH (s:RatingStripe {movieId: movieId})
+            WHERE s.stripe >= 0
+            WITH m, movieId, m.ratingCount + sum(s.ratingCount) AS ratingCount,
+                 m.ratingSum + sum(s.ratingSum) AS ratingSum
+            WHERE ratingCount > 0
+            RETURN movieId, ratingCount, ratingSum
+            """;
+
+    private record Entry(String movieId, long count, long sum, double score) {}
+
+    private static final Comparator<Entry> RANKING = Comparator.comparingDouble(Entry::score).reversed()
+            .thenComparing(Comparator.comparingLong(Entry::count).reversed())
+            .thenComparing(Entry::movieId);
+
+    private final Neo4jClient neo4jClient;
+    private final RatingAggregateService aggregateService;
+    private final double priorWeight;
+
+    private final Object lock = new Object();
+    private Map<String, Entry> byMovie = new HashMap<>();
+    private TreeSet<Entry> ranking = new TreeSet<>(RANKING);
+    private double priorMean = DEFAULT_PRIOR_MEAN;
+    private boolean rebuilding;
+    private final Set<String> changedDuringRebuild = new HashSet<>();
+
+    private final Counter drift;
+    private final Timer rebuildTimer;
+
+    public TopRatedLeaderboard(Neo4jClient neo4jClient, RatingAggregateService aggregateService,
+            MeterRegistry meterRegistry,
+            @Value("${rating.top-rated.prior-weight:25}") double priorWeight) {
+        this.neo4jClient = neo4jClient;
+        this.aggregateService = aggregateService;
+        this.priorWeight = priorWeight;
+        this.drift = Counter.builder("rating.top-rated.drift")
+                .description("Movies whose leaderboard entry differed from Neo4j at a rebuild")
+                .register(meterRegistry);
+        this.rebuildTimer = Timer.builder("rating.top-rated.rebuild").register(meterRegistry);
+        Gauge.builder("rating.top-rated.movies", this, TopRatedLeaderboard::size)
+                .description("Movies on the leaderboard")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The {@code limit} best movies, best first.
+     */
+    public List<TopRatedMovieDTO> top(int limit) {
+        List<TopRatedMovieDTO> top = new ArrayList<>(limit);
+        synchronized (lock) {
+            for (Entry entry : ranking) {
+                if (top.size() == limit) {
+                    break;
+                }
+                top.add(TopRatedMovieDTO.builder()
+                        .movieId(entry.movieId())
+                        .score(entry.score())
+                        .average((double) entry.sum() / entry.count())
+                        .count(entry.count())
+                        .build());
+            }
+        }
+        return top;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAggregatesChanged(RatingAggregateService.AggregatesChanged event) {
+        synchronized (lock) {
+            event.deltas().forEach((movieId, delta) -> {
+                Entry current = byMovie.get(movieId);
+                long count = delta.count() + (current != null ? current.count() : 0);
+                long sum = delta.sum() + (current != null ? current.sum() : 0);
+                put(movieId, count, sum);
+            });
+            event.recomputed().forEach((movieId, aggregate) -> put(movieId, aggregate.count(), aggregate.sum()));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("[TopRatedLeaderboard] Startup rebuild failed, the leaderboard fills in as ratings change: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the leaderboard from the aggregates on the Movie nodes and
+     * refreshes the prior mean.
+     */
+    @Scheduled(fixedDelayString = "${rating.top-rated.rebuild.interval-ms:600000}",
+            initialDelayString = "${rating.top-rated.rebuild.interval-ms:600000}")
+    public void rebuild() {
+        long start = System.nanoTime();
+        synchronized (lock) {
+            rebuilding = true;
+            changedDuringRebuild.clear();
+        }
+        Map<String, long[]> aggregates = new HashMap<>();
+        long totalCount = 0;
+        long totalSum = 0;
+        try {
+            for (Map<String, Object> row : neo4jClient.query(ALL_AGGREGATES_QUERY).fetch().all()) {
+                long count = (Long) row.get("ratingCount");
+                long sum = row.get("ratingSum") != null ? (Long) row.get("ratingSum") : 0L;
+                aggregates.put((String) row.get("movieId"), new long[] {count, sum});
+                totalCount += count;
+                totalSum += sum;
+            }
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                rebuilding = false;
+            }
+            throw e;
+        }
+        double mean = totalCount == 0 ? DEFAULT_PRIOR_MEAN : (double) totalSum / totalCount;
+
+        Set<String> changed;
+        long drifted;
+        synchronized (lock) {
+            Map<String, Entry> rebuiltByMovie = new HashMap<>(aggregates.size() * 2);
+            TreeSet<Entry> rebuiltRanking = new TreeSet<>(RANKING);
+            aggregates.forEach((movieId, aggregate) -> {
+                Entry entry = new Entry(movieId, aggregate[0], aggregate[1], score(aggregate[0], aggregate[1], mean));
+                rebuiltByMovie.put(movieId, entry);
+                rebuiltRanking.add(entry);
+            });
+            Set<String> movieIds = new HashSet<>(byMovie.keySet());
+            movieIds.addAll(rebuiltByMovie.keySet());
+            movieIds.removeAll(changedDuringRebuild);
+            drifted = movieIds.stream()
+                    .filter(movieId -> !sameAggregate(byMovie.get(movieId), rebuiltByMovie.get(movieId)))
+                    .count();
+            byMovie = rebuiltByMovie;
+            ranking = rebuiltRanking;
+            priorMean = mean;
+            rebuilding = false;
+            changed = new HashSet<>(changedDuringRebuild);
+        }
+        drift.increment(drifted);
+
+        if (!changed.isEmpty()) {
+            Map<String, RatingAggregateService.RatingAggregate> current =
+                    aggregateService.getAggregates(List.copyOf(changed));
+            synchronized (lock) {
+                current.forEach((movieId, aggregate) -> put(movieId, aggregate.count(), aggregate.sum()));
+            }
+        }
+        rebuildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (drifted > 0) {
+            log.warn("[TopRatedLeaderboard] Rebuilt leaderboard of {} movies, {} differed from Neo4j",
+                    aggregates.size(), drifted);
+        } else {
+            log.info("[TopRatedLeaderboard] Rebuilt leaderboard of {} movies, prior mean {}",
+                    aggregates.size(), String.format("%.3f", mean));
+        }
+    }
+
+    // Callers hold the lock
+    private void put(String movieId, long count, long sum) {
+        Entry previous = byMovie.remove(movieId);
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+        if (count > 0) {
+            Entry entry = new Entry(movieId, count, sum, score(count, sum, priorMean));
+            byMovie.put(movieId, entry);
+            ranking.add(entry);
+        }
+        if (rebuilding) {
+            changedDuringRebuild.add(movieId);
+        }
+    }
+
+    private double score(long count, long sum, double mean) {
+        return (sum + priorWeight * mean) / (count + priorWeight);
+    }
+
+    private static boolean sameAggregate(Entry left, Entry right) {
+        if (left == null || right == null) {
+            return Objects.equals(left, right);
+        }
+        return left.count() == right.count() && left.sum() == right.sum();
+    }
+
+    private int size() {
+        synchronized (lock) {
+            return byMovie.size();
+        }
+    }
+}
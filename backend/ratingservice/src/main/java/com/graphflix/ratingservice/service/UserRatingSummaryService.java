@@ -0,0 +1,273 @@
+package com.graphflix.ratingservice.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.graphflix.ratingservice.dto.UserRatingSummaryDTO;
+import com.graphflix.ratingservice.exception.UserNotFoundException;
+
+/**
+ * Keeps per-user rating summaries ({@code ratingCount}, {@code ratingSum}
+ * and {@code lastActivityAt}) on the User node, so a profile's count and
+ * average are read from one node instead of from the user's ratings.
+ *
+ * <p>Writers change the summary inside their own transaction: the rating
+ * upsert in its own statement, under the user lock it already holds, and
+ * deletes and imports through {@link #apply(Map)}, which locks each user
+ * before reading its summary. {@code lastActivityAt} is the latest time a
+ * rating of the user was written or deleted, so it only ever moves forward.
+ *
+ * <p>Users without a summary yet are recomputed from their RATED
+ * relationships the first time one of their ratings changes, and a
+ * background backfill walks the users by email, a batch per transaction and
+ * per tick, until every user has one. Until then reads aggregate the
+ * user's ratings on the fly.
+ */
+@Service
+public class UserRatingSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserRatingSummaryService.class);
+
+    /**
+     * Accumulated change to one user's summary.
+     */
+    public static final class Delta {
+
+        private long count;
+        private long sum;
+        private LocalDateTime at;
+
+        public Delta add(int rating, LocalDateTime at) {
+            return shift(1, rating, at);
+        }
+
+        public Delta remove(int rating, LocalDateTime at) {
+            return shift(-1, rating, at);
+        }
+
+        private Delta shift(int sign, int rating, LocalDateTime at) {
+            count += sign;
+            sum += (long) sign * rating;
+            if (at != null && (this.at == null || at.isAfter(this.at))) {
+                this.at = at;
+            }
+            return this;
+        }
+
+        private Map<String, Object> toParameters(String userId) {
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("userId", userId);
+            parameters.put("count", count);
+            parameters.put("sum", sum);
+            parameters.put("at", at);
+            return parameters;
+        }
+    }
+
+    // Lands only on users that already have a summary; apply recomputes the others
+    private static final String APPLY_DELTAS_QUERY = """
+            UNWIND $deltas AS delta
+            MATCH (u:User {email: delta.userId})
+            WHERE u.ratingCount IS NOT NULL
+            SET u._ratingLock = true
+            SET u.ratingCount = u.ratingCount + delta.count,
+                u.ratingSum = u.ratingSum + delta.sum,
+                u.lastActivityAt = CASE WHEN u.lastActivityAt IS NULL OR delta.at > u.lastActivityAt
+                                        THEN delta.at ELSE u.lastActivityAt END
+            REMOVE u._ratingLock
+            RETURN delta.userId AS userId
+            """;
+
+    private static final String RECOMPUTE_QUERY = """
+            UNWIND $users AS user
+            MATCH (u:User {email: user.userId})
+            SET u._ratingLock = true
+            WITH u, user
+            OPTIONAL MATCH (u)-[r:RATED]->(:Movie)
+            WITH u, user, count(r) AS ratingCount, sum(r.rating) AS ratingSum, max(r.timestamp) AS lastRatedAt
+            SET u.ratingCount = ratingCount,
+                u.ratingSum = ratingSum,
+                u.lastActivityAt = reduce(latest = null, at IN [at IN [u.lastActivityAt, lastRatedAt, user.at]
+                                                                WHERE at IS NOT NULL] |
+                                          CASE WHEN latest IS NULL OR at > latest THEN at ELSE latest END)
+            REMOVE u._ratingLock
+            RETURN user.userId AS userId
+            """;
+
+    static final String READ_SUMMARY_QUERY = """
+            MATCH (u:User {email: $userId})
+            RETURN u.ratingCount AS ratingCount, u.ratingSum AS ratingSum, u.lastActivityAt AS lastActivityAt
+            """;
+
+    static final String FALLBACK_SUMMARY_QUERY = """
+            MATCH (u:User {email: $userId})
+            OPTIONAL MATCH (u)-[r:RATED]->(:Movie)
+            RETURN count(r) AS ratingCount, sum(r.rating) AS ratingSum, max(r.timestamp) AS lastActivityAt
+            """;
+
+    // Walks the user_email index from the last email seen, so every user is visited once
+    static final String UNSUMMARISED_USERS_QUERY = """
+            MATCH (u:User)
+            WHERE u.email > $after AND u.ratingCount IS NULL
+            RETURN u.email AS userId
+            ORDER BY u.email
+            LIMIT $batchSize
+            """;
+
+    private final Neo4jClient neo4jClient;
+    private final TransactionTemplate transactionTemplate;
+    private final int backfillBatchSize;
+    private volatile boolean backfilled;
+    private String backfillCursor = "";
+    private long backfillTotal;
+
+    public UserRatingSummaryService(Neo4jClient neo4jClient, PlatformTransactionManager transactionManager,
+            @Value("${rating.user-summary.backfill.batch-size:500}") int backfillBatchSize) {
+        this.neo4jClient = neo4jClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.backfillBatchSize = backfillBatchSize;
+    }
+
+    /**
+     * The user's rating count, average and last activity, or a
+     * {@link UserNotFoundException} for an unknown user.
+     */
+    public UserRatingSummaryDTO getSummary(String userId) {
+        Map<String, Object> row = readSummary(READ_SUMMARY_QUERY, userId);
+        if (row.get("ratingCount") == null) {
+            log.debug("[UserRatingSummaryService] No stored summary for user '{}', aggregating on the fly", userId);
+            row = readSummary(FALLBACK_SUMMARY_QUERY, userId);
+        }
+        long count = (Long) row.get("ratingCount");
+        long sum = row.get("ratingSum") != null ? (Long) row.get("ratingSum") : 0L;
+        return UserRatingSummaryDTO.builder()
+                .userId(userId)
+                .ratingCount(count)
+                .ratingSum(sum)
+                .averageRating(count == 0 ? 0.0 : (double) sum / count)
+                .lastActivityAt((LocalDateTime) row.get("lastActivityAt"))
+                .build();
+    }
+
+    private Map<String, Object> readSummary(String query, String userId) {
+        return neo4jClient.query(query)
+                .bind(userId).to("userId")
+                .fetch()
+                .one()
+                .orElseThrow(() -> new UserNotFoundException(userId));
+    }
+
+    /**
+     * Seeds the summary of a user that has none yet from their ratings,
+     * which already include the calling transaction's changes.
+     */
+    public void seed(String userId, LocalDateTime at) {
+        recompute(Map.of(userId, at));
+    }
+
+    public void ratingRemoved(String userId, int rating, LocalDateTime at) {
+        apply(Map.of(userId, new Delta().remove(rating, at)));
+    }
+
+    /**
+     * Applies one delta per user in a single statement. Users are locked in
+     * email order so concurrent batches cannot deadlock on each other, and
+     * users without a summary yet are seeded from their ratings instead.
+     */
+    public void apply(Map<String, Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> parameters = new TreeMap<>(deltas).entrySet().stream()
+                .map(entry -> entry.getValue().toParameters(entry.getKey()))
+                .toList();
+        Set<String> applied = new HashSet<>(neo4jClient.query(APPLY_DELTAS_QUERY)
+                .bind(parameters).to("deltas")
+                .fetchAs(String.class)
+                .mappedBy((typeSystem, record) -> record.get("userId").asString())
+                .all());
+        Map<String, LocalDateTime> unseeded = new TreeMap<>();
+        deltas.forEach((userId, delta) -> {
+            if (!applied.contains(userId)) {
+                unseeded.put(userId, delta.at);
+            }
+        });
+        if (!unseeded.isEmpty()) {
+            recompute(unseeded);
+        }
+    }
+
+    /**
+     * Recomputes the users' summaries from their ratings, in email order. A
+     * user's last activity also takes the given time into account, when
+     * there is one.
+     */
+    private void recompute(Map<String, LocalDateTime> activity) {
+        List<Map<String, Object>> users = new ArrayList<>(activity.size());
+        new TreeMap<>(activity).forEach((userId, at) -> {
+            Map<String, Object> user = new HashMap<>();
+            user.put("userId", userId);
+            user.put("at", at);
+            users.add(user);
+        });
+        neo4jClient.query(RECOMPUTE_QUERY)
+                .bind(users).to("users")
+                .run();
+    }
+
+    /**
+     * Gives the next batch of users without a summary one computed from their
+     * ratings, until every user has one.
+     */
+    @Scheduled(fixedDelayString = "${rating.user-summary.backfill.interval-ms:1000}")
+    public void backfillBatch() {
+        if (backfilled) {
+            return;
+        }
+        List<String> userIds;
+        try {
+            userIds = transactionTemplate.execute(status -> {
+                List<String> batch = new ArrayList<>(neo4jClient.query(UNSUMMARISED_USERS_QUERY)
+                        .bindAll(Map.of("after", backfillCursor, "batchSize", backfillBatchSize))
+                        .fetchAs(String.class)
+                        .mappedBy((typeSystem, record) -> record.get("userId").asString())
+                        .all());
+                if (!batch.isEmpty()) {
+                    Map<String, LocalDateTime> users = new TreeMap<>();
+                    batch.forEach(userId -> users.put(userId, null));
+                    recompute(users);
+                }
+                return batch;
+            });
+        } catch (RuntimeException e) {
+            // Writers may be seeding the same users; the next tick retries
+            log.warn("[UserRatingSummaryService] Backfill batch failed, retrying on the next tick: {}", e.getMessage());
+            return;
+        }
+        if (!userIds.isEmpty()) {
+            backfillCursor = userIds.get(userIds.size() - 1);
+            backfillTotal += userIds.size();
+            log.info("[UserRatingSummaryService] Backfilled rating summaries of {} users, {} so far",
+                    userIds.size(), backfillTotal);
+        }
+        if (userIds.size() < backfillBatchSize) {
+            backfilled = true;
+            log.info("[UserRatingSummaryService] Every user has a rating summary, {} backfilled", backfillTotal);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.graphflix.ratingservice.service;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.AuthTokens;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.GraphDatabase;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.Transaction;
+import org.neo4j.driver.TransactionConfig;
+import org.neo4j.driver.exceptions.TransientException;
+import org.neo4j.driver.types.IsoDuration;
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.neo4j.core.Neo4jClient;
+
+/**
+ * Measures how long concurrent raters of one movie wait for each other's
+ * locks. Writers rate the same movie at once, each as a different user, and
+ * every transaction reads its own accumulated lock wait before committing;
+ * writes that deadlock are retried and counted.
+ * Three models run on their own embedded database: the upsert as it was,
+ * which MERGEs the rating and so locks the Movie, and the current upsert
+ * with the aggregates on the Movie and split into stripes. Each run ends by
+ * checking the stored aggregates against the ratings.
+ * Results are logged as a table. Excluded from the default build; run it
+ * with {@code mvn test -Pbenchmark -Dtest=AggregateStripingBenchmarkTest}.
+ */
+@Tag("benchmark")
+class AggregateStripingBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AggregateStripingBenchmarkTest.class);
+
+    private static final int USERS = 1_280;
+    private static final int WRITERS = 16;
+    private static final int WRITES_PER_WRITER = 60;
+    private static final int WARMUP_PER_WRITER = 20;
+    private static final int STRIPES = 16;
+    private static final LocalDateTime FIRST = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private static final List<String> SCHEMA = List.of(
+            "CREATE INDEX user_email FOR (u:User) ON (u.email)",
+            "CREATE CONSTRAINT rated_id_unique FOR ()-[r:RATED]-() REQUIRE r.id IS UNIQUE",
+            "CREATE CONSTRAINT rating_stripe_unique FOR (s:RatingStripe) REQUIRE (s.movieId, s.stripe) IS UNIQUE");
+
+    // The upsert as it was before stripes: MERGE locks the Movie for every new rating
+    private static final String LEGACY_UPSERT_QUERY = """
+            MATCH (u:User {email: $email})
+            MATCH (m:Movie)
+            WHERE elementId(m) = $movieId
+            MERGE (u)-[r:RATED]->(m)
+            ON CREATE SET r.id = $id, r.userId = $email, r.movieId = $movieId
+            SET r._lock = true
+            WITH u, m, r, r.rating AS previous
+            SET r.rating = $rating, r.comment = $comment, r.timestamp = $timestamp
+            REMOVE r._lock
+            WITH u, m, r, previous
+            SET m._aggregateLock = true
+            FOREACH (_ IN CASE WHEN m.ratingCount IS NOT NULL AND m.ratingHistogram IS NOT NULL THEN [1] ELSE [] END |
+                SET m.ratingCount = m.ratingCount + CASE WHEN previous IS NULL THEN 1 ELSE 0 END,
+                    m.ratingSum = m.ratingSum + $rating - coalesce(previous, 0),
+                    m.ratingSumSq = m.ratingSumSq + $rating * $rating - coalesce(previous * previous, 0),
+                    m.ratingHistogram = [slot IN range(0, 9) | m.ratingHistogram[slot]
+                        + CASE slot WHEN $rating - 1 THEN 1 ELSE 0 END
+                        - CASE slot WHEN previous - 1 THEN 1 ELSE 0 END])
+            REMOVE m._aggregateLock
+            RETURN r.id AS ratingId
+            """;
+
+    private static final String UPSERT_QUERY = statement(RatingService.class, "UPSERT_RATING_QUERY");
+
+    private static final String OWN_WAIT_QUERY = """
+            SHOW TRANSACTIONS YIELD metaData, waitTime
+            WHERE metaData.writer = $writer
+            RETURN waitTime
+            """;
+
+    private record Model(String name, String upsert, int stripes) {}
+
+    private record Write(long nanos, long waitMicros, int retries) {}
+
+    @Test
+    void measuresLockWaitOnOneHotMovie() throws Exception {
+        log.info("[AggregateStripingBenchmarkTest] {}", String.format("%-18s %-10s %-30s %-34s %s", "model",
+                "throughput", "latency", "lock wait per write", "deadlock retries"));
+        for (Model model : List.of(
+                new Model("MERGE, Movie node", LEGACY_UPSERT_QUERY, 1),
+                new Model("Movie node", UPSERT_QUERY, 1),
+                new Model(STRIPES + " stripes", UPSERT_QUERY, STRIPES))) {
+            run(model);
+        }
+    }
+
+    private void run(Model model) throws Exception {
+        try (Neo4j neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().build();
+                Driver driver = GraphDatabase.driver(neo4j.boltURI(), AuthTokens.none())) {
+            String movieId;
+            try (Session session = driver.session()) {
+                SCHEMA.forEach(statement -> session.run(statement).consume());
+                session.run("CALL db.awaitIndexes(300)").consume();
+                session.run("""
+                        UNWIND range(1, $users) AS i
+                        CREATE (:User {name: 'User ' + i, email: 'user' + i + '@graphflix.test'})
+                        """, Map.of("users", USERS)).consume();
+                movieId = session.run("""
+                        CREATE (m:Movie {title: 'Blockbuster', ratingCount: 0, ratingSum: 0, ratingSumSq: 0,
+                                         ratingHistogram: [0, 0, 0, 0, 0, 0, 0, 0, 0, 0]})
+                        RETURN elementId(m) AS id
+                        """).single().get("id").asString();
+            }
+            RatingAggregateService aggregateService =
+                    new RatingAggregateService(Neo4jClient.create(driver), event -> { }, 500);
+            aggregateService.setStripes(movieId, model.stripes());
+
+            ExecutorService writers = Executors.newFixedThreadPool(WRITERS);
+            try {
+                write(driver, writers, model, movieId, 0, WARMUP_PER_WRITER);
+                long start = System.nanoTime();
+                List<Write> writes = write(driver, writers, model, movieId, WARMUP_PER_WRITER, WRITES_PER_WRITER);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                report(model, writes, seconds);
+            } finally {
+                writers.shutdown();
+            }
+
+            RatingAggregateService.RatingAggregate stored = aggregateService.getAggregate(movieId);
+            try (Session session = driver.session()) {
+                Record actual = session.run("""
+                        MATCH (m:Movie)<-[r:RATED]-(:User)
+                        WHERE elementId(m) = $movieId
+                        RETURN count(r) AS count, sum(r.rating) AS sum
+                        """, Map.of("movieId", movieId)).single();
+                assertEquals(actual.get("count").asLong(), stored.count(), model.name() + ": stored count");
+                assertEquals(actual.get("sum").asLong(), stored.sum(), model.name() + ": stored sum");
+            }
+        }
+    }
+
+    /**
+     * Every writer rates the movie as its own users in turn: first ratings
+     * until each of them has one, changed ratings after that.
+     */
+    private static List<Write> write(Driver driver, ExecutorService writers, Model model, String movieId, int from,
+            int count) throws Exception {
+        List<Future<List<Write>>> results = new ArrayList<>();
+        for (int writer = 0; writer < WRITERS; writer++) {
+            int id = writer;
+            results.add(writers.submit(() -> {
+                List<Write> writes = new ArrayList<>(count);
+                try (Session session = driver.session()) {
+                    for (int i = from; i < from + count; i++) {
+                        int user = id * (USERS / WRITERS) + i % (USERS / WRITERS) + 1;
+                        String email = "user" + user + "@graphflix.test";
+                        Map<String, Object> parameters = Map.of(
+                                "email", email, "movieId", movieId, "rating", i % 10 + 1, "comment", "",
+                                "timestamp", FIRST.plusMinutes(i), "id", (long) id * 1_000_000 + i,
+                                "stripeKey", RatingAggregateService.stripeKey(email), "writer", "writer-" + id);
+                        TransactionConfig config = TransactionConfig.builder()
+                                .withMetadata(Map.of("writer", "writer-" + id))
+                                .build();
+                        long start = System.nanoTime();
+                        long waitMicros = 0;
+                        int retries = 0;
+                        // Retried by hand rather than by executeWrite, to count the deadlocks
+                        while (true) {
+                            try (Transaction tx = session.beginTransaction(config)) {
+                                tx.run(model.upsert(), parameters).consume();
+                                IsoDuration waited = tx.run(OWN_WAIT_QUERY, parameters).single().get("waitTime")
+                                        .asIsoDuration();
+                                waitMicros += waited.seconds() * 1_000_000 + waited.nanoseconds() / 1_000;
+                                tx.commit();
+                                break;
+                            } catch (TransientException e) {
+                                retries++;
+                            }
+                        }
+                        writes.add(new Write(System.nanoTime() - start, waitMicros, retries));
+                    }
+                }
+                return writes;
+            }));
+        }
+        List<Write> writes = new ArrayList<>();
+        for (Future<List<Write>> result : results) {
+            writes.addAll(result.get());
+        }
+        return writes;
+    }
+
+    private static void report(Model model, List<Write> writes, double seconds) {
+        long[] nanos = writes.stream().mapToLong(Write::nanos).sorted().toArray();
+        long[] waits = writes.stream().mapToLong(Write::waitMicros).sorted().toArray();
+        log.info("[AggregateStripingBenchmarkTest] {}", String.format(
+                "%-18s %6.0f w/s  p50 %7d us  p99 %8d us  mean %8.1f us  p99 %8d us  %d", model.name(),
+                writes.size() / seconds, nanos[nanos.length / 2] / 1_000,
+                nanos[nanos.length * 99 / 100] / 1_000, Arrays.stream(waits).average().orElse(0),
+                waits[waits.length * 99 / 100], writes.stream().mapToInt(Write::retries).sum()));
+    }
+
+    private static String statement(Class<?> type, String name) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return (String) field.get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
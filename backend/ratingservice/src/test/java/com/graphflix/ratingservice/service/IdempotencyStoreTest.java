@@ -0,0 +1,67 @@
+package com.graphflix.ratingservice.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class IdempotencyStoreTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final IdempotencyStore store = new IdempotencyStore(meterRegistry, 100, Duration.ofHours(1));
+    private final AtomicInteger writes = new AtomicInteger();
+
+    @Test
+    void replaysTheStoredResponseWithoutRunningAgain() {
+        ResponseEntity<?> first = store.execute("user@graphflix.test", "key-1", "POST|movie-1|8", this::write);
+        ResponseEntity<?> retry = store.execute("user@graphflix.test", "key-1", "POST|movie-1|8", this::write);
+
+        assertEquals(1, writes.get());
+        assertEquals(first.getBody(), retry.getBody());
+        assertNull(first.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(0.5, meterRegistry.get("rating.idempotency.hit.ratio").gauge().value());
+    }
+
+    @Test
+    void scopesKeysToTheCaller() {
+        store.execute("user1@graphflix.test", "key-1", "POST|movie-1|8", this::write);
+        store.execute("user2@graphflix.test", "key-1", "POST|movie-1|8", this::write);
+
+        assertEquals(2, writes.get());
+    }
+
+    @Test
+    void refusesAKeyReusedForAnotherRequest() {
+        store.execute("user@graphflix.test", "key-1", "POST|movie-1|8", this::write);
+        ResponseEntity<?> reused = store.execute("user@graphflix.test", "key-1", "POST|movie-1|3", this::write);
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void releasesTheKeyAfterAFailure() {
+        assertThrows(IllegalStateException.class, () -> store.execute("user@graphflix.test", "key-1",
+                "DELETE|42", () -> {
+                    throw new IllegalStateException("Neo4j unavailable");
+                }));
+        store.execute("user@graphflix.test", "key-1", "DELETE|42",
+                () -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+        ResponseEntity<?> retry = store.execute("user@graphflix.test", "key-1", "DELETE|42", this::write);
+
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        assertEquals(1, writes.get());
+    }
+
+    private ResponseEntity<?> write() {
+        return ResponseEntity.ok("rating-" + writes.incrementAndGet());
+    }
+}
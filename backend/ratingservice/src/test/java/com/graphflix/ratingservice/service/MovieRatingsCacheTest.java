@@ -0,0 +1,106 @@
+package com.graphflix.ratingservice.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseCookie;
+
+import com.graphflix.ratingservice.dto.RatingDTO;
+import com.graphflix.ratingservice.model.Rating;
+import com.graphflix.ratingservice.service.MovieRatingsCache.RatingsChanged;
+import com.graphflix.ratingservice.service.RatingCursor.SortKey;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MovieRatingsCacheTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private final MovieRatingsCache cache = new MovieRatingsCache(new SimpleMeterRegistry(), 100, 3, Duration.ofMinutes(1));
+
+    @Test
+    void showsTheWritersRatingOnTheFirstPage() {
+        cache.put("movie-1", SortKey.TIMESTAMP, rows(5), cache.generation("movie-1"));
+
+        cache.onRatingsChanged(new RatingsChanged(List.of(rating(3, 9, NOW.plusHours(1))), List.of()));
+
+        List<RatingDTO> page = cache.firstRows("movie-1", SortKey.TIMESTAMP, 2).orElseThrow();
+        assertEquals(List.of(3L, 5L, 4L), page.stream().map(RatingDTO::getId).toList());
+        assertEquals(9, page.get(0).getRating());
+    }
+
+    @Test
+    void ordersByRatingThenId() {
+        cache.put("movie-1", SortKey.RATING, List.of(dto(1, 8, NOW), dto(2, 5, NOW)), cache.generation("movie-1"));
+
+        cache.onRatingsChanged(new RatingsChanged(List.of(rating(7, 5, NOW), rating(1, 2, NOW)), List.of()));
+
+        List<RatingDTO> page = cache.firstRows("movie-1", SortKey.RATING, 10).orElseThrow();
+        assertEquals(List.of(7L, 2L, 1L), page.stream().map(RatingDTO::getId).toList());
+    }
+
+    @Test
+    void missesOnceDeletesLeaveTooFewRowsForThePage() {
+        cache.put("movie-1", SortKey.TIMESTAMP, rows(5), cache.generation("movie-1"));
+
+        cache.onRatingsChanged(new RatingsChanged(List.of(), List.of(rating(5, 1, NOW.plusMinutes(5)))));
+
+        assertEquals(List.of(4L, 3L), cache.firstRows("movie-1", SortKey.TIMESTAMP, 1).orElseThrow()
+                .stream().map(RatingDTO::getId).toList());
+        assertTrue(cache.firstRows("movie-1", SortKey.TIMESTAMP, 2).isEmpty());
+    }
+
+    @Test
+    void dropsLoadsThatRacedAWrite() {
+        long generation = cache.generation("movie-1");
+        cache.onRatingsChanged(new RatingsChanged(List.of(rating(6, 9, NOW.plusHours(1))), List.of()));
+
+        cache.put("movie-1", SortKey.TIMESTAMP, rows(5), generation);
+
+        assertTrue(cache.firstRows("movie-1", SortKey.TIMESTAMP, 1).isEmpty());
+    }
+
+    @Test
+    void invalidatingDropsTheMovieAndLoadsStartedBefore() {
+        long generation = cache.generation("movie-1");
+        cache.put("movie-1", SortKey.TIMESTAMP, rows(5), generation);
+        cache.put("movie-1", SortKey.RATING, rows(5), generation);
+
+        cache.invalidate("movie-1");
+        cache.put("movie-1", SortKey.TIMESTAMP, rows(5), generation);
+
+        assertTrue(cache.firstRows("movie-1", SortKey.TIMESTAMP, 1).isEmpty());
+        assertTrue(cache.firstRows("movie-1", SortKey.RATING, 1).isEmpty());
+    }
+
+    @Test
+    void recentRaterCookieOutlivesEntriesLoadedBeforeTheWrite() {
+        ResponseCookie cookie = cache.recentRaterCookie();
+
+        assertEquals(MovieRatingsCache.RECENT_RATER_COOKIE, cookie.getName());
+        assertEquals(Duration.ofMinutes(2), cookie.getMaxAge());
+        assertTrue(cookie.isHttpOnly());
+    }
+
+    /** Ratings 1..count of movie-1, newest first, as a load reads them. */
+    private static List<RatingDTO> rows(int count) {
+        List<RatingDTO> rows = new ArrayList<>();
+        for (int id = count; id >= 1; id--) {
+            rows.add(dto(id, id, NOW.plusMinutes(id)));
+        }
+        return rows;
+    }
+
+    private static RatingDTO dto(long id, int stars, LocalDateTime timestamp) {
+        return RatingService.toDTO(rating(id, stars, timestamp));
+    }
+
+    private static Rating rating(long id, int stars, LocalDateTime timestamp) {
+        return Rating.builder().id(id).rating(stars).timestamp(timestamp).userId("user" + id).movieId("movie-1").build();
+    }
+}
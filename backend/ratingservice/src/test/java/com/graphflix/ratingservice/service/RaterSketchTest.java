@@ -0,0 +1,67 @@
+package com.graphflix.ratingservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class RaterSketchTest {
+
+    @Test
+    void estimatesWithinFourStandardErrors() {
+        for (int raters : new int[] {1, 10, 100, 1_000, 5_000, 20_000, 200_000}) {
+            RaterSketch sketch = sketchOf(0, raters);
+
+            double error = Math.abs(sketch.estimate() - raters) / (double) raters;
+            assertTrue(error <= 4 * RaterSketch.RELATIVE_STANDARD_ERROR,
+                    raters + " raters estimated as " + sketch.estimate());
+        }
+    }
+
+    @Test
+    void countsRepeatedRatersOnce() {
+        RaterSketch sketch = sketchOf(0, 1_000);
+        RaterSketch again = sketchOf(0, 1_000);
+        again.merge(sketchOf(0, 1_000));
+
+        assertEquals(sketch.estimate(), again.estimate());
+        assertEquals(0, new RaterSketch().estimate());
+    }
+
+    @Test
+    void mergesToTheSketchOfTheUnion() {
+        RaterSketch left = sketchOf(0, 3_000);
+        left.merge(sketchOf(2_000, 6_000));
+
+        assertArrayEquals(sketchOf(0, 6_000).toBytes(), left.toBytes());
+    }
+
+    @Test
+    void roundTripsSparseAndDenseSketches() {
+        for (int raters : new int[] {0, 50, 50_000}) {
+            RaterSketch sketch = sketchOf(0, raters);
+            byte[] bytes = sketch.toBytes();
+
+            RaterSketch decoded = RaterSketch.fromBytes(bytes);
+            assertArrayEquals(bytes, decoded.toBytes());
+            assertEquals(sketch.estimate(), decoded.estimate());
+        }
+        assertTrue(sketchOf(0, 50).toBytes().length < 200, "small sketches stay sparse");
+    }
+
+    @Test
+    void rejectsMalformedBytes() {
+        assertThrows(IllegalArgumentException.class, () -> RaterSketch.fromBytes(new byte[] {7, 1, 2}));
+        assertThrows(IllegalArgumentException.class, () -> RaterSketch.fromBytes(new byte[] {0, 1, 2}));
+        assertThrows(IllegalArgumentException.class, () -> RaterSketch.fromBytes(new byte[] {0, 0x7F, 0, 1}));
+    }
+
+    private static RaterSketch sketchOf(int from, int to) {
+        RaterSketch sketch = new RaterSketch();
+        for (int i = from; i < to; i++) {
+            sketch.add("user" + i + "@graphflix.test");
+        }
+        return sketch;
+    }
+}
@@ -0,0 +1,28 @@
+package com.graphflix.ratingservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class RatingAggregateServiceTest {
+
+    @Test
+    void deltaFoldsChangedRatings() {
+        RatingAggregateService.Delta delta = new RatingAggregateService.Delta().add(8).add(3).remove(3);
+
+        assertEquals(1, delta.count());
+        assertEquals(8, delta.sum());
+    }
+
+    @Test
+    void deltaRejectsRatingsOutsideTheHistogram() {
+        RatingAggregateService.Delta delta = new RatingAggregateService.Delta();
+
+        assertThrows(IllegalArgumentException.class, () -> delta.add(0));
+        assertThrows(IllegalArgumentException.class, () -> delta.add(11));
+        assertThrows(IllegalArgumentException.class, () -> delta.remove(-1));
+        assertTrue(delta.isEmpty());
+        assertEquals(0, delta.count());
+    }
+}
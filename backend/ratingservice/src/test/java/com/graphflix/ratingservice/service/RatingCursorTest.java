@@ -0,0 +1,46 @@
+package com.graphflix.ratingservice.service;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+class RatingCursorTest {
+
+    @Test
+    void roundTripsTimestampCursors() {
+        String value = LocalDateTime.of(2024, 6, 1, 12, 0, 0, 123_456_789).toString();
+        RatingCursor cursor = new RatingCursor(RatingCursor.SortKey.TIMESTAMP, value, 42L);
+
+        assertEquals(cursor, RatingCursor.decode(cursor.encode(), RatingCursor.SortKey.TIMESTAMP));
+    }
+
+    @Test
+    void firstCursorSortsAfterEveryValue() {
+        RatingCursor first = RatingCursor.first(RatingCursor.SortKey.TIMESTAMP);
+
+        assertEquals(LocalDateTime.MAX, LocalDateTime.parse(first.value()));
+        assertEquals(first, RatingCursor.decode(first.encode(), RatingCursor.SortKey.TIMESTAMP));
+    }
+
+    @Test
+    void rejectsCursorsOfAnotherSortKey() {
+        String token = new RatingCursor(RatingCursor.SortKey.RATING, "7", 42L).encode();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> RatingCursor.decode(token, RatingCursor.SortKey.TIMESTAMP));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThrows(IllegalArgumentException.class,
+                () -> RatingCursor.decode("not base64!", RatingCursor.SortKey.RATING));
+        assertThrows(IllegalArgumentException.class,
+                () -> RatingCursor.decode(new RatingCursor(RatingCursor.SortKey.RATING, "seven", 42L).encode(),
+                        RatingCursor.SortKey.RATING));
+        assertThrows(IllegalArgumentException.class,
+                () -> RatingCursor.decode(new RatingCursor(RatingCursor.SortKey.RATING, "7", 42L).encode()
+                        .substring(0, 4), RatingCursor.SortKey.RATING));
+    }
+}
@@ -0,0 +1,83 @@
+package com.graphflix.ratingservice.service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.apache.avro.data.TimeConversions;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.graphflix.ratingservice.model.RatingEvent;
+
+class RatingEventCodecTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2024, 6, 1, 12, 0, 0, 123_456_000);
+
+    private static final List<RatingEvent> EVENTS = List.of(
+            event("RATING_CREATED", 8, "Great pacing, the second act drags a little"),
+            event("RATING_UPDATED", 3, ""),
+            event("RATING_DELETED", 3, null));
+
+    private final RatingEventCodec codec = new RatingEventCodec();
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void decodingAnEncodedEventGivesTheSameEvent() throws IOException {
+        GenericData model = new GenericData();
+        model.addLogicalTypeConversion(new TimeConversions.LocalTimestampMicrosConversion());
+        BinaryMessageDecoder<GenericRecord> decoder = new BinaryMessageDecoder<>(model, RatingEventCodec.SCHEMA);
+
+        for (RatingEvent event : EVENTS) {
+            GenericRecord record = decoder.decode(codec.encode(event));
+            RatingEvent decoded = RatingEvent.builder()
+                    .eventType(string(record.get("eventType")))
+                    .ratingId((Long) record.get("ratingId"))
+                    .userId(string(record.get("userId")))
+                    .movieId(string(record.get("movieId")))
+                    .rating((Integer) record.get("rating"))
+                    .comment(string(record.get("comment")))
+                    .timestamp((LocalDateTime) record.get("timestamp"))
+                    .build();
+
+            assertEquals(event, decoded);
+        }
+    }
+
+    @Test
+    void encodedEventsAreSmallerThanJson() throws IOException {
+        for (RatingEvent event : EVENTS) {
+            int avro = codec.encode(event).length;
+            int json = objectMapper.writeValueAsBytes(event).length;
+
+            assertTrue(avro < json, event.getEventType() + " is " + avro + " bytes in Avro, " + json + " in JSON");
+        }
+    }
+
+    private static RatingEvent event(String eventType, int rating, String comment) {
+        return RatingEvent.builder()
+                .eventType(eventType)
+                .ratingId(100_042L)
+                .userId("user42@graphflix.test")
+                .movieId("4:6f1c2a9e-3b1d-4c55-9a0e-2f6d8b7c1e44:1234")
+                .rating(rating)
+                .comment(comment)
+                .timestamp(AT)
+                .build();
+    }
+
+    // Avro hands strings and enum symbols back as CharSequence implementations
+    private static String string(Object value) {
+        return value == null ? null : value.toString();
+    }
+}
@@ -0,0 +1,139 @@
+package com.graphflix.ratingservice.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.apache.kafka.common.compress.Compression;
+import org.apache.kafka.common.record.CompressionType;
+import org.apache.kafka.common.record.MemoryRecords;
+import org.apache.kafka.common.record.MemoryRecordsBuilder;
+import org.apache.kafka.common.record.Record;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.graphflix.ratingservice.model.RatingEvent;
+
+/**
+ * Compares the JSON and Avro encodings of rating events: bytes per event on
+ * the wire and producer-side throughput, i.e. encoding the events and packing
+ * them into Kafka record batches of {@code batch.size} bytes with each
+ * compression codec. No broker is involved, so the numbers isolate the cost
+ * the producer pays per event. {@link RatingEventCodecTest} covers the
+ * round trip and the size of single events.
+ * Results are logged as a table. Excluded from the default build; run it
+ * with {@code mvn test -Pbenchmark -Dtest=RatingEventEncodingBenchmarkTest}.
+ */
+@Tag("benchmark")
+class RatingEventEncodingBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RatingEventEncodingBenchmarkTest.class);
+
+    private static final int EVENTS = 20_000;
+    private static final int BATCH_SIZE = 64 * 1024;
+    private static final int ROUNDS = 5;
+
+    private interface Encoder {
+        byte[] encode(RatingEvent event) throws Exception;
+    }
+
+    private final RatingEventCodec codec = new RatingEventCodec();
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void measuresEncodedSizeAndThroughput() throws Exception {
+        List<RatingEvent> events = events();
+        Encoder json = objectMapper::writeValueAsBytes;
+        Encoder avro = codec::encode;
+
+        log.info("[RatingEventEncodingBenchmarkTest] {} events, batch.size {} bytes", EVENTS, BATCH_SIZE);
+        log.info("[RatingEventEncodingBenchmarkTest] {}", String.format("%-6s %-6s %14s %16s",
+                "format", "codec", "bytes/event", "events/sec"));
+        double jsonRaw = 0;
+        double avroRaw = 0;
+        for (CompressionType type : List.of(CompressionType.NONE, CompressionType.LZ4, CompressionType.ZSTD)) {
+            double jsonBytes = run("json", json, type, events);
+            double avroBytes = run("avro", avro, type, events);
+            if (type == CompressionType.NONE) {
+                jsonRaw = jsonBytes;
+                avroRaw = avroBytes;
+            }
+        }
+        assertTrue(avroRaw < jsonRaw, "Avro events should be smaller than JSON events before compression");
+    }
+
+    /**
+     * Returns the batched bytes per event after logging them together with
+     * the best throughput over a few rounds, the first of which warms up.
+     */
+    private double run(String format, Encoder encoder, CompressionType type, List<RatingEvent> events)
+            throws Exception {
+        long bestNanos = Long.MAX_VALUE;
+        long bytes = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            bytes = produce(encoder, type, events);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+        double bytesPerEvent = (double) bytes / events.size();
+        log.info("[RatingEventEncodingBenchmarkTest] {}", String.format("%-6s %-6s %14.1f %16.0f",
+                format, type.name, bytesPerEvent, events.size() / (bestNanos / 1e9)));
+        return bytesPerEvent;
+    }
+
+    private static long produce(Encoder encoder, CompressionType type, List<RatingEvent> events) throws Exception {
+        Compression compression = Compression.of(type).build();
+        long total = 0;
+        MemoryRecordsBuilder batch = newBatch(compression);
+        for (RatingEvent event : events) {
+            byte[] key = event.getMovieId().getBytes(StandardCharsets.UTF_8);
+            byte[] value = encoder.encode(event);
+            long now = System.currentTimeMillis();
+            if (!batch.hasRoomFor(now, key, value, Record.EMPTY_HEADERS)) {
+                total += close(batch);
+                batch = newBatch(compression);
+            }
+            batch.append(now, key, value);
+        }
+        return total + close(batch);
+    }
+
+    private static MemoryRecordsBuilder newBatch(Compression compression) {
+        return MemoryRecords.builder(ByteBuffer.allocate(BATCH_SIZE), compression, TimestampType.CREATE_TIME, 0L);
+    }
+
+    private static long close(MemoryRecordsBuilder batch) {
+        MemoryRecords records = batch.build();
+        return records.sizeInBytes();
+    }
+
+    private static List<RatingEvent> events() {
+        String[] types = {"RATING_CREATED", "RATING_UPDATED", "RATING_DELETED"};
+        LocalDateTime base = LocalDateTime.of(2024, 6, 1, 12, 0);
+        List<RatingEvent> events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            events.add(RatingEvent.builder()
+                    .eventType(types[i % 7 == 0 ? 2 : i % 3 == 0 ? 1 : 0])
+                    .ratingId(100_000L + i)
+                    .userId("user" + (i * 31 % 5_000) + "@graphflix.test")
+                    .movieId("4:6f1c2a9e-3b1d-4c55-9a0e-2f6d8b7c1e44:" + (i * 17 % 9_000))
+                    .rating(i % 10 + 1)
+                    .comment(i % 4 == 0 ? "Great pacing, the second act drags a little" : "")
+                    .timestamp(base.plusSeconds(i).plusNanos(i % 1000 * 1000L))
+                    .build());
+        }
+        return events;
+    }
+}
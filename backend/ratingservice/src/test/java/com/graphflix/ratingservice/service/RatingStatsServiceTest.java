@@ -0,0 +1,35 @@
+package com.graphflix.ratingservice.service;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+class RatingStatsServiceTest {
+
+    // 10 ratings: one 2, three 5s, four 8s and two 10s
+    private static final List<Long> HISTOGRAM = List.of(0L, 1L, 0L, 0L, 3L, 0L, 0L, 4L, 0L, 2L);
+
+    @Test
+    void readsNearestRankPercentilesOffTheHistogram() {
+        assertEquals(2, RatingStatsService.percentile(HISTOGRAM, 10, 0.1));
+        assertEquals(5, RatingStatsService.percentile(HISTOGRAM, 10, 0.4));
+        assertEquals(8, RatingStatsService.percentile(HISTOGRAM, 10, 0.5));
+        assertEquals(8, RatingStatsService.percentile(HISTOGRAM, 10, 0.8));
+        assertEquals(10, RatingStatsService.percentile(HISTOGRAM, 10, 0.9));
+        assertEquals(10, RatingStatsService.percentile(HISTOGRAM, 10, 1.0));
+    }
+
+    @Test
+    void ranksQuantilesWithoutBinaryRoundingErrors() {
+        // 7 ones, then 93 twos: p7 is the 7th rating
+        List<Long> histogram = List.of(7L, 93L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L);
+
+        assertEquals(1, RatingStatsService.percentile(histogram, 100, 0.07));
+    }
+
+    @Test
+    void smallQuantilesReadTheLowestRating() {
+        assertEquals(2, RatingStatsService.percentile(HISTOGRAM, 10, 0.001));
+    }
+}
@@ -0,0 +1,253 @@
+package com.graphflix.ratingservice.service;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.AuthTokens;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.GraphDatabase;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Session;
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.graphflix.ratingservice.repository.RatingRepository;
+
+/**
+ * Compares write and read latency of storing each rating both as a Rating
+ * node and as a RATED relationship, as ratings used to be, with storing it
+ * only as the relationship. Both models get the same users, movies and
+ * ratings in their own embedded database with their own indexes, then run
+ * the same upserts, rating-list pages and lookups one transaction at a time.
+ * Results are logged as a table. Excluded from the default build; run it
+ * with {@code mvn test -Pbenchmark -Dtest=RatingStorageBenchmarkTest}.
+ */
+@Tag("benchmark")
+class RatingStorageBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RatingStorageBenchmarkTest.class);
+
+    private static final int MOVIES = 500;
+    private static final int USERS = 400;
+    private static final int RATINGS_PER_USER = 25;
+    private static final int OPERATIONS = 2_000;
+    private static final int WARMUP = 500;
+    private static final LocalDateTime FIRST = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private static final List<String> LEGACY_SCHEMA = List.of(
+            "CREATE INDEX user_email FOR (u:User) ON (u.email)",
+            "CREATE INDEX rating_user_timestamp FOR (r:Rating) ON (r.userId, r.timestamp)",
+            "CREATE INDEX rating_movie_timestamp FOR (r:Rating) ON (r.movieId, r.timestamp)",
+            "CREATE CONSTRAINT rating_user_movie_unique FOR (r:Rating) REQUIRE (r.userId, r.movieId) IS UNIQUE");
+
+    private static final List<String> SCHEMA = List.of(
+            "CREATE INDEX user_email FOR (u:User) ON (u.email)",
+            "CREATE INDEX rated_user_timestamp FOR ()-[r:RATED]-() ON (r.userId, r.timestamp)",
+            "CREATE INDEX rated_movie_timestamp FOR ()-[r:RATED]-() ON (r.movieId, r.timestamp)",
+            "CREATE CONSTRAINT rated_id_unique FOR ()-[r:RATED]-() REQUIRE r.id IS UNIQUE");
+
+    // The statements as they were while every rating was also a Rating node
+    private static final String LEGACY_UPSERT_QUERY = """
+            MATCH (u:User {email: $email})
+            MATCH (m:Movie)
+            WHERE elementId(m) = $movieId
+            MERGE (r:Rating {userId: $email, movieId: $movieId})
+            SET r._lock = true
+            WITH u, m, r, r.rating AS previous
+            SET r.rating = $rating, r.comment = $comment, r.timestamp = $timestamp,
+                r.userName = u.name, r.movieTitle = m.title
+            REMOVE r._lock
+            MERGE (u)-[rated:RATED]->(m)
+            SET rated.rating = $rating, rated.comment = coalesce($comment, ''), rated.timestamp = $timestampText
+            WITH u, m, r, previous
+            SET m._aggregateLock = true
+            FOREACH (_ IN CASE WHEN m.ratingCount IS NOT NULL AND m.ratingHistogram IS NOT NULL THEN [1] ELSE [] END |
+                SET m.ratingCount = m.ratingCount + CASE WHEN previous IS NULL THEN 1 ELSE 0 END,
+                    m.ratingSum = m.ratingSum + $rating - coalesce(previous, 0),
+                    m.ratingSumSq = m.ratingSumSq + $rating * $rating - coalesce(previous * previous, 0),
+                    m.ratingHistogram = [slot IN range(0, 9) | m.ratingHistogram[slot]
+                        + CASE slot WHEN $rating - 1 THEN 1 ELSE 0 END
+                        - CASE slot WHEN previous - 1 THEN 1 ELSE 0 END])
+            REMOVE m._aggregateLock
+            RETURN id(r) AS ratingId, previous, u.name AS userName, m.title AS movieTitle,
+                   m.ratingHistogram IS NOT NULL AS aggregated
+            """;
+
+    private static final String LEGACY_USER_PAGE_QUERY = """
+            MATCH (r:Rating)
+            WHERE r.userId = $ownerId AND r.timestamp <= localdatetime($after)
+              AND (r.timestamp < localdatetime($after) OR id(r) < $afterId)
+            RETURN r, id(r) AS id
+            ORDER BY r.userId DESC, r.timestamp DESC, id DESC
+            LIMIT $limit
+            """;
+
+    private static final String LEGACY_MOVIE_PAGE_QUERY = """
+            MATCH (r:Rating)
+            WHERE r.movieId = $ownerId AND r.timestamp <= localdatetime($after)
+              AND (r.timestamp < localdatetime($after) OR id(r) < $afterId)
+            RETURN r, id(r) AS id
+            ORDER BY r.movieId DESC, r.timestamp DESC, id DESC
+            LIMIT $limit
+            """;
+
+    private static final String LEGACY_LOOKUP_QUERY = """
+            MATCH (r:Rating {userId: $userId, movieId: $movieId})
+            RETURN r, id(r) AS id
+            """;
+
+    private static final String UPSERT_QUERY = statement(RatingService.class, "UPSERT_RATING_QUERY");
+    private static final String USER_PAGE_QUERY = statement(RatingService.class, "USER_RATINGS_BY_TIMESTAMP_QUERY");
+    private static final String MOVIE_PAGE_QUERY = statement(RatingService.class, "MOVIE_RATINGS_BY_TIMESTAMP_QUERY");
+    private static final String LOOKUP_QUERY = statement(RatingRepository.class, "FIND_BY_USER_AND_MOVIE_QUERY");
+
+    private record Model(String name, List<String> schema, String upsert, String userPage, String moviePage,
+            String lookup) {}
+
+    private record Latency(long p50Micros, long p99Micros, double meanMicros) {
+        static Latency of(long[] nanos) {
+            long[] sorted = nanos.clone();
+            Arrays.sort(sorted);
+            return new Latency(sorted[sorted.length / 2] / 1_000, sorted[sorted.length * 99 / 100] / 1_000,
+                    Arrays.stream(sorted).average().orElse(0) / 1_000);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("p50 %6d us  p99 %6d us  mean %8.1f us", p50Micros, p99Micros, meanMicros);
+        }
+    }
+
+    @Test
+    void comparesNodeAndRelationshipStorage() {
+        Model legacy = new Model("Rating node + RATED", LEGACY_SCHEMA, LEGACY_UPSERT_QUERY,
+                LEGACY_USER_PAGE_QUERY, LEGACY_MOVIE_PAGE_QUERY, LEGACY_LOOKUP_QUERY);
+        Model current = new Model("RATED only", SCHEMA, UPSERT_QUERY,
+                USER_PAGE_QUERY, MOVIE_PAGE_QUERY, LOOKUP_QUERY);
+
+        List<String> legacyPage = new ArrayList<>();
+        List<String> currentPage = new ArrayList<>();
+        log.info("[RatingStorageBenchmarkTest] {}", String.format("%-22s %-10s %s", "model", "operation", "latency"));
+        run(legacy, legacyPage);
+        run(current, currentPage);
+
+        assertEquals(legacyPage, currentPage, "both models return the same ratings");
+    }
+
+    private void run(Model model, List<String> firstPage) {
+        try (Neo4j neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().build();
+                Driver driver = GraphDatabase.driver(neo4j.boltURI(), AuthTokens.none());
+                Session session = driver.session()) {
+            model.schema().forEach(statement -> session.run(statement).consume());
+            session.run("CALL db.awaitIndexes(300)").consume();
+            session.run("""
+                    UNWIND range(1, $movies) AS i
+                    CREATE (:Movie {title: 'Movie ' + i, ratingCount: 0, ratingSum: 0, ratingSumSq: 0,
+                                    ratingHistogram: [0, 0, 0, 0, 0, 0, 0, 0, 0, 0]})
+                    """, Map.of("movies", MOVIES)).consume();
+            session.run("""
+                    UNWIND range(1, $users) AS i
+                    CREATE (:User {name: 'User ' + i, email: 'user' + i + '@graphflix.test'})
+                    """, Map.of("users", USERS)).consume();
+            List<String> movieIds = session.run("MATCH (m:Movie) RETURN elementId(m) AS id ORDER BY m.title")
+                    .list(record -> record.get("id").asString());
+
+            long[] nextId = {1};
+            IntFunction<Map<String, Object>> upsert = i -> {
+                int user = i % USERS + 1;
+                int movie = (user * 7 + i / USERS * 13) % MOVIES;
+                LocalDateTime timestamp = FIRST.plusMinutes(i);
+                String email = "user" + user + "@graphflix.test";
+                return Map.of("email", email, "movieId", movieIds.get(movie),
+                        "rating", i % 10 + 1, "comment", "", "timestamp", timestamp,
+                        "timestampText", timestamp.toString(), "id", nextId[0]++,
+                        "stripeKey", RatingAggregateService.stripeKey(email));
+            };
+            for (int i = 0; i < USERS * RATINGS_PER_USER; i++) {
+                Map<String, Object> parameters = upsert.apply(i);
+                session.executeWrite(tx -> tx.run(model.upsert(), parameters).consume());
+            }
+            session.run("CALL db.resampleOutdatedIndexes()").consume();
+
+            // Half of the timed upserts rate a movie again, half rate a new one
+            int base = USERS * RATINGS_PER_USER - WARMUP - OPERATIONS / 2;
+            report(model, "upsert", time(i -> {
+                Map<String, Object> parameters = upsert.apply(base + i);
+                session.executeWrite(tx -> tx.run(model.upsert(), parameters).consume());
+            }));
+            report(model, "user page", time(i -> session.executeRead(tx -> tx.run(model.userPage(), Map.of(
+                    "ownerId", "user" + (i % USERS + 1) + "@graphflix.test",
+                    "after", "+999999999-12-31T23:59:59.999999999",
+                    "afterId", Long.MAX_VALUE, "limit", 20)).consume())));
+            report(model, "movie page", time(i -> session.executeRead(tx -> tx.run(model.moviePage(), Map.of(
+                    "ownerId", movieIds.get(i % MOVIES),
+                    "after", "+999999999-12-31T23:59:59.999999999",
+                    "afterId", Long.MAX_VALUE, "limit", 20)).consume())));
+            report(model, "lookup", time(i -> session.executeRead(tx -> tx.run(model.lookup(), Map.of(
+                    "userId", "user" + (i % USERS + 1) + "@graphflix.test",
+                    "movieId", movieIds.get((i % USERS + 1) * 7 % MOVIES))).consume())));
+
+            Record storage = session.run("""
+                    RETURN COUNT { MATCH (:Rating) } AS nodes, COUNT { MATCH ()-[:RATED]->() } AS relationships
+                    """).single();
+            log.info("[RatingStorageBenchmarkTest] {}", String.format(
+                    "%-22s %-10s %d Rating nodes, %d RATED relationships", model.name(), "storage",
+                    storage.get("nodes").asLong(), storage.get("relationships").asLong()));
+
+            session.executeRead(tx -> tx.run(model.userPage(), Map.of(
+                    "ownerId", "user1@graphflix.test", "after", "+999999999-12-31T23:59:59.999999999",
+                    "afterId", Long.MAX_VALUE, "limit", 20)).list(RatingStorageBenchmarkTest::describe))
+                    .forEach(firstPage::add);
+        }
+    }
+
+    private interface Operation {
+        void run(int i);
+    }
+
+    private static long[] time(Operation operation) {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run(i);
+        }
+        long[] nanos = new long[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            long start = System.nanoTime();
+            operation.run(WARMUP + i);
+            nanos[i] = System.nanoTime() - start;
+        }
+        return nanos;
+    }
+
+    private static void report(Model model, String operation, long[] nanos) {
+        log.info("[RatingStorageBenchmarkTest] {}", String.format("%-22s %-10s %s", model.name(), operation,
+                Latency.of(nanos)));
+    }
+
+    private static String describe(Record record) {
+        if (record.containsKey("r")) {
+            var node = record.get("r").asNode();
+            return node.get("movieTitle").asString() + "=" + node.get("rating").asInt();
+        }
+        return record.get("movieTitle").asString() + "=" + record.get("rating").asInt();
+    }
+
+    private static String statement(Class<?> type, String name) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return (String) field.get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
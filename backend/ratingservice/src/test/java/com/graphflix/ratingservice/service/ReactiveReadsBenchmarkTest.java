@@ -0,0 +1,228 @@
+package com.graphflix.ratingservice.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.AuthTokens;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.GraphDatabase;
+import org.neo4j.driver.Session;
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.data.neo4j.core.ReactiveNeo4jClient;
+import org.springframework.data.neo4j.core.transaction.Neo4jTransactionManager;
+
+import com.graphflix.ratingservice.repository.RatingIdAllocator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Compares the blocking reads of {@link RatingService} with the reactive ones
+ * of {@link ReactiveRatingService} under load. Both serve the same mix of
+ * user pages, movie pages and averages from one embedded database through a
+ * fixed pool of request threads, standing in for the servlet container's.
+ * A blocking read holds its request thread until Neo4j answers; a reactive
+ * one only subscribes on it. Each run keeps a number of clients busy and
+ * reports throughput and latency, including the time spent waiting for a
+ * request thread. The movie page cache is disabled so every read reaches the
+ * database.
+ *
+ * <p>Against the embedded database, which answers in-process and is bound by
+ * the same CPUs as the clients, both stacks measure within noise of each
+ * other: the reactive reads free request threads but make no read faster.
+ * Only the results against a networked Neo4j, where reads spend their time
+ * waiting, tell whether they pay off.
+ *
+ * <p>Results are logged as a table. Excluded from the default build; run it
+ * with {@code mvn test -Pbenchmark -Dtest=ReactiveReadsBenchmarkTest}.
+ */
+@Tag("benchmark")
+class ReactiveReadsBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveReadsBenchmarkTest.class);
+
+    private static final int MOVIES = 500;
+    private static final int USERS = 400;
+    private static final int RATINGS_PER_USER = 25;
+    private static final int REQUEST_THREADS = 16;
+    private static final int[] CLIENTS = {16, 64, 256};
+    private static final int REQUESTS = 3_000;
+    private static final int WARMUP = 1_000;
+
+    private static final List<String> SCHEMA = List.of(
+            "CREATE INDEX user_email FOR (u:User) ON (u.email)",
+            "CREATE INDEX rated_user_timestamp FOR ()-[r:RATED]-() ON (r.userId, r.timestamp)",
+            "CREATE INDEX rated_user_rating FOR ()-[r:RATED]-() ON (r.userId, r.rating)",
+            "CREATE INDEX rated_movie_timestamp FOR ()-[r:RATED]-() ON (r.movieId, r.timestamp)",
+            "CREATE INDEX rated_movie_rating FOR ()-[r:RATED]-() ON (r.movieId, r.rating)");
+
+    private interface Stack {
+        Mono<?> read(int i);
+    }
+
+    private record Result(double perSecond, long p50Micros, long p99Micros) {
+        @Override
+        public String toString() {
+            return String.format("%8.0f req/s  p50 %7d us  p99 %7d us", perSecond, p50Micros, p99Micros);
+        }
+    }
+
+    @Test
+    void comparesBlockingAndReactiveReads() throws InterruptedException {
+        try (Neo4j neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().build();
+                Driver driver = GraphDatabase.driver(neo4j.boltURI(), AuthTokens.none())) {
+            List<String> movieIds = seed(driver);
+
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            MovieRatingsCache noCache = new MovieRatingsCache(meterRegistry, 0, 101, Duration.ofSeconds(30));
+            RatingCountCache countCache = new RatingCountCache(meterRegistry, 10_000, Duration.ofMinutes(5));
+            Neo4jClient neo4jClient = Neo4jClient.create(driver);
+            // Finds nothing to migrate in the seed, which lets the keyset reads run
+            RatingNodeMigration migration = new RatingNodeMigration(neo4jClient,
+                    new Neo4jTransactionManager(driver), new RatingIdAllocator(driver, 1000), 500);
+            migration.migrateBatch();
+            assertTrue(migration.isFinished());
+            RatingService blocking = new RatingService(null, null, null,
+                    new RatingAggregateService(neo4jClient, event -> { }, 500), null, countCache, noCache,
+                    event -> { }, neo4jClient, migration);
+            ReactiveRatingService reactive = new ReactiveRatingService(ReactiveNeo4jClient.create(driver), noCache,
+                    countCache, migration, meterRegistry, 64);
+
+            IntFunction<String> user = i -> "user" + (i % USERS + 1) + "@graphflix.test";
+            IntFunction<String> movie = i -> movieIds.get(i * 7 % MOVIES);
+            Stack blockingStack = i -> switch (i % 3) {
+                case 0 -> Mono.just(blocking.getUserRatings(user.apply(i), RatingCursor.SortKey.TIMESTAMP, null, 20,
+                        false));
+                case 1 -> Mono.just(blocking.getMovieRatings(movie.apply(i), RatingCursor.SortKey.RATING, null, 20,
+                        false, false));
+                default -> Mono.just(blocking.getAverageRating(movie.apply(i)));
+            };
+            Stack reactiveStack = i -> switch (i % 3) {
+                case 0 -> reactive.getUserRatings(user.apply(i), RatingCursor.SortKey.TIMESTAMP, null, 20, false);
+                case 1 -> reactive.getMovieRatings(movie.apply(i), RatingCursor.SortKey.RATING, null, 20, false,
+                        false);
+                default -> reactive.getAverageRating(movie.apply(i));
+            };
+
+            assertEquals(blockingStack.read(1).block(), reactiveStack.read(1).block(),
+                    "both stacks return the same movie page");
+            assertEquals(blockingStack.read(2).block(), reactiveStack.read(2).block(),
+                    "both stacks return the same average");
+
+            log.info("[ReactiveReadsBenchmarkTest] {}", String.format("%-9s %-8s %s", "stack", "clients",
+                    "throughput and latency"));
+            for (int clients : CLIENTS) {
+                log.info("[ReactiveReadsBenchmarkTest] {}", String.format("%-9s %-8d %s", "blocking", clients,
+                        run(blockingStack, clients, true)));
+                log.info("[ReactiveReadsBenchmarkTest] {}", String.format("%-9s %-8d %s", "reactive", clients,
+                        run(reactiveStack, clients, false)));
+            }
+        }
+    }
+
+    private static List<String> seed(Driver driver) {
+        try (Session session = driver.session()) {
+            SCHEMA.forEach(statement -> session.run(statement).consume());
+            session.run("CALL db.awaitIndexes(300)").consume();
+            session.run("""
+                    UNWIND range(1, $movies) AS i
+                    CREATE (:Movie {title: 'Movie ' + i})
+                    """, Map.of("movies", MOVIES)).consume();
+            session.run("""
+                    UNWIND range(1, $users) AS i
+                    CREATE (:User {name: 'User ' + i, email: 'user' + i + '@graphflix.test'})
+                    """, Map.of("users", USERS)).consume();
+            session.run("""
+                    MATCH (m:Movie)
+                    WITH collect(m) AS movies
+                    MATCH (u:User)
+                    WITH u, movies, toInteger(substring(u.email, 4, size(u.email) - 19)) AS user
+                    UNWIND range(0, $perUser - 1) AS j
+                    WITH u, movies[(user * 7 + j * 13) % size(movies)] AS m, user * 100 + j AS id, j
+                    CREATE (u)-[:RATED {id: id, rating: id % 10 + 1, comment: '',
+                                        timestamp: localdatetime('2024-01-01T00:00') + duration({minutes: id}),
+                                        userId: u.email, movieId: elementId(m)}]->(m)
+                    """, Map.of("perUser", RATINGS_PER_USER)).consume();
+            session.run("""
+                    MATCH (m:Movie)
+                    OPTIONAL MATCH ()-[r:RATED]->(m)
+                    WITH m, collect(r.rating) AS ratings
+                    SET m.ratingCount = size(ratings),
+                        m.ratingSum = reduce(sum = 0, rating IN ratings | sum + rating),
+                        m.ratingSumSq = reduce(sum = 0, rating IN ratings | sum + rating * rating),
+                        m.ratingHistogram = [slot IN range(1, 10) | size([rating IN ratings WHERE rating = slot])]
+                    """).consume();
+            session.run("CALL db.resampleOutdatedIndexes()").consume();
+            return session.run("MATCH (m:Movie) RETURN elementId(m) AS id ORDER BY m.title")
+                    .list(record -> record.get("id").asString());
+        }
+    }
+
+    /**
+     * Issues the warmup and then the timed requests, never more than
+     * {@code clients} at a time, each handed to a request thread that either
+     * waits for the read or just subscribes to it.
+     */
+    private static Result run(Stack stack, int clients, boolean blocksRequestThread) throws InterruptedException {
+        ExecutorService requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+        try {
+            issue(stack, clients, requestThreads, blocksRequestThread, WARMUP, new long[WARMUP]);
+            long[] nanos = new long[REQUESTS];
+            long start = System.nanoTime();
+            issue(stack, clients, requestThreads, blocksRequestThread, REQUESTS, nanos);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Arrays.sort(nanos);
+            return new Result(REQUESTS / seconds, nanos[REQUESTS / 2] / 1_000, nanos[REQUESTS * 99 / 100] / 1_000);
+        } finally {
+            requestThreads.shutdown();
+            requestThreads.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private static void issue(Stack stack, int clients, ExecutorService requestThreads, boolean blocksRequestThread,
+            int requests, long[] nanos) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(clients);
+        CountDownLatch done = new CountDownLatch(requests);
+        AtomicInteger failed = new AtomicInteger();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int request = i;
+            long issued = System.nanoTime();
+            Runnable complete = () -> {
+                nanos[request] = System.nanoTime() - issued;
+                inFlight.release();
+                done.countDown();
+            };
+            requestThreads.execute(() -> {
+                if (blocksRequestThread) {
+                    stack.read(request).block();
+                    complete.run();
+                } else {
+                    stack.read(request).subscribe(result -> { }, error -> {
+                        failed.incrementAndGet();
+                        complete.run();
+                    }, complete);
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.MINUTES), "all requests complete");
+        assertEquals(0, failed.get(), "no request fails");
+    }
+}
@@ -0,0 +1,59 @@
+package com.graphflix.ratingservice.service;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.graphflix.ratingservice.dto.TopRatedMovieDTO;
+import com.graphflix.ratingservice.service.RatingAggregateService.AggregatesChanged;
+import com.graphflix.ratingservice.service.RatingAggregateService.Delta;
+import com.graphflix.ratingservice.service.RatingAggregateService.RatingAggregate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TopRatedLeaderboardTest {
+
+    private final TopRatedLeaderboard leaderboard =
+            new TopRatedLeaderboard(null, null, new SimpleMeterRegistry(), 10);
+
+    @Test
+    void ranksManyGoodRatingsAboveOnePerfectOne() {
+        recomputed("movie-1", 1, 10);
+        recomputed("movie-2", 200, 1_700);
+
+        List<TopRatedMovieDTO> top = leaderboard.top(10);
+
+        assertEquals(List.of("movie-2", "movie-1"), top.stream().map(TopRatedMovieDTO::getMovieId).toList());
+        assertEquals((10 + 10 * 5.5) / 11, top.get(1).getScore(), 1e-9);
+        assertEquals(10.0, top.get(1).getAverage());
+    }
+
+    @Test
+    void movesMoviesAsDeltasArrive() {
+        recomputed("movie-1", 20, 160);
+        recomputed("movie-2", 20, 150);
+
+        leaderboard.onAggregatesChanged(new AggregatesChanged(
+                Map.of("movie-2", new Delta().add(10).add(10).add(10).add(10).add(10)), Map.of()));
+
+        assertEquals("movie-2", leaderboard.top(1).get(0).getMovieId());
+        assertEquals(25, leaderboard.top(1).get(0).getCount());
+    }
+
+    @Test
+    void dropsMoviesWhoseLastRatingIsRemoved() {
+        recomputed("movie-1", 1, 7);
+
+        leaderboard.onAggregatesChanged(new AggregatesChanged(Map.of("movie-1", new Delta().remove(7)), Map.of()));
+
+        assertTrue(leaderboard.top(10).isEmpty());
+    }
+
+    private void recomputed(String movieId, long count, long sum) {
+        leaderboard.onAggregatesChanged(new AggregatesChanged(
+                Map.of(), Map.of(movieId, new RatingAggregate(count, sum, 0))));
+    }
+}
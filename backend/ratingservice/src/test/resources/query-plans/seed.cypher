@@ -0,0 +1,74 @@
+// Deterministic dataset for query-plan budgets: 300 movies, 200 users with
+// 15 ratings each, stored as RATED relationships, 30 Rating nodes left over
+// from before ratings were stored only as relationships, Movie 42's
+// aggregates split into 4 stripes, rating summaries of 3 in 4 users, rater
+// sketches of 60 movies and activity rollups of 10 movies and of all movies
+// for 30 days each (hourly detail of the last 10 only), and 500 outbox events
+// waiting to be relayed.
+// Indexes declared here are the ones the production graph is expected to have.
+CREATE INDEX user_email IF NOT EXISTS FOR (u:User) ON (u.email);
+CREATE INDEX movie_title IF NOT EXISTS FOR (m:Movie) ON (m.title);
+CREATE CONSTRAINT rated_id_unique IF NOT EXISTS FOR ()-[r:RATED]-() REQUIRE r.id IS UNIQUE;
+CREATE INDEX rated_user_timestamp IF NOT EXISTS FOR ()-[r:RATED]-() ON (r.userId, r.timestamp);
+CREATE INDEX rated_user_rating IF NOT EXISTS FOR ()-[r:RATED]-() ON (r.userId, r.rating);
+CREATE INDEX rated_movie_timestamp IF NOT EXISTS FOR ()-[r:RATED]-() ON (r.movieId, r.timestamp);
+CREATE INDEX rated_movie_rating IF NOT EXISTS FOR ()-[r:RATED]-() ON (r.movieId, r.rating);
+CREATE CONSTRAINT rating_id_sequence_unique IF NOT EXISTS FOR (s:RatingIdSequence) REQUIRE s.name IS UNIQUE;
+CREATE CONSTRAINT rating_stripe_unique IF NOT EXISTS FOR (s:RatingStripe) REQUIRE (s.movieId, s.stripe) IS UNIQUE;
+CREATE CONSTRAINT rater_sketch_unique IF NOT EXISTS FOR (s:RaterSketch) REQUIRE (s.movieId, s.day) IS UNIQUE;
+CREATE CONSTRAINT rating_activity_unique IF NOT EXISTS FOR (a:RatingActivity) REQUIRE (a.movieId, a.day) IS UNIQUE;
+CREATE INDEX rating_activity_day IF NOT EXISTS FOR (a:RatingActivity) ON (a.day);
+CREATE INDEX hourly_rating_activity_day IF NOT EXISTS FOR (a:HourlyRatingActivity) ON (a.day);
+CREATE CONSTRAINT outbox_event_id_unique IF NOT EXISTS FOR (e:OutboxEvent) REQUIRE e.id IS UNIQUE;
+CREATE INDEX outbox_event_created_at IF NOT EXISTS FOR (e:OutboxEvent) ON (e.createdAt, e.sequence);
+UNWIND range(1, 300) AS i
+CREATE (:Movie {title: 'Movie ' + i, released: 1970 + i % 50, tagline: 'Tagline ' + i});
+UNWIND range(1, 200) AS i
+CREATE (:User {id: 'user-' + i, name: 'User ' + i, email: 'user' + i + '@graphflix.test'});
+MATCH (u:User)
+WITH u, toInteger(split(u.id, '-')[1]) AS i
+UNWIND range(0, 14) AS j
+MATCH (m:Movie {title: 'Movie ' + ((i * 11 + j * 17) % 300 + 1)})
+MERGE (u)-[r:RATED]->(m)
+SET r.id = i * 100 + j, r.userId = u.email, r.movieId = elementId(m),
+    r.rating = (i + j) % 10 + 1, r.comment = '', r.timestamp = localdatetime('2024-01-01T00:00:00');
+MERGE (s:RatingIdSequence {name: 'rating'})
+SET s.next = 100000;
+MATCH (u:User)-[r:RATED]->(m:Movie)
+WHERE r.id < 300
+CREATE (:Rating {rating: r.rating, comment: '', timestamp: r.timestamp,
+                 userId: u.email, userName: u.name, movieId: elementId(m), movieTitle: m.title});
+MATCH (m:Movie)
+OPTIONAL MATCH (m)<-[r:RATED]-(:User)
+WITH m, collect(r.rating) AS ratings
+SET m.ratingCount = size(ratings),
+    m.ratingSum = reduce(total = 0, rating IN ratings | total + rating),
+    m.ratingSumSq = reduce(total = 0, rating IN ratings | total + rating * rating),
+    m.ratingHistogram = [stars IN range(1, 10) | size([rating IN ratings WHERE rating = stars])];
+MATCH (u:User)
+WHERE toInteger(split(u.id, '-')[1]) % 4 <> 0
+OPTIONAL MATCH (u)-[r:RATED]->(:Movie)
+WITH u, count(r) AS ratingCount, sum(r.rating) AS ratingSum, max(r.timestamp) AS lastActivityAt
+SET u.ratingCount = ratingCount, u.ratingSum = ratingSum, u.lastActivityAt = lastActivityAt;
+MATCH (m:Movie {title: 'Movie 42'})
+SET m.ratingStripes = 4
+WITH m
+UNWIND range(0, 3) AS stripe
+CREATE (:RatingStripe {movieId: elementId(m), stripe: stripe, ratingCount: 0, ratingSum: 0, ratingSumSq: 0,
+                       ratingHistogram: [0, 0, 0, 0, 0, 0, 0, 0, 0, 0]});
+MATCH (m:Movie)
+WHERE toInteger(substring(m.title, 6)) % 5 = 2
+UNWIND range(0, 29) AS d
+CREATE (:RaterSketch {movieId: elementId(m), day: date('2024-01-01') + duration({days: d})});
+MATCH (m:Movie)
+WHERE toInteger(substring(m.title, 6)) % 30 = 12
+WITH collect(elementId(m)) + '*' AS movieIds
+UNWIND movieIds AS movieId
+UNWIND range(0, 29) AS d
+CREATE (a:RatingActivity {movieId: movieId, day: date('2024-01-01') + duration({days: d}), count: 24})
+WITH a, d
+WHERE d >= 20
+SET a:HourlyRatingActivity, a.hours = [hour IN range(0, 23) | 1];
+UNWIND range(1, 500) AS i
+CREATE (:OutboxEvent {id: 'event-' + i, topic: 'rating-created', messageKey: 'movie-' + (i % 300 + 1), payload: '{}',
+                      createdAt: 1717243200000 + i / 10, sequence: i});
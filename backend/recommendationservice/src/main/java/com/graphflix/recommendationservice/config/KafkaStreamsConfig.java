@@ -0,0 +1,61 @@
+package com.graphflix.recommendationservice.config;
+
+import java.util.Properties;
+
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.EnableKafkaStreams;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.kafka.streams.KafkaStreamsInteractiveQueryService;
+
+import com.graphflix.recommendationservice.service.MovieRatingStatsTopology;
+
+/**
+ * Kafka Streams for the per-movie rating statistics. Streams start only once
+ * the web server is up: the port is random, and every instance must advertise
+ * its own host and port as {@code application.server} so the others can
+ * forward interactive queries to it.
+ */
+@Configuration
+@EnableKafkaStreams
+public class KafkaStreamsConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaStreamsConfig.class);
+
+    private final StreamsBuilderFactoryBean streamsBuilderFactoryBean;
+
+    @Value("${rating.stats.advertised-host:localhost}")
+    private String advertisedHost;
+
+    public KafkaStreamsConfig(StreamsBuilderFactoryBean streamsBuilderFactoryBean) {
+        this.streamsBuilderFactoryBean = streamsBuilderFactoryBean;
+    }
+
+    @Autowired
+    void buildTopology(StreamsBuilder streamsBuilder, MovieRatingStatsTopology movieRatingStatsTopology) {
+        movieRatingStatsTopology.build(streamsBuilder);
+    }
+
+    @Bean
+    public KafkaStreamsInteractiveQueryService kafkaStreamsInteractiveQueryService() {
+        return new KafkaStreamsInteractiveQueryService(streamsBuilderFactoryBean);
+    }
+
+    @EventListener
+    public void startStreams(WebServerInitializedEvent event) {
+        String server = advertisedHost + ":" + event.getWebServer().getPort();
+        Properties configuration = streamsBuilderFactoryBean.getStreamsConfiguration();
+        configuration.put(StreamsConfig.APPLICATION_SERVER_CONFIG, server);
+        streamsBuilderFactoryBean.setStreamsConfiguration(configuration);
+        streamsBuilderFactoryBean.start();
+        log.info("[KafkaStreamsConfig] Rating statistics streams started, serving queries at {}", server);
+    }
+}
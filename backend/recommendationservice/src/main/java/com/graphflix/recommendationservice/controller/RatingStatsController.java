@@ -0,0 +1,46 @@
+package com.graphflix.recommendationservice.controller;
+
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.graphflix.recommendationservice.dto.MovieRatingStatsDTO;
+import com.graphflix.recommendationservice.service.MovieRatingStatsService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@RestController
+@RequestMapping("/stats")
+@RequiredArgsConstructor
+public class RatingStatsController {
+
+    private final MovieRatingStatsService movieRatingStatsService;
+
+    /**
+     * Rating statistics of a movie from the streams state store, without
+     * touching Neo4j. Answers 503 while the stores are not queryable, e.g.
+     * during a rebalance or while a store is restored from its changelog.
+     */
+    @GetMapping("/movie/{movieId}")
+    public ResponseEntity<MovieRatingStatsDTO> getMovieStats(
+        @PathVariable String movieId,
+        @RequestHeader(value = MovieRatingStatsService.FORWARDED_HEADER, required = false) String forwarded,
+        @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization
+    ) {
+        log.info("GET /recommendations/stats/movie/{} - forwarded: {}", movieId, forwarded != null);
+        try {
+            return ResponseEntity.ok(movieRatingStatsService.getStats(movieId, forwarded != null, authorization));
+        } catch (InvalidStateStoreException | IllegalStateException e) {
+            log.warn("Rating statistics not queryable for movie {}: {}", movieId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.graphflix.recommendationservice.controller;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -20,24 +25,42 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class RecommendationController {
     
+    private static final String DEBUG_HEADER = "X-Recommendation-Debug";
+    
     private final RecommendationService recommendationService;
     
+    @Value("${internal.api-token:}")
+    private String internalApiToken;
+    
     @GetMapping("/personalized")
     public ResponseEntity<RecommendationResponse> getPersonalizedRecommendations(
         @AuthenticationPrincipal User user,
-        @RequestParam(defaultValue = "10") Integer limit
+        @RequestParam(defaultValue = "10") Integer limit,
+        @RequestHeader(value = DEBUG_HEADER, required = false) String debugToken
     ) {
         String email = user.getUsername();
-        log.info("GET /recommendations/personalized - email: {}, limit: {}", email, limit);
+        boolean debug = isInternalCaller(debugToken);
+        log.info("GET /recommendations/personalized - email: {}, limit: {}, debug: {}", email, limit, debug);
         
         if (limit < 1 || limit > 50) {
             limit = 10;
         }
         
-        RecommendationResponse recommendations = recommendationService.getPersonalizedRecommendations(email, limit);
+        RecommendationResponse recommendations = recommendationService.getPersonalizedRecommendations(email, limit, debug);
         return ResponseEntity.ok(recommendations);
     }
     
+    // The debug header must carry the shared internal token, so end users going
+    // through the gateway cannot ask for timing breakdowns.
+    private boolean isInternalCaller(String token) {
+        if (token == null || internalApiToken == null || internalApiToken.isBlank()) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+            token.getBytes(StandardCharsets.UTF_8),
+            internalApiToken.getBytes(StandardCharsets.UTF_8));
+    }
+    
     @GetMapping("/trending")
     public ResponseEntity<RecommendationResponse> getTrendingRecommendations(
         @RequestParam(defaultValue = "10") Integer limit
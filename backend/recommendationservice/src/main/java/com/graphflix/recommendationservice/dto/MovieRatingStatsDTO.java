@@ -0,0 +1,24 @@
+package com.graphflix.recommendationservice.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MovieRatingStatsDTO {
+
+    private String movieId;
+    private Long count;
+    private Long sum;
+    private Double average;
+    // histogram.get(0) is the number of 1-star ratings, histogram.get(9) of 10-star ratings
+    private List<Long> histogram;
+    private Instant lastUpdated;
+}
@@ -0,0 +1,19 @@
+package com.graphflix.recommendationservice.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecommendationDebugDTO {
+    
+    private List<StageTimingDTO> stages;
+    private Double totalMs;
+    private Boolean cacheHit;
+}
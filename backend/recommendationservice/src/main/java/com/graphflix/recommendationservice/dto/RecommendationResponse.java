@@ -2,6 +2,8 @@ package com.graphflix.recommendationservice.dto;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,4 +16,8 @@ import lombok.NoArgsConstructor;
 public class RecommendationResponse {
     
     private List<MovieRecommendationDTO> movies;
+    
+    // Only present when an internal caller asked for a timing breakdown
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private RecommendationDebugDTO debug;
 }
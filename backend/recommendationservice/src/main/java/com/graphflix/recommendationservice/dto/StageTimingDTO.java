@@ -0,0 +1,17 @@
+package com.graphflix.recommendationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StageTimingDTO {
+    
+    private String stage;
+    private Double durationMs;
+    private Integer rows;
+}
@@ -0,0 +1,37 @@
+package com.graphflix.recommendationservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-movie rating statistics as kept in the streams state store.
+ * {@code histogram[0]} counts 1-star ratings and {@code histogram[9]}
+ * 10-star ratings; {@code lastUpdatedAt} is the epoch millisecond time of
+ * the latest rating write that changed them, taken from the events.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MovieRatingStats {
+
+    private long count;
+    private long sum;
+    @Builder.Default
+    private long[] histogram = new long[10];
+    private long lastUpdatedAt;
+
+    public void add(int rating) {
+        count++;
+        sum += rating;
+        histogram[rating - 1]++;
+    }
+
+    public void remove(int rating) {
+        count--;
+        sum -= rating;
+        histogram[rating - 1]--;
+    }
+}
@@ -0,0 +1,19 @@
+package com.graphflix.recommendationservice.model;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserLoginEvent {
+
+    private String eventType;
+    private String userId;
+    private LocalDateTime loggedInAt;
+}
@@ -0,0 +1,119 @@
+package com.graphflix.recommendationservice.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.apache.avro.Schema;
+import org.apache.avro.data.TimeConversions;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.graphflix.recommendationservice.model.RatingEvent;
+import com.graphflix.recommendationservice.model.WatchlistEvent;
+
+/**
+ * Reads rating and watchlist events in either encoding found on the topics:
+ * Avro single-object messages, which start with the marker bytes
+ * {@code C3 01}, and the JSON events written before the producers switched.
+ *
+ * <p>The embedded schemas stand in for a schema registry. Each message names
+ * its writer schema by fingerprint, and the decoder resolves it against the
+ * schemas listed here, so when a schema evolves the previous version's file
+ * stays in {@code avro/} and in these lists until no such events remain.
+ */
+@Component
+public class EventDecoder {
+
+    private static final byte MARKER_0 = (byte) 0xC3;
+    private static final byte MARKER_1 = (byte) 0x01;
+
+    private static final List<String> RATING_SCHEMAS = List.of("/avro/rating-event.avsc");
+    private static final List<String> WATCHLIST_SCHEMAS = List.of("/avro/watchlist-event.avsc");
+
+    private static final GenericData MODEL = new GenericData();
+
+    static {
+        MODEL.addLogicalTypeConversion(new TimeConversions.LocalTimestampMicrosConversion());
+    }
+
+    private final BinaryMessageDecoder<GenericRecord> ratingDecoder = decoder(RATING_SCHEMAS);
+    private final BinaryMessageDecoder<GenericRecord> watchlistDecoder = decoder(WATCHLIST_SCHEMAS);
+    private final ObjectMapper objectMapper;
+
+    public EventDecoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public RatingEvent decodeRating(byte[] message) throws IOException {
+        if (!isAvro(message)) {
+            return objectMapper.readValue(message, RatingEvent.class);
+        }
+        GenericRecord record = decode(ratingDecoder, message);
+        return RatingEvent.builder()
+                .eventType(string(record.get("eventType")))
+                .ratingId((Long) record.get("ratingId"))
+                .userId(string(record.get("userId")))
+                .movieId(string(record.get("movieId")))
+                .rating((Integer) record.get("rating"))
+                .comment(string(record.get("comment")))
+                .timestamp((LocalDateTime) record.get("timestamp"))
+                .build();
+    }
+
+    public WatchlistEvent decodeWatchlist(byte[] message) throws IOException {
+        if (!isAvro(message)) {
+            return objectMapper.readValue(message, WatchlistEvent.class);
+        }
+        GenericRecord record = decode(watchlistDecoder, message);
+        return WatchlistEvent.builder()
+                .eventType(string(record.get("eventType")))
+                .watchlistId((Long) record.get("watchlistId"))
+                .userId(string(record.get("userId")))
+                .movieId(string(record.get("movieId")))
+                .movieTitle(string(record.get("movieTitle")))
+                .addedAt((LocalDateTime) record.get("addedAt"))
+                .build();
+    }
+
+    static boolean isAvro(byte[] message) {
+        return message.length > 1 && message[0] == MARKER_0 && message[1] == MARKER_1;
+    }
+
+    private static GenericRecord decode(BinaryMessageDecoder<GenericRecord> decoder, byte[] message)
+            throws IOException {
+        try {
+            return decoder.decode(message);
+        } catch (RuntimeException e) {
+            // Unknown schema fingerprints and truncated bodies fail inside the reader
+            throw new IOException("Cannot decode Avro event: " + e.getMessage(), e);
+        }
+    }
+
+    // Avro hands strings and enum symbols back as CharSequence implementations
+    private static String string(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static BinaryMessageDecoder<GenericRecord> decoder(List<String> resources) {
+        List<Schema> schemas = resources.stream().map(EventDecoder::loadSchema).toList();
+        // The newest version is the reader schema; older writer versions resolve against it
+        BinaryMessageDecoder<GenericRecord> decoder =
+                new BinaryMessageDecoder<>(MODEL, schemas.get(schemas.size() - 1));
+        schemas.forEach(decoder::addSchema);
+        return decoder;
+    }
+
+    private static Schema loadSchema(String resource) {
+        try (InputStream in = EventDecoder.class.getResourceAsStream(resource)) {
+            return new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load Avro schema " + resource, e);
+        }
+    }
+}
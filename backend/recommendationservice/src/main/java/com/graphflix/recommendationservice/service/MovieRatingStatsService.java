@@ -0,0 +1,80 @@
+package com.graphflix.recommendationservice.service;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.kafka.streams.KafkaStreamsInteractiveQueryService;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import com.graphflix.recommendationservice.dto.MovieRatingStatsDTO;
+import com.graphflix.recommendationservice.model.MovieRatingStats;
+
+/**
+ * Interactive queries over the streamed rating statistics. Each instance
+ * holds the statistics of the partitions it owns; a request for a movie owned
+ * by another instance is forwarded there once.
+ */
+@Service
+public class MovieRatingStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieRatingStatsService.class);
+
+    public static final String FORWARDED_HEADER = "X-Stats-Forwarded";
+
+    private final KafkaStreamsInteractiveQueryService queryService;
+    private final RestClient restClient;
+
+    public MovieRatingStatsService(KafkaStreamsInteractiveQueryService queryService,
+            RestClient.Builder restClientBuilder) {
+        this.queryService = queryService;
+        this.restClient = restClientBuilder.build();
+    }
+
+    /**
+     * Statistics of one movie, all zero when it has no ratings. Forwarded
+     * requests are always answered locally, so a stale view of partition
+     * ownership cannot bounce a request between instances.
+     */
+    public MovieRatingStatsDTO getStats(String movieId, boolean forwarded, String authorization) {
+        HostInfo owner = queryService.getKafkaStreamsApplicationHostInfo(
+                MovieRatingStatsTopology.STATS_STORE, movieId, new StringSerializer());
+        if (!forwarded && owner != null && !owner.equals(queryService.getCurrentKafkaStreamsApplicationHostInfo())) {
+            log.debug("[MovieRatingStatsService] Forwarding stats of movie '{}' to {}:{}",
+                    movieId, owner.host(), owner.port());
+            return restClient.get()
+                    .uri("http://{host}:{port}/stats/movie/{movieId}", owner.host(), owner.port(), movieId)
+                    .header(FORWARDED_HEADER, "true")
+                    .headers(headers -> {
+                        if (authorization != null) {
+                            headers.set(HttpHeaders.AUTHORIZATION, authorization);
+                        }
+                    })
+                    .retrieve()
+                    .body(MovieRatingStatsDTO.class);
+        }
+
+        ReadOnlyKeyValueStore<String, MovieRatingStats> store = queryService.retrieveQueryableStore(
+                MovieRatingStatsTopology.STATS_STORE, QueryableStoreTypes.keyValueStore());
+        MovieRatingStats stats = store.get(movieId);
+        return toDTO(movieId, stats != null ? stats : new MovieRatingStats());
+    }
+
+    static MovieRatingStatsDTO toDTO(String movieId, MovieRatingStats stats) {
+        return MovieRatingStatsDTO.builder()
+                .movieId(movieId)
+                .count(stats.getCount())
+                .sum(stats.getSum())
+                .average(stats.getCount() == 0 ? 0.0 : (double) stats.getSum() / stats.getCount())
+                .histogram(Arrays.stream(stats.getHistogram()).boxed().toList())
+                .lastUpdated(stats.getLastUpdatedAt() == 0 ? null : Instant.ofEpochMilli(stats.getLastUpdatedAt()))
+                .build();
+    }
+}
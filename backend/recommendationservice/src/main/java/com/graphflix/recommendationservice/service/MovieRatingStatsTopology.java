@@ -0,0 +1,213 @@
+package com.graphflix.recommendationservice.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.Stores;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.serializer.JsonSerde;
+import org.springframework.stereotype.Component;
+
+import com.graphflix.recommendationservice.model.MovieRatingStats;
+import com.graphflix.recommendationservice.model.RatingEvent;
+
+/**
+ * Kafka Streams topology that folds the three rating topics into per-movie
+ * count, sum, histogram and last update, kept in a persistent (RocksDB)
+ * state store and backed by a changelog topic.
+ *
+ * <p>Rating events are keyed by movie id, so each movie's events land in one
+ * partition of each topic and one stream task owns its statistics; adding
+ * instances spreads the partitions. The three topics must therefore have the
+ * same number of partitions.
+ *
+ * <p>Update events do not carry the previous rating, so a second store keeps
+ * each user's current rating per movie. It also makes redelivered events
+ * harmless: replaying a rating replaces itself instead of counting twice.
+ * A deleted rating stays in that store as a tombstone, so that a late event
+ * of the same rating is recognised as older; tombstones are indexed by when
+ * they were stored and purged once stream time has moved on by
+ * {@code rating.stats.tombstone-retention}, which must exceed how late an
+ * event can arrive.
+ *
+ * <p>Events are ordered by the timestamp in their payload, the time the
+ * rating was written, and not by the record timestamp, which is when the
+ * outbox relay sent them. A delete carries the timestamp of the rating's
+ * last write, so ties are broken by rating id and then by event type, with
+ * deletes after updates after creates.
+ */
+@Component
+public class MovieRatingStatsTopology {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieRatingStatsTopology.class);
+
+    public static final String STATS_STORE = "movie-rating-stats";
+    static final String USER_RATINGS_STORE = "movie-user-ratings";
+    static final String TOMBSTONES_STORE = "movie-user-rating-tombstones";
+
+    private static final String RATING_DELETED = "RATING_DELETED";
+    private static final List<String> EVENT_ORDER = List.of("RATING_CREATED", "RATING_UPDATED", RATING_DELETED);
+
+    /**
+     * A user's current rating of a movie, {@code null} once deleted, and the
+     * position of the event that set it: its payload timestamp in epoch
+     * microseconds, its rating id and the rank of its type.
+     */
+    record UserRating(Integer rating, long timestamp, long ratingId, int eventRank) {}
+
+    private static final Comparator<UserRating> EVENT_POSITION = Comparator.comparingLong(UserRating::timestamp)
+            .thenComparingLong(UserRating::ratingId)
+            .thenComparingInt(UserRating::eventRank);
+
+    private final EventDecoder eventDecoder;
+    private final List<String> topics;
+    private final Duration tombstoneRetention;
+
+    public MovieRatingStatsTopology(EventDecoder eventDecoder,
+            @Value("${kafka.topic.rating-created:rating-created}") String ratingCreatedTopic,
+            @Value("${kafka.topic.rating-updated:rating-updated}") String ratingUpdatedTopic,
+            @Value("${kafka.topic.rating-deleted:rating-deleted}") String ratingDeletedTopic,
+            @Value("${rating.stats.tombstone-retention:1h}") Duration tombstoneRetention) {
+        this.eventDecoder = eventDecoder;
+        this.topics = List.of(ratingCreatedTopic, ratingUpdatedTopic, ratingDeletedTopic);
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    public void build(StreamsBuilder builder) {
+        builder.addStateStore(Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(STATS_STORE),
+                Serdes.String(),
+                new JsonSerde<>(MovieRatingStats.class).noTypeInfo()));
+        builder.addStateStore(Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(USER_RATINGS_STORE),
+                Serdes.String(),
+                new JsonSerde<>(UserRating.class).noTypeInfo()));
+        // Keyed by the stream time a tombstone was stored, then its user ratings key
+        builder.addStateStore(Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(TOMBSTONES_STORE),
+                Serdes.String(),
+                new JsonSerde<>(UserRating.class).noTypeInfo()));
+
+        builder.stream(topics, Consumed.with(Serdes.String(), Serdes.ByteArray()))
+                .process(StatsProcessor::new, STATS_STORE, USER_RATINGS_STORE, TOMBSTONES_STORE);
+    }
+
+    private class StatsProcessor implements Processor<String, byte[], Void, Void> {
+
+        private KeyValueStore<String, MovieRatingStats> stats;
+        private KeyValueStore<String, UserRating> userRatings;
+        private KeyValueStore<String, UserRating> tombstones;
+        private ProcessorContext<Void, Void> context;
+
+        @Override
+        public void init(ProcessorContext<Void, Void> context) {
+            this.context = context;
+            this.stats = context.getStateStore(STATS_STORE);
+            this.userRatings = context.getStateStore(USER_RATINGS_STORE);
+            this.tombstones = context.getStateStore(TOMBSTONES_STORE);
+            context.schedule(tombstoneRetention, PunctuationType.STREAM_TIME, this::purgeTombstones);
+        }
+
+        @Override
+        public void process(Record<String, byte[]> record) {
+            RatingEvent event;
+            try {
+                event = eventDecoder.decodeRating(record.value());
+            } catch (IOException e) {
+                log.error("[MovieRatingStatsTopology] Skipping unreadable rating event: {}", e.getMessage());
+                return;
+            }
+            if (event.getMovieId() == null || event.getUserId() == null) {
+                return;
+            }
+            boolean deleted = RATING_DELETED.equals(event.getEventType());
+            Integer rating = deleted ? null : event.getRating();
+            if (!deleted && (rating == null || rating < 1 || rating > 10)) {
+                log.error("[MovieRatingStatsTopology] Skipping rating event with rating {}", rating);
+                return;
+            }
+            if (event.getTimestamp() == null) {
+                log.error("[MovieRatingStatsTopology] Skipping {} event without a timestamp", event.getEventType());
+                return;
+            }
+
+            String userKey = event.getMovieId() + '|' + event.getUserId();
+            UserRating previous = userRatings.get(userKey);
+            UserRating next = new UserRating(rating, epochMicros(event.getTimestamp()),
+                    event.getRatingId() != null ? event.getRatingId() : 0L, EVENT_ORDER.indexOf(event.getEventType()));
+            if (previous != null && EVENT_POSITION.compare(next, previous) < 0) {
+                // The three topics are read side by side, so an older event can arrive late
+                return;
+            }
+            MovieRatingStats current = stats.get(event.getMovieId());
+            if (current == null) {
+                current = new MovieRatingStats();
+            }
+            if (previous != null && previous.rating() != null) {
+                current.remove(previous.rating());
+            }
+            if (rating != null) {
+                current.add(rating);
+            }
+            long updatedAt = event.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            current.setLastUpdatedAt(Math.max(current.getLastUpdatedAt(), updatedAt));
+            userRatings.put(userKey, next);
+            if (rating == null) {
+                tombstones.put(tombstoneKey(context.currentStreamTimeMs(), userKey), next);
+            }
+            stats.put(event.getMovieId(), current);
+        }
+
+        /**
+         * Drops the tombstones stored more than the retention before the
+         * given stream time, unless a later event has replaced them.
+         */
+        private void purgeTombstones(long streamTime) {
+            String bound = tombstoneKey(streamTime - tombstoneRetention.toMillis(), "");
+            List<KeyValue<String, UserRating>> expired = new ArrayList<>();
+            try (KeyValueIterator<String, UserRating> iterator = tombstones.range(null, bound)) {
+                iterator.forEachRemaining(expired::add);
+            }
+            int purged = 0;
+            for (KeyValue<String, UserRating> tombstone : expired) {
+                tombstones.delete(tombstone.key);
+                String userKey = tombstone.key.substring(tombstone.key.indexOf('|') + 1);
+                if (tombstone.value.equals(userRatings.get(userKey))) {
+                    userRatings.delete(userKey);
+                    purged++;
+                }
+            }
+            if (purged > 0) {
+                log.info("[MovieRatingStatsTopology] Purged {} deleted ratings", purged);
+            }
+        }
+    }
+
+    // Zero-padded so that keys sort by stream time
+    private static String tombstoneKey(long streamTime, String userKey) {
+        return String.format("%020d|%s", Math.max(streamTime, 0), userKey);
+    }
+
+    // Only compared with each other, so the offset just has to be fixed
+    private static long epochMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+}
@@ -0,0 +1,47 @@
+package com.graphflix.recommendationservice.service;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import com.graphflix.recommendationservice.model.RatingEvent;
+
+/**
+ * Drops a user's cached recommendations whenever they rate, re-rate or
+ * unrate a movie, since ratings are the main input to their scores.
+ */
+@Service
+public class RatingEventConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(RatingEventConsumer.class);
+
+    private final RecommendationCache recommendationCache;
+    private final EventDecoder eventDecoder;
+
+    public RatingEventConsumer(RecommendationCache recommendationCache, EventDecoder eventDecoder) {
+        this.recommendationCache = recommendationCache;
+        this.eventDecoder = eventDecoder;
+    }
+
+    @KafkaListener(
+            topics = {
+                "${kafka.topic.rating-created:rating-created}",
+                "${kafka.topic.rating-updated:rating-updated}",
+                "${kafka.topic.rating-deleted:rating-deleted}"
+            },
+            groupId = "${kafka.consumer.cache-group-id}",
+            properties = "auto.offset.reset=latest")
+    public void onRatingChanged(byte[] message) {
+        try {
+            RatingEvent event = eventDecoder.decodeRating(message);
+            if (event.getUserId() != null) {
+                recommendationCache.invalidate(event.getUserId());
+            }
+        } catch (IOException e) {
+            log.error("[RatingEventConsumer] Skipping unreadable rating event: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.graphflix.recommendationservice.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.graphflix.recommendationservice.dto.MovieRecommendationDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounded, per-instance cache of each user's latest personalized
+ * recommendations. Entries expire after a TTL and are dropped as soon as the
+ * user rates a movie or edits their watchlist, so a hit is never older than
+ * the user's own last change.
+ */
+@Component
+public class RecommendationCache {
+
+    private record Entry(List<MovieRecommendationDTO> movies, int limit, long expiresAtMillis) {}
+
+    private final Map<String, Entry> entries;
+    private final long ttlMillis;
+    private final Counter hits;
+    private final Counter misses;
+
+    public RecommendationCache(
+            MeterRegistry meterRegistry,
+            @Value("${recommendation.cache.max-users:10000}") int maxUsers,
+            @Value("${recommendation.cache.ttl:5m}") Duration ttl) {
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxUsers;
+            }
+        };
+        this.hits = Counter.builder("recommendation.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("recommendation.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    /**
+     * Returns the first {@code limit} cached recommendations, or {@code null}
+     * when nothing fresh was computed for at least that many slots.
+     */
+    public List<MovieRecommendationDTO> get(String userId, int limit) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(userId);
+            if (entry != null && entry.expiresAtMillis() < System.currentTimeMillis()) {
+                entries.remove(userId);
+                entry = null;
+            }
+        }
+        if (entry == null || entry.limit() < limit) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return List.copyOf(entry.movies().subList(0, Math.min(limit, entry.movies().size())));
+    }
+
+    public void put(String userId, int limit, List<MovieRecommendationDTO> movies) {
+        Entry entry = new Entry(List.copyOf(movies), limit, System.currentTimeMillis() + ttlMillis);
+        synchronized (entries) {
+            entries.put(userId, entry);
+        }
+    }
+
+    public void invalidate(String userId) {
+        synchronized (entries) {
+            entries.remove(userId);
+        }
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+}
@@ -1,95 +1,164 @@
 package com.graphflix.recommendationservice.service;
 
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.graphflix.recommendationservice.dto.MovieRecommendationDTO;
+import com.graphflix.recommendationservice.dto.RecommendationDebugDTO;
 import com.graphflix.recommendationservice.dto.RecommendationResponse;
+import com.graphflix.recommendationservice.dto.StageTimingDTO;
 import com.graphflix.recommendationservice.model.Movie;
 import com.graphflix.recommendationservice.repository.RecommendationRepository;
-
-import lombok.RequiredArgsConstructor;
+import com.graphflix.recommendationservice.service.RecommendationStageTimer.Stage;
+import com.graphflix.recommendationservice.service.RelationshipOverlapScorer.CreditRelationship;
+import com.graphflix.recommendationservice.service.RelationshipOverlapScorer.ScoredMovie;
 
 @Service
-@RequiredArgsConstructor
 public class RecommendationService {
     
     private static final Logger log = LoggerFactory.getLogger(RecommendationService.class);
     private static final Integer MIN_RATING = 7;
     
     private final RecommendationRepository recommendationRepository;
+    private final WatchlistSignalStore watchlistSignalStore;
+    private final RelationshipOverlapScorer relationshipOverlapScorer;
+    private final RecommendationStageTimer stageTimer;
+    private final RecommendationCache recommendationCache;
+    private final int prewarmLimit;
+    
+    public RecommendationService(
+            RecommendationRepository recommendationRepository,
+            WatchlistSignalStore watchlistSignalStore,
+            RelationshipOverlapScorer relationshipOverlapScorer,
+            RecommendationStageTimer stageTimer,
+            RecommendationCache recommendationCache,
+            @Value("${recommendation.cache.prewarm-limit:20}") int prewarmLimit) {
+        this.recommendationRepository = recommendationRepository;
+        this.watchlistSignalStore = watchlistSignalStore;
+        this.relationshipOverlapScorer = relationshipOverlapScorer;
+        this.stageTimer = stageTimer;
+        this.recommendationCache = recommendationCache;
+        this.prewarmLimit = prewarmLimit;
+    }
     
     public RecommendationResponse getPersonalizedRecommendations(String email, Integer limit) {
+        return getPersonalizedRecommendations(email, limit, false);
+    }
+    
+    /**
+     * Builds personalized recommendations. With {@code debug} set, the response
+     * carries the wall time and row count of every stage; stage timers are
+     * recorded either way.
+     */
+    public RecommendationResponse getPersonalizedRecommendations(String email, Integer limit, boolean debug) {
         log.info("Getting personalized recommendations for user: {}, limit: {}", email, limit);
+        List<StageTimingDTO> trace = debug ? new ArrayList<>() : null;
+        long requestStart = System.nanoTime();
+        
+        List<MovieRecommendationDTO> cached = recommendationCache.get(email, limit);
+        long stageStart = stageTimer.record(Stage.CACHE_LOOKUP, requestStart, cached == null ? 0 : cached.size(), trace);
+        if (cached != null) {
+            log.info("Serving {} cached recommendations for user {}", cached.size(), email);
+            return RecommendationResponse.builder()
+                .movies(cached)
+                .debug(toDebug(trace, requestStart, true))
+                .build();
+        }
+        
+        RecommendationResponse response = computeRecommendations(email, limit, stageStart, trace);
+        recommendationCache.put(email, limit, response.getMovies());
+        response.setDebug(toDebug(trace, requestStart, false));
+        return response;
+    }
+    
+    /**
+     * Computes recommendations for a user who just logged in and stores them,
+     * so the home page request that follows is served from the cache. Computes
+     * one page wider than the default request so any smaller limit is a hit.
+     */
+    public void prewarm(String email) {
+        long start = System.nanoTime();
+        RecommendationResponse response = computeRecommendations(email, prewarmLimit, start, null);
+        recommendationCache.put(email, prewarmLimit, response.getMovies());
+        log.info("Prewarmed {} recommendations for user {} in {} ms",
+            response.getMovies().size(), email, (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    private RecommendationResponse computeRecommendations(String email, Integer limit, long stageStart,
+            List<StageTimingDTO> trace) {
+        List<String> watchlistIds = watchlistSignalStore.getMovieIds(email);
+        stageStart = stageTimer.record(Stage.WATCHLIST_LOOKUP, stageStart, watchlistIds.size(), trace);
+        log.info("User {} has {} watchlisted movies", email, watchlistIds.size());
         
         Long userRatingCount = recommendationRepository.countUserRatings(email);
+        stageStart = stageTimer.record(Stage.COUNT_USER_RATINGS, stageStart, 1, trace);
         log.info("User {} has {} ratings", email, userRatingCount);
         
         if (userRatingCount == null || userRatingCount < 3) {
             log.info("User {} has insufficient ratings, returning trending movies", email);
-            return getTrendingRecommendations(limit);
+            return getTrendingRecommendations(watchlistIds, limit, stageStart, trace);
         }
         
-        List<Movie> actorBased = recommendationRepository.findMoviesByLikedActors(email, MIN_RATING, limit);
-        log.info("Found {} actor-based recommendations for user {}", actorBased.size(), email);
-        
-        List<Movie> directorBased = recommendationRepository.findMoviesByLikedDirectors(email, MIN_RATING, limit);
-        log.info("Found {} director-based recommendations for user {}", directorBased.size(), email);
+        List<ScoredMovie> scored = relationshipOverlapScorer.score(email, MIN_RATING, watchlistIds, limit);
+        stageStart = stageTimer.record(Stage.OVERLAP_TRAVERSAL, stageStart, scored.size(), trace);
+        log.info("Found {} overlap-scored recommendations for user {}", scored.size(), email);
         
-        Map<String, MovieRecommendationDTO> merged = new LinkedHashMap<>();
-        
-        actorBased.forEach(movie -> {
-            if (!merged.containsKey(movie.getId())) {
-                merged.put(movie.getId(), MovieRecommendationDTO.builder()
-                    .id(movie.getId())
-                    .title(movie.getTitle())
-                    .released(movie.getReleased())
-                    .tagline(movie.getTagline())
-                    .reason("Because you liked movies with these actors")
-                    .score(0.8)
-                    .build());
-            }
-        });
-        
-        directorBased.forEach(movie -> {
-            if (merged.containsKey(movie.getId())) {
-                MovieRecommendationDTO existing = merged.get(movie.getId());
-                existing.setScore(1.0);
-                existing.setReason("Because you liked movies with these actors and directors");
-            } else {
-                merged.put(movie.getId(), MovieRecommendationDTO.builder()
-                    .id(movie.getId())
-                    .title(movie.getTitle())
-                    .released(movie.getReleased())
-                    .tagline(movie.getTagline())
-                    .reason("Because you liked movies directed by these directors")
-                    .score(0.7)
-                    .build());
-            }
-        });
-        
-        List<MovieRecommendationDTO> recommendations = merged.values().stream()
-            .sorted((a, b) -> Double.compare(b.getScore(), a.getScore()))
-            .limit(limit)
+        double topScore = scored.isEmpty() ? 1.0 : scored.get(0).score();
+        List<MovieRecommendationDTO> recommendations = scored.stream()
+            .map(candidate -> MovieRecommendationDTO.fromMovie(
+                candidate.movie(),
+                buildReason(candidate.overlaps()),
+                topScore > 0 ? candidate.score() / topScore : 0.0))
             .collect(Collectors.toList());
+        stageTimer.record(Stage.MERGE, stageStart, recommendations.size(), trace);
         
-        log.info("Returning {} merged recommendations for user {}", recommendations.size(), email);
+        log.info("Returning {} recommendations for user {}", recommendations.size(), email);
         
         return RecommendationResponse.builder()
             .movies(recommendations)
             .build();
     }
     
+    private RecommendationDebugDTO toDebug(List<StageTimingDTO> trace, long requestStart, boolean cacheHit) {
+        if (trace == null) {
+            return null;
+        }
+        return RecommendationDebugDTO.builder()
+            .stages(trace)
+            .totalMs((System.nanoTime() - requestStart) / 1_000_000.0)
+            .cacheHit(cacheHit)
+            .build();
+    }
+    
+    private String buildReason(Map<CreditRelationship, Long> overlaps) {
+        List<String> people = overlaps.keySet().stream()
+            .map(CreditRelationship::getPeople)
+            .toList();
+        if (people.size() == 1) {
+            return "Because you liked movies with these " + people.get(0);
+        }
+        return "Because you liked movies with these "
+            + String.join(", ", people.subList(0, people.size() - 1))
+            + " and " + people.get(people.size() - 1);
+    }
+    
     public RecommendationResponse getTrendingRecommendations(Integer limit) {
-        log.info("Getting trending movies, limit: {}", limit);
+        return getTrendingRecommendations(List.of(), limit, System.nanoTime(), null);
+    }
+    
+    private RecommendationResponse getTrendingRecommendations(List<String> excludedIds, Integer limit,
+            long stageStart, List<StageTimingDTO> trace) {
+        log.info("Getting trending movies, limit: {}, excluded: {}", limit, excludedIds.size());
         
-        List<Movie> trendingMovies = recommendationRepository.findTrendingMovies(limit);
+        List<Movie> trendingMovies = recommendationRepository.findTrendingMovies(excludedIds, limit);
+        stageStart = stageTimer.record(Stage.TRENDING_QUERY, stageStart, trendingMovies.size(), trace);
         
         List<MovieRecommendationDTO> recommendations = trendingMovies.stream()
             .map(movie -> MovieRecommendationDTO.builder()
@@ -101,6 +170,7 @@ public class RecommendationService {
                 .score(0.5)
                 .build())
             .collect(Collectors.toList());
+        stageTimer.record(Stage.MERGE, stageStart, recommendations.size(), trace);
         
         return RecommendationResponse.builder()
             .movies(recommendations)
@@ -0,0 +1,62 @@
+package com.graphflix.recommendationservice.service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.graphflix.recommendationservice.dto.StageTimingDTO;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records how long each stage of a recommendation request took. Every stage
+ * always lands in the {@code recommendation.stage} timer; the per-request
+ * breakdown is only built when the caller passes a trace list, so the normal
+ * path records with a nano-time delta and allocates nothing.
+ */
+@Component
+public class RecommendationStageTimer {
+
+    public enum Stage {
+        CACHE_LOOKUP,
+        WATCHLIST_LOOKUP,
+        COUNT_USER_RATINGS,
+        OVERLAP_TRAVERSAL,
+        TRENDING_QUERY,
+        MERGE
+    }
+
+    private final Map<Stage, Timer> timers = new EnumMap<>(Stage.class);
+
+    public RecommendationStageTimer(MeterRegistry meterRegistry) {
+        for (Stage stage : Stage.values()) {
+            timers.put(stage, Timer.builder("recommendation.stage")
+                    .description("Wall time of one stage of building recommendations")
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Records the stage that started at {@code startNanos} and returns the
+     * current nano time, so consecutive stages can chain their start times.
+     */
+    public long record(Stage stage, long startNanos, int rows, List<StageTimingDTO> trace) {
+        long now = System.nanoTime();
+        long elapsed = now - startNanos;
+        timers.get(stage).record(elapsed, TimeUnit.NANOSECONDS);
+        if (trace != null) {
+            trace.add(StageTimingDTO.builder()
+                    .stage(stage.name())
+                    .durationMs(elapsed / 1_000_000.0)
+                    .rows(rows)
+                    .build());
+        }
+        return now;
+    }
+}
@@ -0,0 +1,162 @@
+package com.graphflix.recommendationservice.service;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.driver.types.Node;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Component;
+
+import com.graphflix.recommendationservice.model.Movie;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Scores candidate movies by how many people they share with the user's seed
+ * movies (well-rated or watchlisted), across every credit relationship in one
+ * traversal. Each shared person contributes the configured weight of the
+ * relationship it was found through.
+ */
+@Component
+public class RelationshipOverlapScorer {
+
+    private static final Logger log = LoggerFactory.getLogger(RelationshipOverlapScorer.class);
+
+    private static final String OVERLAP_QUERY = """
+            MATCH (user:User {email: $email})
+            CALL {
+                WITH user
+                MATCH (user)-[r:RATED]->(likedMovie:Movie)
+                WHERE r.rating >= $minRating
+                RETURN likedMovie
+                UNION
+                MATCH (likedMovie:Movie)
+                WHERE elementId(likedMovie) IN $watchlistIds
+                RETURN likedMovie
+            }
+            MATCH (likedMovie)<-[credit:ACTED_IN|DIRECTED|WROTE|PRODUCED]-(person:Person)
+                  -[candidateCredit:ACTED_IN|DIRECTED|WROTE|PRODUCED]->(candidateMovie:Movie)
+            WHERE type(candidateCredit) = type(credit)
+            AND candidateMovie <> likedMovie
+            AND NOT (user)-[:RATED]->(candidateMovie)
+            AND NOT elementId(candidateMovie) IN $watchlistIds
+            WITH candidateMovie, type(credit) AS relationship, count(person) AS overlap
+            WITH candidateMovie,
+                 collect({relationship: relationship, overlap: overlap}) AS overlaps,
+                 sum(overlap * $weights[relationship]) AS score
+            RETURN candidateMovie, overlaps, score
+            ORDER BY score DESC, candidateMovie.released DESC
+            LIMIT $limit
+            """;
+
+    public enum CreditRelationship {
+        ACTED_IN("actors"),
+        DIRECTED("directors"),
+        WROTE("writers"),
+        PRODUCED("producers");
+
+        private final String people;
+
+        CreditRelationship(String people) {
+            this.people = people;
+        }
+
+        public String getPeople() {
+            return people;
+        }
+    }
+
+    public record ScoredMovie(Movie movie, double score, Map<CreditRelationship, Long> overlaps) {}
+
+    private final Neo4jClient neo4jClient;
+    private final Map<String, Object> weights;
+    private final Timer queryTimer;
+    private final Map<CreditRelationship, DistributionSummary> overlapSummaries = new EnumMap<>(CreditRelationship.class);
+    private final Map<CreditRelationship, Counter> overlapCounters = new EnumMap<>(CreditRelationship.class);
+
+    public RelationshipOverlapScorer(
+            Neo4jClient neo4jClient,
+            MeterRegistry meterRegistry,
+            @Value("${recommendation.weight.acted-in:1.0}") double actedInWeight,
+            @Value("${recommendation.weight.directed:1.0}") double directedWeight,
+            @Value("${recommendation.weight.wrote:0.6}") double wroteWeight,
+            @Value("${recommendation.weight.produced:0.4}") double producedWeight) {
+        this.neo4jClient = neo4jClient;
+        this.weights = Map.of(
+                CreditRelationship.ACTED_IN.name(), actedInWeight,
+                CreditRelationship.DIRECTED.name(), directedWeight,
+                CreditRelationship.WROTE.name(), wroteWeight,
+                CreditRelationship.PRODUCED.name(), producedWeight);
+        this.queryTimer = Timer.builder("recommendation.overlap.query")
+                .description("Wall time of the single multi-relationship overlap traversal")
+                .register(meterRegistry);
+        for (CreditRelationship relationship : CreditRelationship.values()) {
+            overlapSummaries.put(relationship, DistributionSummary.builder("recommendation.overlap.matches")
+                    .description("Shared people found per scored candidate")
+                    .tag("relationship", relationship.name())
+                    .register(meterRegistry));
+            overlapCounters.put(relationship, Counter.builder("recommendation.overlap.people")
+                    .description("Shared people found through this relationship across all scored candidates")
+                    .tag("relationship", relationship.name())
+                    .register(meterRegistry));
+        }
+        log.info("[RelationshipOverlapScorer] Relationship weights: {}", weights);
+    }
+
+    public List<ScoredMovie> score(String email, Integer minRating, List<String> watchlistIds, Integer limit) {
+        long start = System.nanoTime();
+        Collection<ScoredMovie> scored = neo4jClient.query(OVERLAP_QUERY)
+                .bindAll(Map.of(
+                        "email", email,
+                        "minRating", minRating,
+                        "watchlistIds", watchlistIds,
+                        "weights", weights,
+                        "limit", limit))
+                .fetchAs(ScoredMovie.class)
+                .mappedBy((typeSystem, record) -> toScoredMovie(
+                        record.get("candidateMovie").asNode(),
+                        record.get("score").asDouble(),
+                        record.get("overlaps")))
+                .all();
+        queryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        recordOverlaps(scored);
+        return List.copyOf(scored);
+    }
+
+    /**
+     * The traversal covers every relationship type at once, so it is only
+     * timed as a whole; what each type contributed is counted in shared
+     * people instead.
+     */
+    private void recordOverlaps(Collection<ScoredMovie> scored) {
+        for (ScoredMovie movie : scored) {
+            for (Map.Entry<CreditRelationship, Long> overlap : movie.overlaps().entrySet()) {
+                overlapSummaries.get(overlap.getKey()).record(overlap.getValue());
+                overlapCounters.get(overlap.getKey()).increment(overlap.getValue());
+            }
+        }
+    }
+
+    private ScoredMovie toScoredMovie(Node node, double score, org.neo4j.driver.Value overlapValues) {
+        Movie movie = Movie.builder()
+                .id(node.elementId())
+                .title(node.get("title").asString(null))
+                .released(node.get("released").isNull() ? null : node.get("released").asInt())
+                .tagline(node.get("tagline").asString(null))
+                .build();
+        Map<CreditRelationship, Long> overlaps = new EnumMap<>(CreditRelationship.class);
+        overlapValues.values().forEach(overlap -> overlaps.put(
+                CreditRelationship.valueOf(overlap.get("relationship").asString()),
+                overlap.get("overlap").asLong()));
+        return new ScoredMovie(movie, score, overlaps);
+    }
+}
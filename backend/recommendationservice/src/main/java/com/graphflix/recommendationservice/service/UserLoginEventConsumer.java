@@ -0,0 +1,65 @@
+package com.graphflix.recommendationservice.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.graphflix.recommendationservice.model.UserLoginEvent;
+
+/**
+ * Prewarms a user's recommendations as soon as they log in, so the home page
+ * request that follows is a cache hit. Runs on the listener thread, off the
+ * request path.
+ */
+@Service
+public class UserLoginEventConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(UserLoginEventConsumer.class);
+
+    private final RecommendationService recommendationService;
+    private final RecommendationCache recommendationCache;
+    private final ObjectMapper objectMapper;
+
+    public UserLoginEventConsumer(RecommendationService recommendationService,
+            RecommendationCache recommendationCache, ObjectMapper objectMapper) {
+        this.recommendationService = recommendationService;
+        this.recommendationCache = recommendationCache;
+        this.objectMapper = objectMapper;
+    }
+
+    @KafkaListener(
+            topics = "${kafka.topic.user-logged-in:user-logged-in}",
+            groupId = "${kafka.consumer.cache-group-id}",
+            properties = "auto.offset.reset=latest")
+    public void onUserLoggedIn(byte[] message) {
+        UserLoginEvent event;
+        try {
+            event = objectMapper.readValue(message, UserLoginEvent.class);
+        } catch (IOException e) {
+            log.error("[UserLoginEventConsumer] Skipping unreadable login event: {}", e.getMessage());
+            return;
+        }
+        if (event.getUserId() == null) {
+            log.warn("[UserLoginEventConsumer] Skipping login event without userId: {}", event);
+            return;
+        }
+        // A prewarm that would already have expired is wasted work, e.g. after
+        // the consumer lagged behind.
+        if (event.getLoggedInAt() != null && event.getLoggedInAt()
+                .isBefore(LocalDateTime.now().minus(Duration.ofMillis(recommendationCache.getTtlMillis())))) {
+            log.debug("[UserLoginEventConsumer] Skipping stale login event for {}", event.getUserId());
+            return;
+        }
+        try {
+            recommendationService.prewarm(event.getUserId());
+        } catch (RuntimeException e) {
+            log.warn("[UserLoginEventConsumer] Prewarm failed for {}: {}", event.getUserId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.graphflix.recommendationservice.service;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Service;
+
+import com.graphflix.recommendationservice.model.WatchlistEvent;
+
+/**
+ * Keeps {@link WatchlistSignalStore} in step with the watchlist topic.
+ *
+ * <p>The store is seeded from Neo4j, so only events from then on are
+ * consumed. The listener's positions are fixed when its partitions are
+ * assigned, and the seed is read only after that, on the consumer thread, so
+ * no event falls between the seed and the first record. Adds and removes
+ * share the topic, keyed by user, so a user's events arrive in the order
+ * they were written. A restart resumes from the committed positions, and
+ * replaying events the seed already reflects, in that order, leaves the same
+ * state.
+ */
+@Service
+public class WatchlistEventConsumer implements ConsumerSeekAware {
+
+    private static final Logger log = LoggerFactory.getLogger(WatchlistEventConsumer.class);
+
+    private static final String WATCHLIST_ADDED = "WATCHLIST_ADDED";
+    private static final String WATCHLIST_REMOVED = "WATCHLIST_REMOVED";
+
+    private final WatchlistSignalStore watchlistSignalStore;
+    private final RecommendationCache recommendationCache;
+    private final EventDecoder eventDecoder;
+    // Only touched on the listener's consumer thread
+    private boolean seeded;
+
+    public WatchlistEventConsumer(WatchlistSignalStore watchlistSignalStore,
+            RecommendationCache recommendationCache, EventDecoder eventDecoder) {
+        this.watchlistSignalStore = watchlistSignalStore;
+        this.recommendationCache = recommendationCache;
+        this.eventDecoder = eventDecoder;
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        if (!seeded) {
+            watchlistSignalStore.loadExistingWatchlists();
+            seeded = true;
+        }
+    }
+
+    @KafkaListener(
+            topics = "${kafka.topic.watchlist-events:watchlist-events}",
+            groupId = "${kafka.consumer.watchlist-group-id}",
+            properties = "auto.offset.reset=latest")
+    public void onWatchlistChanged(byte[] message) {
+        WatchlistEvent event = parse(message);
+        if (event == null) {
+            return;
+        }
+        switch (event.getEventType()) {
+            case WATCHLIST_ADDED -> watchlistSignalStore.add(event.getUserId(), event.getMovieId());
+            case WATCHLIST_REMOVED -> watchlistSignalStore.remove(event.getUserId(), event.getMovieId());
+            default -> {
+                log.warn("[WatchlistEventConsumer] Skipping event of unknown type: {}", event);
+                return;
+            }
+        }
+        recommendationCache.invalidate(event.getUserId());
+    }
+
+    private WatchlistEvent parse(byte[] message) {
+        try {
+            WatchlistEvent event = eventDecoder.decodeWatchlist(message);
+            if (event.getEventType() == null || event.getUserId() == null || event.getMovieId() == null) {
+                log.warn("[WatchlistEventConsumer] Skipping event without eventType/userId/movieId: {}", event);
+                return null;
+            }
+            return event;
+        } catch (IOException e) {
+            log.error("[WatchlistEventConsumer] Skipping unreadable watchlist event: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.graphflix.recommendationservice.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory view of every user's watchlist, used as implicit feedback when
+ * building recommendations. It is seeded once from Neo4j and then fed by the
+ * watchlist Kafka topic (see {@link WatchlistEventConsumer}), so the request
+ * path never has to ask user-service or the database what a user has
+ * watchlisted.
+ */
+@Component
+public class WatchlistSignalStore {
+
+    private static final Logger log = LoggerFactory.getLogger(WatchlistSignalStore.class);
+
+    private final Map<String, Set<String>> movieIdsByUser = new ConcurrentHashMap<>();
+    private final Neo4jClient neo4jClient;
+
+    public WatchlistSignalStore(Neo4jClient neo4jClient) {
+        this.neo4jClient = neo4jClient;
+    }
+
+    public void add(String userId, String movieId) {
+        movieIdsByUser.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(movieId);
+    }
+
+    public void remove(String userId, String movieId) {
+        movieIdsByUser.computeIfPresent(userId, (k, movieIds) -> {
+            movieIds.remove(movieId);
+            return movieIds.isEmpty() ? null : movieIds;
+        });
+    }
+
+    /**
+     * Returns a snapshot of the movie ids on the user's watchlist, safe to bind
+     * as a Cypher parameter.
+     */
+    public List<String> getMovieIds(String userId) {
+        Set<String> movieIds = movieIdsByUser.get(userId);
+        return movieIds == null ? List.of() : List.copyOf(movieIds);
+    }
+
+    /**
+     * Seeds the store with every watchlist entry in Neo4j. Called once the
+     * watchlist listener's positions are fixed, so events from then on are
+     * applied on top of the seed.
+     */
+    public void loadExistingWatchlists() {
+        try {
+            Collection<Map<String, Object>> rows = neo4jClient.query("""
+                    MATCH (w:Watchlist)
+                    RETURN w.userId AS userId, w.movieId AS movieId
+                    """)
+                    .fetch()
+                    .all();
+            rows.forEach(row -> add((String) row.get("userId"), (String) row.get("movieId")));
+            log.info("[WatchlistSignalStore] Loaded {} watchlist entries for {} users", rows.size(), movieIdsByUser.size());
+        } catch (RuntimeException e) {
+            log.error("[WatchlistSignalStore] Failed to load existing watchlists, only new events will be seen: {}",
+                    e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.graphflix.recommendationservice.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.data.TimeConversions;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.graphflix.recommendationservice.model.RatingEvent;
+import com.graphflix.recommendationservice.model.WatchlistEvent;
+
+class EventDecoderTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2024, 6, 1, 12, 0, 0, 123_456_000);
+
+    private final EventDecoder decoder = new EventDecoder(JsonMapper.builder().findAndAddModules().build());
+
+    @Test
+    void decodesAvroRatingEvents() throws IOException {
+        Schema schema = schema("/avro/rating-event.avsc");
+        GenericRecord record = new GenericData.Record(schema);
+        record.put("eventType", new GenericData.EnumSymbol(schema.getField("eventType").schema(), "RATING_UPDATED"));
+        record.put("ratingId", 42L);
+        record.put("userId", "user1@graphflix.test");
+        record.put("movieId", "movie-7");
+        record.put("rating", 8);
+        record.put("comment", null);
+        record.put("timestamp", AT);
+
+        RatingEvent event = decoder.decodeRating(encode(schema, record));
+
+        assertEquals("RATING_UPDATED", event.getEventType());
+        assertEquals(42L, event.getRatingId());
+        assertEquals("user1@graphflix.test", event.getUserId());
+        assertEquals("movie-7", event.getMovieId());
+        assertEquals(8, event.getRating());
+        assertNull(event.getComment());
+        assertEquals(AT, event.getTimestamp());
+    }
+
+    @Test
+    void decodesAvroWatchlistEvents() throws IOException {
+        Schema schema = schema("/avro/watchlist-event.avsc");
+        GenericRecord record = new GenericData.Record(schema);
+        record.put("eventType", new GenericData.EnumSymbol(schema.getField("eventType").schema(), "WATCHLIST_ADDED"));
+        record.put("watchlistId", 9L);
+        record.put("userId", "user1@graphflix.test");
+        record.put("movieId", "movie-7");
+        record.put("movieTitle", "Movie 7");
+        record.put("addedAt", AT);
+
+        WatchlistEvent event = decoder.decodeWatchlist(encode(schema, record));
+
+        assertEquals("WATCHLIST_ADDED", event.getEventType());
+        assertEquals("user1@graphflix.test", event.getUserId());
+        assertEquals("movie-7", event.getMovieId());
+        assertEquals("Movie 7", event.getMovieTitle());
+        assertEquals(AT, event.getAddedAt());
+    }
+
+    @Test
+    void stillDecodesJsonEvents() throws IOException {
+        byte[] json = """
+                {"eventType":"RATING_CREATED","ratingId":5,"userId":"user2@graphflix.test","movieId":"movie-3",\
+                "rating":6,"comment":"","timestamp":"2024-06-01T12:00:00.123456"}"""
+                .getBytes(StandardCharsets.UTF_8);
+
+        RatingEvent event = decoder.decodeRating(json);
+
+        assertEquals("RATING_CREATED", event.getEventType());
+        assertEquals("user2@graphflix.test", event.getUserId());
+        assertEquals(AT, event.getTimestamp());
+    }
+
+    @Test
+    void rejectsUnknownSchemaVersions() {
+        Schema unknown = SchemaBuilder.record("RatingEvent").namespace("com.graphflix.events")
+                .fields().requiredString("userId").endRecord();
+        GenericRecord record = new GenericData.Record(unknown);
+        record.put("userId", "user1@graphflix.test");
+
+        assertThrows(IOException.class, () -> decoder.decodeRating(encode(unknown, record)));
+    }
+
+    private static byte[] encode(Schema schema, GenericRecord record) throws IOException {
+        GenericData model = new GenericData();
+        model.addLogicalTypeConversion(new TimeConversions.LocalTimestampMicrosConversion());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryMessageEncoder<GenericRecord>(model, schema).encode(record, out);
+        return out.toByteArray();
+    }
+
+    private static Schema schema(String resource) throws IOException {
+        try (InputStream in = EventDecoderTest.class.getResourceAsStream(resource)) {
+            return new Schema.Parser().parse(in);
+        }
+    }
+}
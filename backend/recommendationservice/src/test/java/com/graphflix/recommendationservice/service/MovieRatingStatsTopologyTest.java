@@ -0,0 +1,193 @@
+package com.graphflix.recommendationservice.service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.graphflix.recommendationservice.model.MovieRatingStats;
+import com.graphflix.recommendationservice.model.RatingEvent;
+
+class MovieRatingStatsTopologyTest {
+
+    private static final Instant START = Instant.parse("2024-06-01T12:00:00Z");
+    private static final LocalDateTime WRITTEN = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @TempDir
+    Path stateDir;
+
+    private TopologyTestDriver driver;
+    private TestInputTopic<String, byte[]> created;
+    private TestInputTopic<String, byte[]> updated;
+    private TestInputTopic<String, byte[]> deleted;
+    private KeyValueStore<String, MovieRatingStats> stats;
+    private KeyValueStore<String, MovieRatingStatsTopology.UserRating> userRatings;
+
+    @BeforeEach
+    void startTopology() {
+        StreamsBuilder builder = new StreamsBuilder();
+        new MovieRatingStatsTopology(new EventDecoder(objectMapper),
+                "rating-created", "rating-updated", "rating-deleted", Duration.ofMinutes(10))
+                .build(builder);
+        Properties properties = new Properties();
+        properties.put(StreamsConfig.APPLICATION_ID_CONFIG, "rating-stats-test");
+        properties.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        properties.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        driver = new TopologyTestDriver(builder.build(), properties, START);
+        created = topic("rating-created");
+        updated = topic("rating-updated");
+        deleted = topic("rating-deleted");
+        stats = driver.getKeyValueStore(MovieRatingStatsTopology.STATS_STORE);
+        userRatings = driver.getKeyValueStore(MovieRatingStatsTopology.USER_RATINGS_STORE);
+    }
+
+    @AfterEach
+    void closeTopology() {
+        driver.close();
+    }
+
+    @Test
+    void foldsCreatedUpdatedAndDeletedRatings() throws Exception {
+        send(created, "RATING_CREATED", "user1", "movie-1", 8, 0);
+        send(created, "RATING_CREATED", "user2", "movie-1", 6, 1);
+        send(updated, "RATING_UPDATED", "user1", "movie-1", 10, 2);
+        send(created, "RATING_CREATED", "user3", "movie-1", 6, 3);
+        send(deleted, "RATING_DELETED", "user2", "movie-1", 6, 4);
+
+        MovieRatingStats movie = stats.get("movie-1");
+        assertEquals(2, movie.getCount());
+        assertEquals(16, movie.getSum());
+        assertArrayEquals(new long[] {0, 0, 0, 0, 0, 1, 0, 0, 0, 1}, movie.getHistogram());
+        assertEquals(WRITTEN.plusSeconds(4).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                movie.getLastUpdatedAt());
+    }
+
+    @Test
+    void redeliveredEventsAreCountedOnce() throws Exception {
+        send(created, "RATING_CREATED", "user1", "movie-1", 7, 0);
+        send(created, "RATING_CREATED", "user1", "movie-1", 7, 1);
+        send(updated, "RATING_UPDATED", "user1", "movie-1", 9, 2);
+        send(updated, "RATING_UPDATED", "user1", "movie-1", 9, 3);
+
+        MovieRatingStats movie = stats.get("movie-1");
+        assertEquals(1, movie.getCount());
+        assertEquals(9, movie.getSum());
+    }
+
+    @Test
+    void ignoresEventsOlderThanTheUsersCurrentRating() throws Exception {
+        send(updated, "RATING_UPDATED", "user1", "movie-1", 9, 5);
+        // The create event of the same rating, read late from its own topic
+        send(created, "RATING_CREATED", "user1", "movie-1", 4, 2);
+
+        MovieRatingStats movie = stats.get("movie-1");
+        assertEquals(1, movie.getCount());
+        assertEquals(9, movie.getSum());
+    }
+
+    @Test
+    void ordersEventsByWhenTheRatingWasWrittenNotWhenTheyWereSent() throws Exception {
+        // The relay sent the update first, although the rating was created after it
+        send(updated, "RATING_UPDATED", "user1", "movie-1", 9, 1, 5, 10);
+        send(created, "RATING_CREATED", "user1", "movie-1", 4, 2, 6, 11);
+
+        MovieRatingStats movie = stats.get("movie-1");
+        assertEquals(1, movie.getCount());
+        assertEquals(4, movie.getSum());
+        assertEquals(WRITTEN.plusSeconds(6).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                movie.getLastUpdatedAt());
+    }
+
+    @Test
+    void breaksTimestampTiesByRatingIdAndEventType() throws Exception {
+        // A delete carries the timestamp of the rating's last write
+        send(deleted, "RATING_DELETED", "user1", "movie-1", 8, 1, 3, 0);
+        send(updated, "RATING_UPDATED", "user1", "movie-1", 8, 1, 3, 1);
+        send(created, "RATING_CREATED", "user2", "movie-1", 5, 2, 4, 2);
+        send(created, "RATING_CREATED", "user2", "movie-1", 7, 3, 4, 3);
+        send(updated, "RATING_UPDATED", "user2", "movie-1", 6, 2, 4, 4);
+
+        MovieRatingStats movie = stats.get("movie-1");
+        assertEquals(1, movie.getCount());
+        assertEquals(7, movie.getSum());
+    }
+
+    @Test
+    void purgesDeletedRatingsOnceTheRetentionHasPassed() throws Exception {
+        send(created, "RATING_CREATED", "user1", "movie-1", 8, 0);
+        send(deleted, "RATING_DELETED", "user1", "movie-1", 8, 1);
+        send(created, "RATING_CREATED", "user2", "movie-1", 6, 2);
+        send(deleted, "RATING_DELETED", "user2", "movie-1", 6, 3);
+        // user2 rated again, so their entry is no longer a tombstone
+        send(created, "RATING_CREATED", "user2", "movie-1", 5, 2, 60, 60);
+        // A late event within the retention is still recognised as older
+        send(updated, "RATING_UPDATED", "user1", "movie-1", 9, 0);
+        assertEquals(1, stats.get("movie-1").getCount());
+
+        send(created, "RATING_CREATED", "user3", "movie-2", 7, 1300);
+
+        assertNull(userRatings.get("movie-1|user1@graphflix.test"));
+        assertEquals(5, userRatings.get("movie-1|user2@graphflix.test").rating());
+        assertEquals(5, stats.get("movie-1").getSum());
+    }
+
+    @Test
+    void keepsMoviesApartAndSkipsUnreadableEvents() throws Exception {
+        send(created, "RATING_CREATED", "user1", "movie-1", 3, 0);
+        send(created, "RATING_CREATED", "user1", "movie-2", 5, 1);
+        created.pipeInput("movie-1", "not an event".getBytes(), START.plusSeconds(2));
+
+        assertEquals(3, stats.get("movie-1").getSum());
+        assertEquals(5, stats.get("movie-2").getSum());
+        assertNull(stats.get("movie-3"));
+    }
+
+    private TestInputTopic<String, byte[]> topic(String name) {
+        return driver.createInputTopic(name, new StringSerializer(), new ByteArraySerializer());
+    }
+
+    private void send(TestInputTopic<String, byte[]> topic, String eventType, String userId, String movieId,
+            int rating, int second) throws Exception {
+        send(topic, eventType, userId, movieId, rating, 1, second, second);
+    }
+
+    private void send(TestInputTopic<String, byte[]> topic, String eventType, String userId, String movieId,
+            int rating, long ratingId, int writtenSecond, int sentSecond) throws Exception {
+        RatingEvent event = RatingEvent.builder()
+                .eventType(eventType)
+                .ratingId(ratingId)
+                .userId(userId + "@graphflix.test")
+                .movieId(movieId)
+                .rating(rating)
+                .comment("")
+                .timestamp(WRITTEN.plusSeconds(writtenSecond))
+                .build();
+        topic.pipeInput(movieId, objectMapper.writeValueAsBytes(event), START.plusSeconds(sentSecond));
+    }
+}
@@ -0,0 +1,35 @@
+// Deterministic dataset for query-plan budgets: 300 movies, 400 people,
+// 200 users with 15 ratings each, plus a few watchlist entries.
+// Indexes declared here are the ones the production graph is expected to have.
+CREATE INDEX user_email IF NOT EXISTS FOR (u:User) ON (u.email);
+CREATE INDEX movie_title IF NOT EXISTS FOR (m:Movie) ON (m.title);
+CREATE INDEX person_name IF NOT EXISTS FOR (p:Person) ON (p.name);
+UNWIND range(1, 300) AS i
+CREATE (:Movie {title: 'Movie ' + i, released: 1970 + i % 50, tagline: 'Tagline ' + i});
+UNWIND range(1, 400) AS i
+CREATE (:Person {name: 'Person ' + i, born: 1940 + i % 60});
+MATCH (m:Movie)
+WITH m, toInteger(split(m.title, ' ')[1]) AS i
+UNWIND range(0, 3) AS k
+MATCH (p:Person {name: 'Person ' + ((i * 7 + k * 13) % 400 + 1)})
+CREATE (p)-[:ACTED_IN]->(m);
+MATCH (m:Movie)
+WITH m, toInteger(split(m.title, ' ')[1]) AS i
+MATCH (director:Person {name: 'Person ' + (i % 40 + 1)})
+MATCH (writer:Person {name: 'Person ' + (i % 60 + 41)})
+MATCH (producer:Person {name: 'Person ' + (i % 25 + 101)})
+CREATE (director)-[:DIRECTED]->(m), (writer)-[:WROTE]->(m), (producer)-[:PRODUCED]->(m);
+UNWIND range(1, 200) AS i
+CREATE (:User {id: 'user-' + i, name: 'User ' + i, email: 'user' + i + '@graphflix.test'});
+MATCH (u:User)
+WITH u, toInteger(split(u.id, '-')[1]) AS i
+UNWIND range(0, 14) AS j
+MATCH (m:Movie {title: 'Movie ' + ((i * 11 + j * 17) % 300 + 1)})
+MERGE (u)-[r:RATED]->(m)
+SET r.rating = (i + j) % 10 + 1, r.comment = '', r.timestamp = '2024-01-01T00:00:00';
+MATCH (u:User)
+WHERE toInteger(split(u.id, '-')[1]) % 10 = 0
+WITH u, toInteger(split(u.id, '-')[1]) AS i
+UNWIND range(0, 2) AS j
+MATCH (m:Movie {title: 'Movie ' + ((i * 5 + j * 29) % 300 + 1)})
+CREATE (:Watchlist {userId: u.email, movieId: elementId(m), movieTitle: m.title, addedAt: localdatetime('2024-01-01T00:00:00')});
@@ -0,0 +1,218 @@
+package com.graphflix.queryplan;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.Transaction;
+import org.neo4j.driver.summary.ProfiledPlan;
+import org.neo4j.driver.summary.ResultSummary;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.data.neo4j.repository.query.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Profiles Cypher statements against a seeded test database and checks them
+ * against a checked-in budget of db hits and allowed plan operators.
+ *
+ * <p>Statements are referenced by {@code Type#method} for repository
+ * {@code @Query} methods and by {@code Type.FIELD} for Neo4jClient statements
+ * held in static {@code *_QUERY} constants. Every statement runs in a
+ * transaction that is rolled back, so write statements leave the seed
+ * untouched. Parameters written as {@code $movie:<title>} become that
+ * movie's element id and {@code $date:<yyyy-mm-dd>} a date.
+ *
+ * <p>This is the one copy every service's {@code QueryPlanBudgetTest} uses.
+ * The services build on their own, each from its own directory, so instead
+ * of a module they would all have to install first, the directory is added
+ * to each service's test sources by {@code build-helper-maven-plugin}.
+ */
+public class QueryPlanProfiler {
+
+    private static final String MOVIE_PLACEHOLDER = "$movie:";
+    private static final String DATE_PLACEHOLDER = "$date:";
+    private static final String QUERY_SUFFIX = "_QUERY";
+
+    public record Budget(Map<String, Object> parameters, long maxDbHits, Set<String> allowedOperators) {}
+
+    public record Profile(long dbHits, Set<String> operators) {}
+
+    private final Driver driver;
+    private final Map<String, Class<?>> sources;
+
+    public QueryPlanProfiler(Driver driver, Map<String, Class<?>> sources) {
+        this.driver = driver;
+        this.sources = sources;
+    }
+
+    /**
+     * Finds the components and repositories under the base packages that hold
+     * statements, keyed by simple name, so a new statement source cannot be
+     * added without its statements being budgeted.
+     */
+    public static Map<String, Class<?>> scan(String... basePackages) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                // Repositories are interfaces, which component scanning skips by default
+                return beanDefinition.getMetadata().isIndependent();
+            }
+        };
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Component.class));
+        scanner.addIncludeFilter(new AssignableTypeFilter(Repository.class));
+
+        Map<String, Class<?>> sources = new TreeMap<>();
+        for (String basePackage : basePackages) {
+            for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+                Class<?> type = ClassUtils.resolveClassName(candidate.getBeanClassName(),
+                        QueryPlanProfiler.class.getClassLoader());
+                if (statements(type).isEmpty()) {
+                    continue;
+                }
+                Class<?> clash = sources.put(type.getSimpleName(), type);
+                if (clash != null) {
+                    throw new IllegalStateException("Statement sources " + clash.getName() + " and "
+                            + type.getName() + " share a simple name");
+                }
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Lists every statement of the given source: its {@code @Query} methods
+     * and its static {@code *_QUERY} constants.
+     */
+    public static List<String> statements(Class<?> source) {
+        List<String> ids = new ArrayList<>();
+        for (Method method : source.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(Query.class)) {
+                ids.add(source.getSimpleName() + "#" + method.getName());
+            }
+        }
+        for (Field field : source.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers) && field.getType() == String.class
+                    && field.getName().endsWith(QUERY_SUFFIX)) {
+                ids.add(source.getSimpleName() + "." + field.getName());
+            }
+        }
+        return ids;
+    }
+
+    public void seed(InputStream script) throws IOException {
+        String cypher = new String(script.readAllBytes(), StandardCharsets.UTF_8).replaceAll("(?m)^//.*$", "");
+        try (Session session = driver.session()) {
+            for (String statement : cypher.split(";\\s*\\n")) {
+                String trimmed = statement.strip();
+                if (!trimmed.isEmpty()) {
+                    session.run(trimmed).consume();
+                }
+            }
+            session.run("CALL db.awaitIndexes(300)").consume();
+            session.run("CALL db.resampleOutdatedIndexes()").consume();
+            session.run("CALL db.clearQueryCaches()").consume();
+        }
+    }
+
+    public Profile profile(String statementId, Map<String, Object> parameters) {
+        String statement = resolveStatement(statementId);
+        try (Session session = driver.session(); Transaction tx = session.beginTransaction()) {
+            ResultSummary summary = tx.run("PROFILE " + statement, resolveParameters(parameters)).consume();
+            tx.rollback();
+            Set<String> operators = new TreeSet<>();
+            long dbHits = collect(summary.profile(), operators);
+            return new Profile(dbHits, operators);
+        }
+    }
+
+    private String resolveStatement(String statementId) {
+        try {
+            if (statementId.contains("#")) {
+                String[] parts = statementId.split("#");
+                for (Method method : source(parts[0]).getDeclaredMethods()) {
+                    if (method.getName().equals(parts[1]) && method.isAnnotationPresent(Query.class)) {
+                        return method.getAnnotation(Query.class).value();
+                    }
+                }
+                throw new IllegalArgumentException("No @Query method for " + statementId);
+            }
+            String[] parts = statementId.split("\\.");
+            Field field = source(parts[0]).getDeclaredField(parts[1]);
+            field.setAccessible(true);
+            return (String) field.get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot read statement " + statementId, e);
+        }
+    }
+
+    private Class<?> source(String simpleName) {
+        Class<?> type = sources.get(simpleName);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown statement source: " + simpleName);
+        }
+        return type;
+    }
+
+    private Map<String, Object> resolveParameters(Map<String, Object> parameters) {
+        Map<String, Object> resolved = new LinkedHashMap<>();
+        parameters.forEach((name, value) -> resolved.put(name, resolveValue(value)));
+        return resolved;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object resolveValue(Object value) {
+        if (value instanceof String text && text.startsWith(MOVIE_PLACEHOLDER)) {
+            return movieElementId(text.substring(MOVIE_PLACEHOLDER.length()));
+        }
+        if (value instanceof String text && text.startsWith(DATE_PLACEHOLDER)) {
+            return LocalDate.parse(text.substring(DATE_PLACEHOLDER.length()));
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(this::resolveValue).toList();
+        }
+        if (value instanceof Map<?, ?> map) {
+            return resolveParameters((Map<String, Object>) map);
+        }
+        return value;
+    }
+
+    private String movieElementId(String title) {
+        try (Session session = driver.session()) {
+            return session.run("MATCH (m:Movie {title: $title}) RETURN elementId(m) AS id", Map.of("title", title))
+                    .single()
+                    .get("id")
+                    .asString();
+        }
+    }
+
+    private static long collect(ProfiledPlan plan, Set<String> operators) {
+        String operator = plan.operatorType();
+        int engineSuffix = operator.indexOf('@');
+        operators.add(engineSuffix >= 0 ? operator.substring(0, engineSuffix) : operator);
+        long dbHits = plan.dbHits();
+        for (ProfiledPlan child : plan.children()) {
+            dbHits += collect(child, operators);
+        }
+        return dbHits;
+    }
+}
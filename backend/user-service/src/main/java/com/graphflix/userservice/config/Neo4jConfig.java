@@ -34,6 +34,17 @@ public class Neo4jConfig {
                     "FOR (u:User) REQUIRE u.email IS UNIQUE"
                 ).consume();
                 log.info("Ensured uniqueness constraint on :User(email)");
+
+                // The outbox relay deletes events by id and drains them oldest first
+                session.run(
+                    "CREATE CONSTRAINT outbox_event_id_unique IF NOT EXISTS " +
+                    "FOR (e:OutboxEvent) REQUIRE e.id IS UNIQUE"
+                ).consume();
+                session.run(
+                    "CREATE INDEX outbox_event_created_at IF NOT EXISTS " +
+                    "FOR (e:OutboxEvent) ON (e.createdAt, e.sequence)"
+                ).consume();
+                log.info("Ensured outbox constraint and index on :OutboxEvent");
             } catch (Exception e) {
                 log.warn("Could not create Neo4j constraints (may already exist): {}", e.getMessage());
             }
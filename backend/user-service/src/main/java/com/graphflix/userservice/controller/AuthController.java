@@ -24,6 +24,7 @@ import com.graphflix.userservice.model.User;
 import com.graphflix.userservice.repository.UserRepository;
 import com.graphflix.userservice.service.AuthService;
 import com.graphflix.userservice.service.TOTPService;
+import com.graphflix.userservice.service.UserEventProducer;
 import com.graphflix.userservice.service.security.JwtService;
 
 @RestController
@@ -44,6 +45,9 @@ public class AuthController {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private UserEventProducer userEventProducer;
+
     @PostMapping("/register")
     public ResponseEntity<String> register(@RequestBody RegisterRequest request) {
         try {
@@ -100,6 +104,7 @@ public class AuthController {
 
             String secretKey = userRepository.getTotpSecret(email);
             if (totpService.verifyCode(secretKey, request.getCode())) {
+                userEventProducer.publishUserLoggedInEvent(user);
                 long expiryTime = System.currentTimeMillis() + 3 * 24 * 60 * 60 * 1000L;
                 return ResponseEntity.ok(LoginResponse.builder()
                         .token(jwtService.generateToken(user))
@@ -22,11 +22,14 @@ public class AuthService {
     private final UserRepository userRepo;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final UserEventProducer userEventProducer;
 
-    public AuthService(UserRepository userRepo, PasswordEncoder passwordEncoder, JwtService jwtService) {
+    public AuthService(UserRepository userRepo, PasswordEncoder passwordEncoder, JwtService jwtService,
+            UserEventProducer userEventProducer) {
         this.userRepo = userRepo;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
+        this.userEventProducer = userEventProducer;
     }
 
     public void registerUser(RegisterRequest req) {
@@ -97,6 +100,7 @@ public class AuthService {
         if (!passwordEncoder.matches(req.getPassword(), user.getPassword())) {
             throw new RuntimeException("Invalid email or password");
         }
+        userEventProducer.publishUserLoggedInEvent(user);
         return LoginResponse.builder()
                 .token(jwtService.generateToken(user))
                 .expiresAt(System.currentTimeMillis() + TOKEN_EXPIRATION_MS)
@@ -0,0 +1,54 @@
+package com.graphflix.userservice.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.graphflix.outbox.OutboxService;
+import com.graphflix.userservice.model.User;
+import com.graphflix.userservice.model.UserLoginEvent;
+
+/**
+ * Publishes login events through the {@link OutboxService}, so logging in
+ * never waits on the broker. The event only prewarms caches downstream, so
+ * publishing is best effort: a failure is logged and never affects the
+ * login.
+ */
+@Service
+public class UserEventProducer {
+
+    private static final Logger log = LoggerFactory.getLogger(UserEventProducer.class);
+
+    private final OutboxService outboxService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${kafka.topic.user-logged-in:user-logged-in}")
+    private String userLoggedInTopic;
+
+    public UserEventProducer(OutboxService outboxService, ObjectMapper objectMapper) {
+        this.outboxService = outboxService;
+        this.objectMapper = objectMapper;
+    }
+
+    public void publishUserLoggedInEvent(User user) {
+        // Email is the user identifier shared with the other services
+        UserLoginEvent event = UserLoginEvent.builder()
+                .eventType("USER_LOGGED_IN")
+                .userId(user.getEmail())
+                .loggedInAt(LocalDateTime.now())
+                .build();
+
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(event);
+            outboxService.enqueue(List.of(new OutboxService.OutboxMessage(userLoggedInTopic, event.getUserId(), payload)));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("[UserEventProducer] Could not publish login event for {}: {}", event.getUserId(), e.getMessage());
+        }
+    }
+}
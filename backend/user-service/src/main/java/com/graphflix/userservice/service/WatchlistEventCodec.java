@@ -0,0 +1,65 @@
+package com.graphflix.userservice.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import org.apache.avro.Schema;
+import org.apache.avro.data.TimeConversions;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.springframework.stereotype.Component;
+
+import com.graphflix.userservice.model.WatchlistEvent;
+
+/**
+ * Encodes watchlist events as Avro single-object messages: the two marker bytes
+ * {@code C3 01}, the 8-byte fingerprint of the writer schema and the binary
+ * body. The fingerprint lets consumers pick the matching schema version and
+ * tell these messages apart from the JSON events published before.
+ *
+ * <p>The schema is embedded as {@code avro/watchlist-event.avsc}; consumers keep
+ * a copy of every version they must still read.
+ */
+@Component
+public class WatchlistEventCodec {
+
+    static final Schema SCHEMA = loadSchema("/avro/watchlist-event.avsc");
+
+    private static final GenericData MODEL = new GenericData();
+
+    static {
+        MODEL.addLogicalTypeConversion(new TimeConversions.LocalTimestampMicrosConversion());
+    }
+
+    private final BinaryMessageEncoder<GenericRecord> encoder = new BinaryMessageEncoder<>(MODEL, SCHEMA);
+
+    public byte[] encode(WatchlistEvent event) throws IOException {
+        GenericRecord record = new GenericData.Record(SCHEMA);
+        record.put("eventType", new GenericData.EnumSymbol(SCHEMA.getField("eventType").schema(), event.getEventType()));
+        record.put("watchlistId", event.getWatchlistId());
+        record.put("userId", event.getUserId());
+        record.put("movieId", event.getMovieId());
+        record.put("movieTitle", event.getMovieTitle());
+        record.put("addedAt", event.getAddedAt());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        try {
+            encoder.encode(record, out);
+        } catch (RuntimeException e) {
+            // Null required fields and unknown event types fail inside the writer
+            throw new IOException("Cannot encode " + event.getEventType() + " event: " + e.getMessage(), e);
+        }
+        return out.toByteArray();
+    }
+
+    private static Schema loadSchema(String resource) {
+        try (InputStream in = WatchlistEventCodec.class.getResourceAsStream(resource)) {
+            return new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load Avro schema " + resource, e);
+        }
+    }
+}
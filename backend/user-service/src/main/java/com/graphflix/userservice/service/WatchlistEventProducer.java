@@ -1,30 +1,35 @@
 package com.graphflix.userservice.service;
 
+import java.io.IOException;
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.graphflix.outbox.OutboxService;
 import com.graphflix.userservice.exception.EventPublishingException;
 import com.graphflix.userservice.model.Watchlist;
 import com.graphflix.userservice.model.WatchlistEvent;
 
+/**
+ * Publishes watchlist events through the {@link OutboxService}, encoded by the
+ * {@link WatchlistEventCodec}. Every method must be called inside the
+ * transaction that changed the watchlist; the events reach Kafka only after
+ * that transaction commits. Adds and removes share one topic keyed by user,
+ * so consumers read each user's events in the order they were written.
+ */
 @Service
 public class WatchlistEventProducer {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final ObjectMapper objectMapper;
-
-    @Value("${kafka.topic.watchlist-added:watchlist-added}")
-    private String watchlistAddedTopic;
+    private final OutboxService outboxService;
+    private final WatchlistEventCodec codec;
 
-    @Value("${kafka.topic.watchlist-removed:watchlist-removed}")
-    private String watchlistRemovedTopic;
+    @Value("${kafka.topic.watchlist-events:watchlist-events}")
+    private String watchlistEventsTopic;
 
-    public WatchlistEventProducer(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper) {
-        this.kafkaTemplate = kafkaTemplate;
-        this.objectMapper = objectMapper;
+    public WatchlistEventProducer(OutboxService outboxService, WatchlistEventCodec codec) {
+        this.outboxService = outboxService;
+        this.codec = codec;
     }
 
     public void publishWatchlistAddedEvent(Watchlist watchlist) {
@@ -38,9 +43,9 @@ public class WatchlistEventProducer {
                 .build();
 
         try {
-            String json = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(watchlistAddedTopic, event.getUserId(), json);
-        } catch (JsonProcessingException e) {
+            byte[] payload = codec.encode(event);
+            outboxService.enqueue(List.of(new OutboxService.OutboxMessage(watchlistEventsTopic, event.getUserId(), payload)));
+        } catch (IOException e) {
             throw new EventPublishingException("Failed to publish watchlist added event", e);
         }
     }
@@ -56,9 +61,9 @@ public class WatchlistEventProducer {
                 .build();
 
         try {
-            String json = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(watchlistRemovedTopic, event.getUserId(), json);
-        } catch (JsonProcessingException e) {
+            byte[] payload = codec.encode(event);
+            outboxService.enqueue(List.of(new OutboxService.OutboxMessage(watchlistEventsTopic, event.getUserId(), payload)));
+        } catch (IOException e) {
             throw new EventPublishingException("Failed to publish watchlist removed event", e);
         }
     }
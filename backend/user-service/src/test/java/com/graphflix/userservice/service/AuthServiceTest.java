@@ -12,6 +12,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -36,6 +37,9 @@ class AuthServiceTest {
     @Mock
     private JwtService jwtService;
 
+    @Mock
+    private UserEventProducer userEventProducer;
+
     @InjectMocks
     private AuthService authService;
 
@@ -138,6 +142,7 @@ class AuthServiceTest {
         assertNotNull(result);
         assertNotNull(result.getToken());
         assertTrue(result.getExpiresAt() > System.currentTimeMillis());
+        verify(userEventProducer).publishUserLoggedInEvent(testUser);
     }
 
     @Test
@@ -163,5 +168,6 @@ class AuthServiceTest {
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> authService.loginUser(request));
         assertNotNull(exception.getMessage());
+        verify(userEventProducer, never()).publishUserLoggedInEvent(any(User.class));
     }
 }
\ No newline at end of file
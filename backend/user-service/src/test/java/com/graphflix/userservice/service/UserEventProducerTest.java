@@ -0,0 +1,36 @@
+package com.graphflix.userservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.graphflix.outbox.OutboxService;
+import com.graphflix.userservice.model.User;
+
+class UserEventProducerTest {
+
+    private final OutboxService outboxService = mock(OutboxService.class);
+    private final UserEventProducer producer =
+            new UserEventProducer(outboxService, new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    private final User user = User.builder().id("1").name("John Doe").email("john@example.com").build();
+
+    @Test
+    void queuesTheLoginEventInTheOutbox() {
+        producer.publishUserLoggedInEvent(user);
+
+        verify(outboxService).enqueue(anyList());
+    }
+
+    @Test
+    void failingToQueueTheEventDoesNotFailTheLogin() {
+        doThrow(new IllegalStateException("Neo4j unavailable")).when(outboxService).enqueue(anyList());
+
+        assertDoesNotThrow(() -> producer.publishUserLoggedInEvent(user));
+    }
+}
@@ -0,0 +1,18 @@
+// Deterministic dataset for query-plan budgets: 200 users, every tenth one
+// with two-factor enabled, three watchlist entries per user and 500 outbox
+// events waiting to be relayed.
+// Indexes declared here are the ones the production graph is expected to have.
+CREATE INDEX user_email IF NOT EXISTS FOR (u:User) ON (u.email);
+CREATE CONSTRAINT outbox_event_id_unique IF NOT EXISTS FOR (e:OutboxEvent) REQUIRE e.id IS UNIQUE;
+CREATE INDEX outbox_event_created_at IF NOT EXISTS FOR (e:OutboxEvent) ON (e.createdAt, e.sequence);
+UNWIND range(1, 200) AS i
+CREATE (:User {id: 'user-' + i, name: 'User ' + i, email: 'user' + i + '@graphflix.test', password: 'hash',
+               twoFactorEnabled: i % 10 = 0, totpSecret: CASE WHEN i % 10 = 0 THEN 'SECRET' + i END,
+               tokenVersion: 0, version: 0});
+UNWIND range(1, 200) AS i
+UNWIND range(0, 2) AS j
+CREATE (:Watchlist {userId: 'user' + i + '@graphflix.test', movieId: 'movie-' + ((i * 5 + j * 29) % 300 + 1),
+                    movieTitle: 'Movie ' + ((i * 5 + j * 29) % 300 + 1), addedAt: localdatetime('2024-01-01T00:00:00')});
+UNWIND range(1, 500) AS i
+CREATE (:OutboxEvent {id: 'event-' + i, topic: 'watchlist-added', messageKey: 'user' + (i % 200 + 1) + '@graphflix.test',
+                      payload: '{}', createdAt: 1717243200000 + i / 10, sequence: i});
@@ -19,15 +19,23 @@ export interface AverageRatingDTO {
   movieId: string;
   average: number;
   count: number;
+  stdDev?: number;
 }
 
-export interface PagedRatingResponse {
+export interface RatingHistogramDTO {
+  movieId: string;
+  // counts[0] is the number of 1-star ratings, counts[9] of 10-star ratings
+  counts: number[];
+  total: number;
+}
+
+export type RatingSortKey = 'timestamp' | 'rating';
+
+// One keyset page; pass nextCursor back as cursor to load the following page
+export interface RatingSlice {
   content: Rating[];
-  totalElements: number;
-  totalPages: number;
-  number: number;
   size: number;
-  first: boolean;
-  last: boolean;
-  numberOfElements: number;
+  hasNext: boolean;
+  nextCursor?: string;
+  totalElements?: number;
 }
@@ -7,7 +7,9 @@ import {
   Rating,
   CreateRatingRequest,
   AverageRatingDTO,
-  PagedRatingResponse
+  RatingHistogramDTO,
+  RatingSlice,
+  RatingSortKey
 } from '../models/rating.model';
 
 @Injectable({
@@ -28,23 +30,25 @@ export class RatingService {
 
   getUserRatings(
     userId: string,
-    page: number = 0,
+    cursor?: string,
     size: number = 20,
-    sortBy: string = 'timestamp'
-  ): Observable<PagedRatingResponse> {
-    return this.http.get<PagedRatingResponse>(`${this.API_URL}/user/${userId}`, {
-      params: { page, size, sortBy }
+    sortBy: RatingSortKey = 'timestamp',
+    includeTotal: boolean = false
+  ): Observable<RatingSlice> {
+    return this.http.get<RatingSlice>(`${this.API_URL}/user/${userId}`, {
+      params: this.sliceParams(cursor, size, sortBy, includeTotal)
     });
   }
 
   getMovieRatings(
     movieId: string,
-    page: number = 0,
+    cursor?: string,
     size: number = 20,
-    sortBy: string = 'rating'
-  ): Observable<PagedRatingResponse> {
-    return this.http.get<PagedRatingResponse>(`${this.API_URL}/movie/${movieId}`, {
-      params: { page, size, sortBy }
+    sortBy: RatingSortKey = 'rating',
+    includeTotal: boolean = false
+  ): Observable<RatingSlice> {
+    return this.http.get<RatingSlice>(`${this.API_URL}/movie/${movieId}`, {
+      params: this.sliceParams(cursor, size, sortBy, includeTotal)
     });
   }
 
@@ -54,7 +58,36 @@ export class RatingService {
     );
   }
 
+  getAverageRatings(movieIds: string[]): Observable<AverageRatingDTO[]> {
+    return this.http.post<AverageRatingDTO[]>(`${this.API_URL}/movie/averages`, movieIds);
+  }
+
+  getRatingHistogram(movieId: string): Observable<RatingHistogramDTO> {
+    return this.http.get<RatingHistogramDTO>(
+      `${this.API_URL}/movie/${movieId}/histogram`
+    );
+  }
+
+  getRatingHistograms(movieIds: string[]): Observable<RatingHistogramDTO[]> {
+    return this.http.get<RatingHistogramDTO[]>(`${this.API_URL}/movie/histograms`, {
+      params: { ids: movieIds.join(',') }
+    });
+  }
+
   getMyRatingForMovie(movieId: string): Observable<Rating | null> {
     return this.http.get<Rating | null>(`${this.API_URL}/my-rating/${movieId}`);
   }
+
+  private sliceParams(
+    cursor: string | undefined,
+    size: number,
+    sortBy: RatingSortKey,
+    includeTotal: boolean
+  ): Record<string, string | number | boolean> {
+    const params: Record<string, string | number | boolean> = { size, sortBy, includeTotal };
+    if (cursor) {
+      params['cursor'] = cursor;
+    }
+    return params;
+  }
 }